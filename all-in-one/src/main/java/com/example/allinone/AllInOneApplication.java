@@ -0,0 +1,64 @@
+package com.example.allinone;
+
+import com.example.order.OrderServiceApplication;
+import com.example.payment.PaymentServiceApplication;
+import com.example.shipping.ShippingServiceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.net.URL;
+
+/**
+ * Runs the order, payment and shipping services in one JVM.  An
+ * {@link EmbeddedTemporalConfig} parent context hosts the Temporal test
+ * server; each service runs as its own child context with its own
+ * configuration file, HTTP port and H2 datasource, exactly as it would in
+ * its own JVM.  Beans of one service are therefore invisible to the others
+ * and the services still talk to each other only through Temporal and
+ * HTTP.
+ * <p>
+ * All three services ship an {@code application.properties}, and on a
+ * shared classpath only the first of them would be found.  Each child
+ * context is therefore pointed at the file inside its own service's jar.
+ * <p>
+ * The embedded server keeps all state in memory and does not report task
+ * queue backlogs, so the order service's admission control is disabled.
+ * Payment and shipping Activities keep their own task queues and workers
+ * rather than being dispatched eagerly to the order worker, which would
+ * bypass their interceptors and slot tuning.
+ */
+public class AllInOneApplication {
+
+    public static void main(String[] args) {
+        SpringApplicationBuilder parent = new SpringApplicationBuilder(EmbeddedTemporalConfig.class)
+                .properties("spring.config.name=all-in-one")
+                .web(WebApplicationType.NONE);
+        parent.run(args);
+        parent.child(PaymentServiceApplication.class)
+                .properties("spring.config.location=" + configOf(PaymentServiceApplication.class))
+                .run(args);
+        parent.child(ShippingServiceApplication.class)
+                .properties("spring.config.location=" + configOf(ShippingServiceApplication.class))
+                .run(args);
+        // The order service last, so the Activity workers already poll
+        // when it accepts the first order
+        parent.child(OrderServiceApplication.class)
+                .properties("spring.config.location=" + configOf(OrderServiceApplication.class),
+                        "order.admission.enabled=false")
+                .run(args);
+    }
+
+    /**
+     * Returns the URL of the {@code application.properties} next to
+     * {@code application} in its jar or classes directory.
+     */
+    static String configOf(Class<?> application) {
+        String classFile = application.getName().replace('.', '/') + ".class";
+        URL url = application.getClassLoader().getResource(classFile);
+        if (url == null) {
+            throw new IllegalStateException("Cannot locate " + classFile);
+        }
+        String location = url.toString();
+        return location.substring(0, location.length() - classFile.length()) + "application.properties";
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.allinone;
+
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Parent context of the all‑in‑one launcher.  It starts Temporal's
+ * in‑memory test server with time skipping disabled, so timers and timeouts
+ * run in real time, and shares its connection with the service contexts.
+ * Each service still builds its own {@code WorkflowClient} with its own
+ * interceptors on top of this connection.
+ */
+@Configuration
+public class EmbeddedTemporalConfig {
+
+    @Value("${temporal.namespace:default}")
+    private String namespace;
+
+    @Bean(destroyMethod = "close")
+    public TestWorkflowEnvironment testWorkflowEnvironment() {
+        return TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setUseTimeskipping(false)
+                .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                        .setNamespace(namespace)
+                        .build())
+                .build());
+    }
+
+    /**
+     * The embedded server's connection; closed together with the test
+     * environment rather than by each service.
+     */
+    @Bean(destroyMethod = "")
+    public WorkflowServiceStubs workflowServiceStubs(TestWorkflowEnvironment testWorkflowEnvironment) {
+        return testWorkflowEnvironment.getWorkflowServiceStubs();
+    }
+}
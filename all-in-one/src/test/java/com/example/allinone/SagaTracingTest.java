@@ -0,0 +1,125 @@
+package com.example.allinone;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.activities.OrderStatusActivity;
+import com.example.common.activities.ShippingActivity;
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.tracing.Tracing;
+import com.example.common.workflows.OrderWorkflow;
+import com.example.order.workflow.OrderWorkflowImpl;
+import com.example.payment.activity.PaymentActivityImpl;
+import com.example.payment.aggregate.PaymentAggregates;
+import com.example.payment.entity.Payment;
+import com.example.payment.provider.PaymentProvider;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Runs a saga on the Temporal test server with the tracing interceptors of
+ * the services and checks that one trace links the workflow start, the
+ * workflow, the payment Activity and the repository call it makes.
+ */
+class SagaTracingTest {
+
+    private static final String TASK_QUEUE = "saga-tracing-test";
+
+    @Test
+    void repositoryCallIsPartOfTheTraceStartedByTheClient() {
+        InMemorySpanExporter exporter = InMemorySpanExporter.create();
+        OpenTelemetrySdk openTelemetry = Tracing.newOpenTelemetry("all-in-one", exporter, 1.0);
+
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.save(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(42L);
+            return payment;
+        });
+        PaymentProvider paymentProvider = mock(PaymentProvider.class);
+        when(paymentProvider.charge(anyString(), anyDouble())).thenReturn("ch_1");
+        PaymentService paymentService = new PaymentService(paymentRepository, mock(PaymentAggregates.class),
+                paymentProvider, openTelemetry.getTracer("test"));
+        ReflectionTestUtils.setField(paymentService, "refundWindow", Duration.ofDays(30));
+
+        TestEnvironmentOptions options = TestEnvironmentOptions.newBuilder()
+                .setWorkflowClientOptions(WorkflowClientOptions.newBuilder()
+                        .setInterceptors(Tracing.clientInterceptor(openTelemetry))
+                        .build())
+                .setWorkerFactoryOptions(WorkerFactoryOptions.newBuilder()
+                        .setWorkerInterceptors(Tracing.workerInterceptor(openTelemetry))
+                        .build())
+                .build();
+        try (TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance(options)) {
+            Worker worker = testEnv.newWorker(TASK_QUEUE);
+            worker.registerWorkflowImplementationTypes(WorkflowImplementationOptions.newBuilder()
+                    .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                            .setStartToCloseTimeout(Duration.ofSeconds(10))
+                            .build())
+                    .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                            .setStartToCloseTimeout(Duration.ofSeconds(10))
+                            .build())
+                    .build(), OrderWorkflowImpl.class);
+            worker.registerActivitiesImplementations(new PaymentActivityImpl(paymentService),
+                    mock(InventoryActivity.class, withSettings().withoutAnnotations()),
+                    mock(ShippingActivity.class, withSettings().withoutAnnotations()),
+                    mock(OrderStatusActivity.class, withSettings().withoutAnnotations()));
+            testEnv.start();
+            OrderWorkflow workflow = testEnv.getWorkflowClient().newWorkflowStub(OrderWorkflow.class,
+                    WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).build());
+
+            workflow.placeOrder(new OrderDTO(1L, 123L, 10.0, 1, OrderPriority.EXPRESS));
+        }
+        openTelemetry.getSdkTracerProvider().forceFlush().join(10, TimeUnit.SECONDS);
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        Map<String, SpanData> byId = spans.stream()
+                .collect(Collectors.toMap(SpanData::getSpanId, Function.identity()));
+        SpanData save = spans.stream()
+                .filter(s -> s.getName().equals("PaymentRepository.save"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No repository span in " + spans));
+
+        List<String> ancestors = new ArrayList<>();
+        for (SpanData span = save; span != null; span = byId.get(span.getParentSpanId())) {
+            assertThat(span.getTraceId()).isEqualTo(save.getTraceId());
+            ancestors.add(span.getName());
+        }
+        assertThat(ancestors).containsSubsequence(
+                "PaymentRepository.save",
+                "RunActivity:DebitPayment",
+                "StartActivity:DebitPayment",
+                "RunWorkflow:OrderWorkflow",
+                "StartWorkflow:OrderWorkflow");
+        assertThat(ancestors.get(ancestors.size() - 1)).isEqualTo("StartWorkflow:OrderWorkflow");
+    }
+}
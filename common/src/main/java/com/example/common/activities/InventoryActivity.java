@@ -0,0 +1,36 @@
+package com.example.common.activities;
+
+import com.example.common.dto.OrderDTO;
+import io.temporal.activity.ActivityInterface;
+import io.temporal.activity.ActivityMethod;
+
+/**
+ * InventoryActivity reserves stock for an order before the customer is
+ * charged, so an order that cannot be fulfilled fails without a debit and a
+ * refund.  Reservations are keyed by the workflow execution, which makes
+ * both methods safe to retry.
+ */
+@ActivityInterface
+public interface InventoryActivity {
+
+    /**
+     * Reserves the order's quantity of its product.  Fails with a
+     * non‑retryable {@link com.example.common.failures.PermanentFailureException}
+     * when there is not enough stock.
+     *
+     * @param order the order to reserve stock for
+     */
+    @ActivityMethod
+    void reserveStock(OrderDTO order);
+
+    /**
+     * Returns the stock reserved for the order.  This is the compensation of
+     * {@link #reserveStock(OrderDTO)}; releasing a reservation that was
+     * never made succeeds and prevents a late reservation for the same
+     * workflow execution.
+     *
+     * @param order the order whose reservation is released
+     */
+    @ActivityMethod
+    void releaseStock(OrderDTO order);
+}
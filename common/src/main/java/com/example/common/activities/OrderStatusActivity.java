@@ -0,0 +1,25 @@
+package com.example.common.activities;
+
+import com.example.common.dto.OrderStatus;
+import io.temporal.activity.ActivityInterface;
+import io.temporal.activity.ActivityMethod;
+
+/**
+ * OrderStatusActivity records the progress of an order in the order
+ * service's database.  The workflow runs it as a local Activity on the
+ * order workflow worker, because the order database lives in the same
+ * process.
+ */
+@ActivityInterface
+public interface OrderStatusActivity {
+
+    /**
+     * Sets the status of the given order.  Setting the same status twice
+     * has no further effect, so the Activity is safe to retry.
+     *
+     * @param orderId the order to update
+     * @param status  the new status
+     */
+    @ActivityMethod
+    void updateStatus(Long orderId, OrderStatus status);
+}
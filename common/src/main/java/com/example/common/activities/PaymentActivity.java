@@ -28,7 +28,9 @@ public interface PaymentActivity {
     /**
      * Refunds a payment previously made. This is used as a compensating
      * transaction when a subsequent step in the workflow fails and we need
-     * to maintain data consistency.
+     * to maintain data consistency.  Refunding a payment that does not exist
+     * fails with a non‑retryable
+     * {@link com.example.common.failures.PermanentFailureException}.
      *
      * @param paymentId the ID of the payment to refund
      */
@@ -0,0 +1,39 @@
+package com.example.common.activities;
+
+import io.temporal.activity.ActivityInterface;
+import io.temporal.activity.ActivityMethod;
+
+import java.util.List;
+
+/**
+ * RefundBatchActivity refunds many payments at once on behalf of the
+ * {@link com.example.common.workflows.BulkRefundWorkflow}.  It lets a
+ * product recall refund payments in batches instead of one
+ * {@link PaymentActivity#refundPayment(Long)} call per payment.
+ */
+@ActivityInterface
+public interface RefundBatchActivity {
+
+    /**
+     * Returns the ids of payments of a product that have not been refunded,
+     * in ascending order.
+     *
+     * @param productId      the recalled product
+     * @param afterPaymentId only ids greater than this are returned
+     * @param limit          maximum number of ids to return
+     */
+    @ActivityMethod
+    List<Long> listRefundablePaymentIds(Long productId, Long afterPaymentId, int limit);
+
+    /**
+     * Refunds the given payments, skipping payments that are already
+     * refunded or no longer exist, so the Activity is safe to retry.  It
+     * heartbeats between chunks and stops at the next chunk boundary when
+     * its workflow is cancelled.
+     *
+     * @param paymentIds the payments to refund
+     * @return the number of payments refunded by this call
+     */
+    @ActivityMethod
+    int refundBatch(List<Long> paymentIds);
+}
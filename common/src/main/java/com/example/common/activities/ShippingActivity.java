@@ -17,7 +17,9 @@ public interface ShippingActivity {
     /**
      * Ships the items associated with the given order.  Temporal will
      * automatically retry this Activity if it throws an exception, according
-     * to configured retry policies.
+     * to configured retry policies, unless it fails with a
+     * {@link com.example.common.failures.PermanentFailureException} such as a
+     * rejected shipment.
      *
      * @param order the order to ship
      */
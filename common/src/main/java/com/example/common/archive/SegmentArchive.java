@@ -0,0 +1,229 @@
+package com.example.common.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append‑only archive of records in compressed segment files.  Each call to
+ * {@link #append(List)} writes one new segment per UTC day the records were
+ * created on, under {@code <directory>/<yyyy-MM-dd>/}.  A segment is a
+ * gzip‑compressed file of JSON lines ({@code <firstId>-<lastId>.jsonl.gz})
+ * accompanied by a small index ({@code .idx}) holding the record id range
+ * and the sorted, distinct order ids it contains.  Segments are never
+ * modified once written.
+ * <p>
+ * The indexes of all segments are kept in memory, so a lookup by order id
+ * only decompresses the segments that actually contain the order.  The
+ * index is written after its segment and both are moved into place
+ * atomically, so a segment without an index is an interrupted write; it is
+ * removed when the archive is opened.
+ *
+ * @param <T> the archived record type, serialised with Jackson
+ */
+public class SegmentArchive<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentArchive.class);
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+    private static final String SEGMENT_SUFFIX = ".jsonl.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int INDEX_MAGIC = 0x5345474d;
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final ToLongFunction<T> idOf;
+    private final ToLongFunction<T> orderIdOf;
+    private final Function<T, Instant> createdAtOf;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    /**
+     * Opens the archive in {@code directory}, creating it if necessary, and
+     * loads the indexes of existing segments.
+     *
+     * @param idOf        the record's unique id
+     * @param orderIdOf   the order id records are looked up by
+     * @param createdAtOf the creation time that selects the day partition
+     */
+    public SegmentArchive(Path directory, ObjectMapper objectMapper, Class<T> type, ToLongFunction<T> idOf,
+                          ToLongFunction<T> orderIdOf, Function<T, Instant> createdAtOf) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.idOf = idOf;
+        this.orderIdOf = orderIdOf;
+        this.createdAtOf = createdAtOf;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    /**
+     * Writes the records to new segments, one per day partition.  When this
+     * method returns the records are durable and visible to lookups, and
+     * the caller may delete them from the hot table.
+     *
+     * @param records records ordered by id
+     */
+    public synchronized void append(List<T> records) throws IOException {
+        Map<String, List<T>> byDay = new TreeMap<>();
+        for (T record : records) {
+            byDay.computeIfAbsent(DAY.format(createdAtOf.apply(record)), d -> new ArrayList<>()).add(record);
+        }
+        for (Map.Entry<String, List<T>> day : byDay.entrySet()) {
+            segments.add(writeSegment(directory.resolve(day.getKey()), day.getValue()));
+        }
+    }
+
+    /**
+     * Returns the archived records of an order in id order.
+     */
+    public List<T> findByOrderId(long orderId) throws IOException {
+        List<T> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (!segment.contains(orderId)) {
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(segment.file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    T record = objectMapper.readValue(line, type);
+                    if (orderIdOf.applyAsLong(record) == orderId) {
+                        result.add(record);
+                    }
+                }
+            }
+        }
+        result.sort((a, b) -> Long.compare(idOf.applyAsLong(a), idOf.applyAsLong(b)));
+        return result;
+    }
+
+    /** Number of segments in the archive. */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /** Number of records in the archive. */
+    public long recordCount() {
+        return segments.stream().mapToLong(s -> s.recordCount).sum();
+    }
+
+    private Segment writeSegment(Path dayDirectory, List<T> records) throws IOException {
+        Files.createDirectories(dayDirectory);
+        long firstId = idOf.applyAsLong(records.get(0));
+        long lastId = idOf.applyAsLong(records.get(records.size() - 1));
+        String name = firstId + "-" + lastId;
+        Path file = dayDirectory.resolve(name + SEGMENT_SUFFIX);
+        Path indexFile = dayDirectory.resolve(name + INDEX_SUFFIX);
+
+        Path tmp = dayDirectory.resolve(name + SEGMENT_SUFFIX + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8))) {
+            for (T record : records) {
+                writer.write(objectMapper.writeValueAsString(record));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        long[] orderIds = records.stream().mapToLong(orderIdOf).sorted().distinct().toArray();
+        Segment segment = new Segment(file, records.size(), orderIds);
+        Path tmpIndex = dayDirectory.resolve(name + INDEX_SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmpIndex))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(segment.recordCount);
+            out.writeInt(orderIds.length);
+            for (long orderId : orderIds) {
+                out.writeLong(orderId);
+            }
+        }
+        Files.move(tmpIndex, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // A rewrite of the same id range replaces the earlier segment
+        segments.removeIf(s -> s.file.equals(file));
+        logger.info("Archived {} records with ids {}..{} to {}", records.size(), firstId, lastId, file);
+        return segment;
+    }
+
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(".tmp")) {
+                Files.delete(file);
+            } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                Path indexFile = file.resolveSibling(name.substring(0, name.length() - SEGMENT_SUFFIX.length()) + INDEX_SUFFIX);
+                if (Files.exists(indexFile)) {
+                    segments.add(readIndex(file, indexFile));
+                } else {
+                    logger.warn("Removing archive segment {} without index", file);
+                    Files.delete(file);
+                }
+            }
+        }
+        logger.info("Opened archive {} with {} segments", directory, segments.size());
+    }
+
+    private Segment readIndex(Path file, Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexFile))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                throw new IOException("Not an archive index: " + indexFile);
+            }
+            long recordCount = in.readLong();
+            long[] orderIds = new long[in.readInt()];
+            for (int i = 0; i < orderIds.length; i++) {
+                orderIds[i] = in.readLong();
+            }
+            return new Segment(file, recordCount, orderIds);
+        }
+    }
+
+    /**
+     * In‑memory index of one segment.
+     */
+    private static final class Segment {
+        private final Path file;
+        private final long recordCount;
+        private final long[] orderIds;
+
+        Segment(Path file, long recordCount, long[] orderIds) {
+            this.file = file;
+            this.recordCount = recordCount;
+            this.orderIds = orderIds;
+        }
+
+        boolean contains(long orderId) {
+            return orderIds.length > 0
+                    && orderId >= orderIds[0] && orderId <= orderIds[orderIds.length - 1]
+                    && Arrays.binarySearch(orderIds, orderId) >= 0;
+        }
+    }
+}
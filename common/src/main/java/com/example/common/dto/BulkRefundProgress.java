@@ -0,0 +1,48 @@
+package com.example.common.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a bulk refund.  It is carried across continue‑as‑new runs of
+ * the {@link com.example.common.workflows.BulkRefundWorkflow} and returned
+ * by its progress query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundProgress implements Serializable {
+
+    /**
+     * Highest payment id whose batch has completed; the next page starts
+     * after it.
+     */
+    private long lastPaymentId;
+
+    /**
+     * Payments examined so far.
+     */
+    private long scanned;
+
+    /**
+     * Payments refunded so far.
+     */
+    private long refunded;
+
+    /**
+     * Number of workflow runs, counting continue‑as‑new.
+     */
+    private int runs;
+
+    /**
+     * Whether every refundable payment has been processed.
+     */
+    private boolean done;
+
+    /**
+     * Whether the bulk refund was cancelled before it was done.
+     */
+    private boolean cancelled;
+}
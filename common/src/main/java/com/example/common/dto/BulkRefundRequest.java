@@ -0,0 +1,45 @@
+package com.example.common.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Input of the {@link com.example.common.workflows.BulkRefundWorkflow}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundRequest implements Serializable {
+
+    /**
+     * The recalled product whose payments are refunded.
+     */
+    private Long productId;
+
+    /**
+     * Number of payment ids fetched per page.
+     */
+    private int pageSize;
+
+    /**
+     * Number of payments refunded by one Activity.
+     */
+    private int batchSize;
+
+    /**
+     * Maximum number of refund Activities running at the same time.
+     */
+    private int concurrency;
+
+    /**
+     * Number of pages after which the workflow continues as new.
+     */
+    private int pagesPerRun;
+
+    /**
+     * Progress of previous runs; {@code null} for the first run.
+     */
+    private BulkRefundProgress progress;
+}
@@ -42,4 +42,9 @@ public class OrderDTO implements Serializable {
      */
     @Positive
     private Integer quantity;
+
+    /**
+     * Priority lane the order's workflow and Activities are routed to.
+     */
+    private OrderPriority priority;
 }
\ No newline at end of file
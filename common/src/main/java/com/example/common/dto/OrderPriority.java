@@ -0,0 +1,48 @@
+package com.example.common.dto;
+
+/**
+ * Priority lane of an order.  Each lane has its own set of task queues so
+ * that bulk traffic (imports, re‑drives, retry storms) queues up separately
+ * from interactive checkout orders, and the workers of every service poll
+ * each lane with separately configured capacity.
+ */
+public enum OrderPriority {
+
+    /** Interactive checkout orders.  Uses the base task queue names. */
+    EXPRESS(""),
+
+    /** Bulk imports and other background traffic. */
+    BULK("_BULK");
+
+    private final String taskQueueSuffix;
+
+    OrderPriority(String taskQueueSuffix) {
+        this.taskQueueSuffix = taskQueueSuffix;
+    }
+
+    /**
+     * Returns the lane's variant of a task queue, for example
+     * {@code ORDER_TASK_QUEUE_BULK} for {@code ORDER_TASK_QUEUE}.
+     *
+     * @param baseTaskQueue the configured task queue name
+     * @return the task queue polled for this lane
+     */
+    public String taskQueue(String baseTaskQueue) {
+        return baseTaskQueue + taskQueueSuffix;
+    }
+
+    /**
+     * Lower‑case name used in configuration keys such as
+     * {@code temporal.lanes.bulk.activityConcurrency}.
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Orders without an explicit priority are treated as express orders.
+     */
+    public static OrderPriority orDefault(OrderPriority priority) {
+        return priority != null ? priority : EXPRESS;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.common.dto;
+
+/**
+ * Lifecycle status of an order as recorded by the order workflow.
+ */
+public enum OrderStatus {
+    /** The order was accepted and its workflow started. */
+    PENDING,
+    /** The payment was debited. */
+    PAID,
+    /** The order was shipped; the saga completed successfully. */
+    COMPLETED,
+    /** A later step failed and the payment was refunded. */
+    COMPENSATED,
+    /** The saga failed and could not be compensated, or failed before payment. */
+    FAILED
+}
@@ -0,0 +1,41 @@
+package com.example.common.dto;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of the payment step of an order workflow, returned to callers that
+ * wait for the debit synchronously.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentOutcome implements Serializable {
+
+    /**
+     * Whether the payment was debited.
+     */
+    private boolean paid;
+
+    /**
+     * Identifier of the payment when it was debited.
+     */
+    private Long paymentId;
+
+    /**
+     * Reason the debit failed, if it did.
+     */
+    private String failure;
+
+    /**
+     * Whether the order was refused because its stock could not be
+     * reserved, in which case no debit was attempted.
+     */
+    private boolean outOfStock;
+
+    public PaymentOutcome(boolean paid, Long paymentId, String failure) {
+        this(paid, paymentId, failure, false);
+    }
+}
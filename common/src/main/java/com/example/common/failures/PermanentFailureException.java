@@ -0,0 +1,21 @@
+package com.example.common.failures;
+
+/**
+ * Signals a failure that will not go away by retrying, for example a refund
+ * of a payment that does not exist or a shipment the carrier has rejected.
+ * When thrown from an Activity, Temporal reports it as an application
+ * failure whose type is this class' fully qualified name.  The order
+ * workflow lists that type as non‑retryable so a permanent failure fails the
+ * Activity on the first attempt and the saga proceeds straight to
+ * compensation instead of waiting out the retry backoff.
+ */
+public class PermanentFailureException extends RuntimeException {
+
+    public PermanentFailureException(String message) {
+        super(message);
+    }
+
+    public PermanentFailureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.common.failures;
+
+/**
+ * Signals a failure that is expected to clear up on its own, such as a
+ * timeout or an unavailable downstream system.  Activities throw it to make
+ * the intent explicit; Temporal retries it according to the Activity's
+ * {@link io.temporal.common.RetryOptions}.
+ */
+public class TransientFailureException extends RuntimeException {
+
+    public TransientFailureException(String message) {
+        super(message);
+    }
+
+    public TransientFailureException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
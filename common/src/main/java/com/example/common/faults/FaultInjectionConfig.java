@@ -0,0 +1,48 @@
+package com.example.common.faults;
+
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fault injection for benchmarking retries and compensation, imported by
+ * the services whose workers run Activities.  Nothing is registered unless
+ * {@code faults.enabled=true}: no {@link FaultRegistry}, no worker
+ * interceptor and no {@code /admin/faults} endpoints, so a production
+ * deployment cannot have faults switched on over HTTP.  When enabled, the
+ * initial faults are bound from {@code faults.*} properties, for example
+ * {@code faults.activities[DebitPayment].latency=LOGNORMAL}, and can be
+ * changed or paused at runtime through {@link FaultInjectionController}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "faults.enabled", havingValue = "true")
+@EnableConfigurationProperties(FaultInjectionConfig.FaultProperties.class)
+@Import(FaultInjectionController.class)
+public class FaultInjectionConfig {
+
+    @Bean
+    public FaultRegistry faultRegistry(FaultProperties properties) {
+        FaultRegistry registry = new FaultRegistry();
+        registry.setEnabled(true);
+        properties.getActivities().forEach((activityType, spec) -> {
+            // Fail at startup rather than inject nonsense during a benchmark
+            spec.validate();
+            registry.put(activityType, spec);
+        });
+        return registry;
+    }
+
+    @Data
+    @ConfigurationProperties(prefix = "faults")
+    public static class FaultProperties {
+        private boolean enabled;
+        private Map<String, FaultSpec> activities = new HashMap<>();
+    }
+}
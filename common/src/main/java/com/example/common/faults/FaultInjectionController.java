@@ -0,0 +1,76 @@
+package com.example.common.faults;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoints to change injected faults while a benchmark is running.
+ * Specs are keyed by Activity type; {@code *} applies to every Activity
+ * type without its own spec.  Registered by {@link FaultInjectionConfig}
+ * only, so the endpoints do not exist unless {@code faults.enabled} is set.
+ */
+@RestController
+@RequestMapping("/admin/faults")
+@RequiredArgsConstructor
+public class FaultInjectionController {
+
+    private final FaultRegistry faultRegistry;
+
+    /**
+     * Returns whether injection is enabled, the configured specs and the
+     * number of faults injected so far.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> describe() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("enabled", faultRegistry.isEnabled());
+        body.put("activities", faultRegistry.specs());
+        body.put("injected", faultRegistry.counters());
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Enables or disables injection without discarding the specs.
+     */
+    @PutMapping
+    public ResponseEntity<Void> setEnabled(@RequestParam boolean enabled) {
+        faultRegistry.setEnabled(enabled);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Replaces the spec of an Activity type.
+     *
+     * @return 204, or 400 if a rate is not a probability
+     */
+    @PutMapping("/{activityType}")
+    public ResponseEntity<Void> put(@PathVariable String activityType, @RequestBody FaultSpec spec) {
+        try {
+            spec.validate();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        faultRegistry.put(activityType, spec);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Removes the spec of an Activity type.
+     */
+    @DeleteMapping("/{activityType}")
+    public ResponseEntity<Void> remove(@PathVariable String activityType) {
+        faultRegistry.remove(activityType);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.common.faults;
+
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.failures.TransientFailureException;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.activity.ActivityInfo;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkerInterceptorBase;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Worker interceptor that injects latency, errors and hangs into Activity
+ * executions according to a {@link FaultRegistry}.  It wraps any Activity
+ * implementation without changes to its code, which makes it possible to
+ * benchmark retries and compensation under realistic fault rates.  Faults
+ * are applied before the Activity runs, so an injected error never leaves
+ * a partial side effect behind.
+ */
+public class FaultInjectionWorkerInterceptor extends WorkerInterceptorBase {
+
+    private final FaultRegistry registry;
+
+    public FaultInjectionWorkerInterceptor(FaultRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ActivityInboundCallsInterceptor interceptActivity(ActivityInboundCallsInterceptor next) {
+        return new FaultInjectingActivityInterceptor(next);
+    }
+
+    private final class FaultInjectingActivityInterceptor extends ActivityInboundCallsInterceptorBase {
+
+        private ActivityExecutionContext context;
+
+        FaultInjectingActivityInterceptor(ActivityInboundCallsInterceptor next) {
+            super(next);
+        }
+
+        @Override
+        public void init(ActivityExecutionContext context) {
+            this.context = context;
+            super.init(context);
+        }
+
+        @Override
+        public ActivityOutput execute(ActivityInput input) {
+            ActivityInfo info = context.getInfo();
+            FaultSpec spec = registry.specFor(info.getActivityType());
+            if (spec != null) {
+                inject(spec, info);
+            }
+            return super.execute(input);
+        }
+
+        private void inject(FaultSpec spec, ActivityInfo info) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Duration latency = FaultRegistry.sampleLatency(spec);
+            if (!latency.isZero()) {
+                registry.delayInjected();
+                sleep(latency);
+            }
+            if (random.nextDouble() < spec.getTimeoutRate()) {
+                registry.timeoutInjected();
+                // Hang past the deadline like an unresponsive dependency would
+                sleep(info.getStartToCloseTimeout().plusSeconds(1));
+            }
+            if (random.nextDouble() < spec.getErrorRate()) {
+                registry.errorInjected();
+                String message = "Injected fault in " + info.getActivityType() + " attempt " + info.getAttempt();
+                if (spec.isPermanentErrors()) {
+                    throw new PermanentFailureException(message);
+                }
+                throw new TransientFailureException(message);
+            }
+        }
+
+        private void sleep(Duration duration) {
+            try {
+                Thread.sleep(duration.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransientFailureException("Interrupted while injecting latency", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.common.faults;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime‑configurable set of {@link FaultSpec}s keyed by Activity type
+ * (for example {@code DebitPayment} or {@code ShipOrder}).  The key
+ * {@value #ALL_ACTIVITIES} applies to every Activity type without its own
+ * entry.  Specs can be replaced at any time, and the registry counts the
+ * faults it injected so benchmark runs can be checked against the
+ * configured rates.
+ */
+public class FaultRegistry {
+
+    /** Key of the spec applied to Activity types without their own entry. */
+    public static final String ALL_ACTIVITIES = "*";
+
+    /** The 99th percentile of the standard normal distribution. */
+    private static final double Z_99 = 2.3263478740;
+
+    private final ConcurrentMap<String, FaultSpec> specs = new ConcurrentHashMap<>();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong injectedTimeouts = new AtomicLong();
+    private final AtomicLong injectedDelays = new AtomicLong();
+    private volatile boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void put(String activityType, FaultSpec spec) {
+        specs.put(activityType, spec);
+    }
+
+    public void remove(String activityType) {
+        specs.remove(activityType);
+    }
+
+    /** Returns a sorted copy of the configured specs. */
+    public Map<String, FaultSpec> specs() {
+        return new TreeMap<>(specs);
+    }
+
+    /**
+     * Returns the spec for an Activity type, or {@code null} if injection is
+     * disabled or nothing is configured for it.
+     */
+    public FaultSpec specFor(String activityType) {
+        if (!enabled) {
+            return null;
+        }
+        FaultSpec spec = specs.get(activityType);
+        return spec != null ? spec : specs.get(ALL_ACTIVITIES);
+    }
+
+    /** Counters of injected faults since startup. */
+    public Map<String, Long> counters() {
+        return Map.of(
+                "errors", injectedErrors.get(),
+                "timeouts", injectedTimeouts.get(),
+                "delays", injectedDelays.get());
+    }
+
+    /**
+     * Draws a latency from the spec's distribution.
+     */
+    static Duration sampleLatency(FaultSpec spec) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (spec.getLatency()) {
+            case FIXED:
+                return Duration.ofMillis(spec.getLatencyMs());
+            case UNIFORM:
+                long max = Math.max(spec.getLatencyMs(), spec.getLatencyMaxMs());
+                return Duration.ofMillis(spec.getLatencyMs() + random.nextLong(max - spec.getLatencyMs() + 1));
+            case LOGNORMAL:
+                double median = Math.max(1, spec.getLatencyMs());
+                double p99 = Math.max(median, spec.getLatencyMaxMs());
+                double sigma = Math.log(p99 / median) / Z_99;
+                return Duration.ofMillis(Math.round(median * Math.exp(sigma * random.nextGaussian())));
+            default:
+                return Duration.ZERO;
+        }
+    }
+
+    void errorInjected() {
+        injectedErrors.incrementAndGet();
+    }
+
+    void timeoutInjected() {
+        injectedTimeouts.incrementAndGet();
+    }
+
+    void delayInjected() {
+        injectedDelays.incrementAndGet();
+    }
+}
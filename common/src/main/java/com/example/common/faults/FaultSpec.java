@@ -0,0 +1,59 @@
+package com.example.common.faults;
+
+import lombok.Data;
+
+/**
+ * Faults to inject into one Activity type.  Rates are probabilities between
+ * 0.0 and 1.0 evaluated independently on every Activity attempt.
+ */
+@Data
+public class FaultSpec {
+
+    /** Shape of the injected latency. */
+    public enum LatencyDistribution {
+        /** No added latency. */
+        NONE,
+        /** Always {@link #latencyMs}. */
+        FIXED,
+        /** Uniform between {@link #latencyMs} and {@link #latencyMaxMs}. */
+        UNIFORM,
+        /** Log‑normal with median {@link #latencyMs} and 99th percentile {@link #latencyMaxMs}. */
+        LOGNORMAL
+    }
+
+    /** Probability that an attempt fails with an injected error. */
+    private double errorRate;
+
+    /** Whether injected errors are permanent (non‑retryable) rather than transient. */
+    private boolean permanentErrors;
+
+    /**
+     * Probability that an attempt hangs past its start‑to‑close timeout so
+     * that Temporal times it out.
+     */
+    private double timeoutRate;
+
+    /** Never {@code null}: a spec that leaves it empty adds no latency. */
+    private LatencyDistribution latency = LatencyDistribution.NONE;
+
+    /** Fixed latency, lower bound (uniform) or median (log‑normal), in milliseconds. */
+    private long latencyMs;
+
+    /** Upper bound (uniform) or 99th percentile (log‑normal), in milliseconds. */
+    private long latencyMaxMs;
+
+    public void setLatency(LatencyDistribution latency) {
+        this.latency = latency != null ? latency : LatencyDistribution.NONE;
+    }
+
+    /**
+     * Checks that the rates are probabilities.
+     *
+     * @throws IllegalArgumentException if a rate is outside 0.0 to 1.0
+     */
+    public void validate() {
+        if (errorRate < 0 || errorRate > 1 || timeoutRate < 0 || timeoutRate > 1) {
+            throw new IllegalArgumentException("Fault rates must be between 0.0 and 1.0: " + this);
+        }
+    }
+}
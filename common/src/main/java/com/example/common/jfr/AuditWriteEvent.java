@@ -0,0 +1,24 @@
+package com.example.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Times one append to a service's audit log file.  Write failures are
+ * logged rather than thrown, so the outcome is the only place they show up
+ * in a recording.
+ */
+@Name("com.example.saga.AuditWrite")
+@Label("Audit Log Write")
+@Description("An append to a service's audit log file")
+public class AuditWriteEvent extends SagaEvent {
+
+    @Label("Action")
+    String action;
+
+    public AuditWriteEvent(String action, Long orderId) {
+        this.action = action;
+        setOrderId(orderId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.common.jfr;
+
+import java.util.function.Supplier;
+
+/**
+ * Helpers to time a call with a {@link SagaEvent}.  When the event type is
+ * not enabled in any running recording the call is made directly.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Runs {@code body} inside {@code event} and records whether it returned
+     * or threw.
+     */
+    public static <T> T record(SagaEvent event, Supplier<T> body) {
+        if (!event.isEnabled()) {
+            return body.get();
+        }
+        event.begin();
+        try {
+            T result = body.get();
+            event.succeeded();
+            return result;
+        } catch (RuntimeException | Error e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Variant of {@link #record(SagaEvent, Supplier)} for calls without a
+     * result.
+     */
+    public static void run(SagaEvent event, Runnable body) {
+        record(event, () -> {
+            body.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Times the placement of an order: persisting it and starting its workflow,
+ * and in synchronous mode waiting for the payment outcome.  The outcome is
+ * the order status handed back to the caller.
+ */
+@Name("com.example.saga.OrderPlacement")
+@Label("Order Placement")
+@Description("Persisting an order and starting its workflow")
+public class OrderPlacementEvent extends SagaEvent {
+
+    @Label("Placement Mode")
+    String mode;
+
+    public OrderPlacementEvent(String mode) {
+        this.mode = mode;
+    }
+}
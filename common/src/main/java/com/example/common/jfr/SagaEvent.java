@@ -0,0 +1,48 @@
+package com.example.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the custom Flight Recorder events emitted along a saga.
+ * Every event carries the order it belongs to and the outcome of the timed
+ * call; the duration is the event's own begin/commit interval.  Events are
+ * only materialised while a recording has them enabled: {@link Event#commit()}
+ * is a no‑op otherwise, and the JIT removes the allocation of an event that
+ * does not escape, so instrumented code paths cost next to nothing when no
+ * recording is running.
+ */
+@Category({"Saga Demo", "Saga"})
+@StackTrace(false)
+public abstract class SagaEvent extends Event {
+
+    /** Outcome recorded for calls that returned normally. */
+    public static final String OK = "OK";
+
+    @Label("Order Id")
+    @Description("Order the call was made for, or 0 when it is not tied to a single order")
+    long orderId;
+
+    @Label("Outcome")
+    @Description("OK, or the type of the failure that ended the call")
+    String outcome;
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId != null ? orderId : 0L;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public void succeeded() {
+        this.outcome = OK;
+    }
+
+    public void failed(Throwable failure) {
+        this.outcome = failure.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Times one step of the order saga as seen by the workflow, from scheduling
+ * the Activity to receiving its result, retries included.  Steps that
+ * complete while the workflow is replaying its history are not recorded,
+ * so a replay after a cache eviction or a worker restart does not count a
+ * step twice.
+ */
+@Name("com.example.saga.SagaStep")
+@Label("Saga Step")
+@Description("A step or compensation of the order saga")
+public class SagaStepEvent extends SagaEvent {
+
+    @Label("Workflow Id")
+    String workflowId;
+
+    @Label("Step")
+    String step;
+
+    @Label("Compensation")
+    boolean compensation;
+
+    @Label("Started In Replay")
+    @Description("The step began during a replay, so the duration covers only the live part of the wait")
+    boolean startedInReplay;
+
+    public SagaStepEvent(Long orderId, String workflowId, String step, boolean compensation) {
+        setOrderId(orderId);
+        this.workflowId = workflowId;
+        this.step = step;
+        this.compensation = compensation;
+    }
+
+    public void setStartedInReplay(boolean startedInReplay) {
+        this.startedInReplay = startedInReplay;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.common.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Times a business service call made by an Activity, including the payment
+ * provider and database work it performs.
+ */
+@Name("com.example.saga.ServiceCall")
+@Label("Service Call")
+@Description("A payment or shipping service call and the persistence behind it")
+public class ServiceCallEvent extends SagaEvent {
+
+    @Label("Operation")
+    String operation;
+
+    public ServiceCallEvent(String operation, Long orderId) {
+        this.operation = operation;
+        setOrderId(orderId);
+    }
+}
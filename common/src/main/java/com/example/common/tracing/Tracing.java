@@ -0,0 +1,147 @@
+package com.example.common.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.opentracingshim.OpenTracingShim;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.temporal.common.interceptors.WorkerInterceptor;
+import io.temporal.common.interceptors.WorkflowClientInterceptor;
+import io.temporal.opentracing.OpenTracingClientInterceptor;
+import io.temporal.opentracing.OpenTracingOptions;
+import io.temporal.opentracing.OpenTracingWorkerInterceptor;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Helpers shared by the services to trace a saga end to end.  Temporal's
+ * OpenTracing interceptors are bridged to OpenTelemetry through the
+ * OpenTracing shim, so the span context is carried in Temporal headers from
+ * the workflow start through the workflow into Activities running in other
+ * JVMs.  Spans are exported via OTLP, written to the log for offline runs,
+ * or not exported at all.
+ */
+public final class Tracing {
+
+    /** Exporter modes accepted by {@link #newSpanExporter(String, String)}. */
+    public static final String EXPORTER_OTLP = "otlp";
+    public static final String EXPORTER_LOGGING = "logging";
+    public static final String EXPORTER_NONE = "none";
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    private Tracing() {
+    }
+
+    /**
+     * Creates the span exporter for the given mode.  The {@code logging} mode
+     * writes each finished span to {@code java.util.logging}, so traces can
+     * be followed without a collector.
+     *
+     * @param mode         one of {@code otlp}, {@code logging} or {@code none}
+     * @param otlpEndpoint collector endpoint used in {@code otlp} mode
+     */
+    public static SpanExporter newSpanExporter(String mode, String otlpEndpoint) {
+        switch (mode) {
+            case EXPORTER_OTLP:
+                return OtlpGrpcSpanExporter.builder().setEndpoint(otlpEndpoint).build();
+            case EXPORTER_LOGGING:
+                return LoggingSpanExporter.create();
+            case EXPORTER_NONE:
+                return SpanExporter.composite(List.of());
+            default:
+                throw new IllegalArgumentException("Unknown tracing exporter: " + mode);
+        }
+    }
+
+    /**
+     * Builds an OpenTelemetry SDK instance for one service.  The instance is
+     * not registered globally so that several services can share a JVM.
+     *
+     * @param serviceName   value of the {@code service.name} resource attribute
+     * @param exporter      where finished spans go
+     * @param samplingRatio fraction of new traces to sample, 0.0 to 1.0
+     */
+    public static OpenTelemetrySdk newOpenTelemetry(String serviceName, SpanExporter exporter, double samplingRatio) {
+        // Log spans as soon as they end, so they interleave with the service's own log lines
+        SpanProcessor processor = exporter instanceof LoggingSpanExporter
+                ? SimpleSpanProcessor.create(exporter)
+                : BatchSpanProcessor.builder(exporter).build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, serviceName))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(samplingRatio)))
+                .addSpanProcessor(processor)
+                .build();
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    /**
+     * Client interceptor that creates a span for workflow starts, signals and
+     * queries and propagates its context to the workflow.
+     */
+    public static WorkflowClientInterceptor clientInterceptor(OpenTelemetry openTelemetry) {
+        return new OpenTracingClientInterceptor(openTracingOptions(openTelemetry));
+    }
+
+    /**
+     * Worker interceptor that continues the propagated trace in workflow code
+     * and Activities.  The interceptor is replay aware and does not emit
+     * duplicate spans when a workflow history is replayed.
+     */
+    public static WorkerInterceptor workerInterceptor(OpenTelemetry openTelemetry) {
+        return new OpenTracingWorkerInterceptor(openTracingOptions(openTelemetry));
+    }
+
+    /**
+     * Runs {@code body} in a new child span of the current span, recording
+     * an exception thrown by it.
+     */
+    public static <T> T inSpan(Tracer tracer, String name, SpanKind kind, Supplier<T> body) {
+        Span span = tracer.spanBuilder(name).setSpanKind(kind).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return body.get();
+        } catch (RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR, String.valueOf(e.getMessage()));
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Runs {@code body} in a new internal child span of the current span.
+     */
+    public static void inSpan(Tracer tracer, String name, Runnable body) {
+        inSpan(tracer, name, SpanKind.INTERNAL, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    private static OpenTracingOptions openTracingOptions(OpenTelemetry openTelemetry) {
+        return OpenTracingOptions.newBuilder()
+                .setTracer(OpenTracingShim.createTracerShim(openTelemetry))
+                .build();
+    }
+}
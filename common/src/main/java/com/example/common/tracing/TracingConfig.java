@@ -0,0 +1,50 @@
+package com.example.common.tracing;
+
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * OpenTelemetry setup shared by the services, imported by each service's
+ * application class.  The exporter is selected with {@code tracing.exporter}:
+ * {@code otlp} sends spans to the collector at {@code tracing.otlp.endpoint},
+ * {@code logging} writes them to the log for offline runs, and {@code none}
+ * discards them.  The {@code service.name} of the spans is the service's
+ * {@code spring.application.name}.
+ */
+@Configuration
+public class TracingConfig {
+
+    /** Instrumentation scope of the spans the services create themselves. */
+    private static final String INSTRUMENTATION_NAME = "com.example.saga";
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
+    @Value("${tracing.exporter:none}")
+    private String exporter;
+
+    @Value("${tracing.otlp.endpoint:http://localhost:4317}")
+    private String otlpEndpoint;
+
+    @Value("${tracing.samplingRatio:1.0}")
+    private double samplingRatio;
+
+    @Bean
+    public SpanExporter spanExporter() {
+        return Tracing.newSpanExporter(exporter, otlpEndpoint);
+    }
+
+    @Bean
+    public OpenTelemetrySdk openTelemetry(SpanExporter spanExporter) {
+        return Tracing.newOpenTelemetry(serviceName, spanExporter, samplingRatio);
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetrySdk openTelemetry) {
+        return openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    }
+}
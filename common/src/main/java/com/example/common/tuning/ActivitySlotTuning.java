@@ -0,0 +1,116 @@
+package com.example.common.tuning;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.tuning.ActivitySlotInfo;
+import io.temporal.worker.tuning.CompositeTuner;
+import io.temporal.worker.tuning.FixedSizeSlotSupplier;
+import io.temporal.worker.tuning.JVMSystemResourceInfo;
+import io.temporal.worker.tuning.LocalActivitySlotInfo;
+import io.temporal.worker.tuning.NexusSlotInfo;
+import io.temporal.worker.tuning.ResourceBasedController;
+import io.temporal.worker.tuning.ResourceBasedControllerOptions;
+import io.temporal.worker.tuning.ResourceBasedSlotOptions;
+import io.temporal.worker.tuning.ResourceBasedSlotSupplier;
+import io.temporal.worker.tuning.SlotSupplier;
+import io.temporal.worker.tuning.WorkflowSlotInfo;
+
+import java.time.Duration;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Chooses how many Activity slots the workers of a service get.  In
+ * {@link Mode#FIXED} mode each worker gets the configured number of slots.
+ * In {@link Mode#RESOURCE_BASED} mode that number is only the ceiling:
+ * Temporal's {@link ResourceBasedSlotSupplier} grants slots above
+ * {@code minSlots} while CPU and memory stay below their targets, so
+ * I/O‑bound Activities scale up and a saturated node backs off.  The JDBC
+ * pool's usage counts as memory pressure (see {@link JdbcAwareResourceInfo}).
+ * <p>
+ * All workers of a service share one controller, since they compete for the
+ * same CPU, heap and pool.  In both modes slot grants, waits and releases
+ * are counted per task queue; in resource‑based mode the resource readings
+ * the controller acts on are exported as gauges as well.  Workflow, local
+ * Activity and Nexus slots stay fixed.
+ */
+public class ActivitySlotTuning {
+
+    /** How Activity slots are sized. */
+    public enum Mode {
+        FIXED,
+        RESOURCE_BASED
+    }
+
+    /** Slots of the task types that are not tuned, the SDK's own default. */
+    private static final int FIXED_SLOTS = 200;
+
+    private final Mode mode;
+    private final int minSlots;
+    private final Duration rampThrottle;
+    private final MeterRegistry meterRegistry;
+    private final ResourceBasedController controller;
+
+    /**
+     * @param mode              fixed or resource‑based slots
+     * @param targetCpuUsage    CPU usage, 0 to 1, up to which slots are granted
+     * @param targetMemoryUsage memory usage, 0 to 1, up to which slots are granted
+     * @param targetPoolUsage   JDBC pool usage, 0 to 1, up to which slots are granted
+     * @param minSlots          slots every worker gets regardless of load
+     * @param rampThrottle      minimum time between two grants above the minimum
+     * @param poolUsage         current JDBC pool usage, 0 to 1
+     * @param meterRegistry     registry for the slot and resource metrics
+     */
+    public ActivitySlotTuning(Mode mode, double targetCpuUsage, double targetMemoryUsage, double targetPoolUsage,
+                              int minSlots, Duration rampThrottle, DoubleSupplier poolUsage,
+                              MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.minSlots = minSlots;
+        this.rampThrottle = rampThrottle;
+        this.meterRegistry = meterRegistry;
+        if (mode == Mode.RESOURCE_BASED) {
+            JdbcAwareResourceInfo resources = new JdbcAwareResourceInfo(
+                    new JVMSystemResourceInfo(), poolUsage, targetMemoryUsage, targetPoolUsage);
+            this.controller = new ResourceBasedController(
+                    ResourceBasedControllerOptions.newBuilder(targetMemoryUsage, targetCpuUsage).build(), resources);
+            Gauge.builder("temporal.worker.resources.cpu", resources, JdbcAwareResourceInfo::getCPUUsagePercent)
+                    .description("Process CPU usage seen by the slot controller")
+                    .register(meterRegistry);
+            Gauge.builder("temporal.worker.resources.memory", resources, JdbcAwareResourceInfo::getMemoryUsagePercent)
+                    .description("Memory usage seen by the slot controller, including JDBC pool pressure")
+                    .register(meterRegistry);
+            Gauge.builder("temporal.worker.resources.jdbc.pool", resources, JdbcAwareResourceInfo::getPoolUsagePercent)
+                    .description("Share of JDBC connections in use")
+                    .register(meterRegistry);
+        } else {
+            this.controller = null;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Builds the options of a worker polling {@code taskQueue}.
+     *
+     * @param maxActivitySlots the fixed slot count, or the ceiling in
+     *                         resource‑based mode
+     */
+    public WorkerOptions workerOptions(String taskQueue, int maxActivitySlots) {
+        SlotSupplier<ActivitySlotInfo> activitySlots = mode == Mode.FIXED
+                ? new FixedSizeSlotSupplier<>(maxActivitySlots)
+                : ResourceBasedSlotSupplier.createForActivity(controller, ResourceBasedSlotOptions.newBuilder()
+                        .setMinimumSlots(Math.min(minSlots, maxActivitySlots))
+                        .setMaximumSlots(maxActivitySlots)
+                        .setRampThrottle(rampThrottle)
+                        .build());
+        return WorkerOptions.newBuilder()
+                .setWorkerTuner(new CompositeTuner(
+                        new FixedSizeSlotSupplier<WorkflowSlotInfo>(FIXED_SLOTS),
+                        new MeteredSlotSupplier<>(activitySlots, meterRegistry, taskQueue, "activity"),
+                        new FixedSizeSlotSupplier<LocalActivitySlotInfo>(FIXED_SLOTS),
+                        new FixedSizeSlotSupplier<NexusSlotInfo>(FIXED_SLOTS)))
+                .build();
+    }
+}
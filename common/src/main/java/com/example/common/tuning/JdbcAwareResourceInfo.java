@@ -0,0 +1,62 @@
+package com.example.common.tuning;
+
+import io.temporal.worker.tuning.SystemResourceInfo;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * {@link SystemResourceInfo} that folds the JDBC connection pool's usage
+ * into the memory signal seen by Temporal's resource‑based controller.  The
+ * controller only knows CPU and memory; an Activity worker whose pool is
+ * exhausted would keep taking tasks that then queue for a connection and
+ * time out.  Pool usage is therefore rescaled so that reaching
+ * {@code targetPoolUsage} reads as reaching {@code targetMemoryUsage}, and
+ * the higher of that and the real memory usage is reported.  The
+ * controller stops handing out slots when either the heap or the pool is
+ * at its target.
+ */
+public class JdbcAwareResourceInfo implements SystemResourceInfo {
+
+    private final SystemResourceInfo delegate;
+    private final DoubleSupplier poolUsage;
+    private final double targetMemoryUsage;
+    private final double targetPoolUsage;
+
+    /**
+     * @param delegate          source of the real CPU and memory usage
+     * @param poolUsage         busy connections over pool size, 0 to 1
+     * @param targetMemoryUsage memory target of the controller
+     * @param targetPoolUsage   pool usage at which no further slots are
+     *                          granted, above 0 and at most 1
+     * @throws IllegalArgumentException if {@code targetPoolUsage} is out of range
+     */
+    public JdbcAwareResourceInfo(SystemResourceInfo delegate, DoubleSupplier poolUsage,
+                                 double targetMemoryUsage, double targetPoolUsage) {
+        if (!(targetPoolUsage > 0 && targetPoolUsage <= 1)) {
+            throw new IllegalArgumentException("targetPoolUsage must be above 0 and at most 1, was "
+                    + targetPoolUsage);
+        }
+        this.delegate = delegate;
+        this.poolUsage = poolUsage;
+        this.targetMemoryUsage = targetMemoryUsage;
+        this.targetPoolUsage = targetPoolUsage;
+    }
+
+    @Override
+    public double getCPUUsagePercent() {
+        return delegate.getCPUUsagePercent();
+    }
+
+    @Override
+    public double getMemoryUsagePercent() {
+        double poolPressure = getPoolUsagePercent() / targetPoolUsage * targetMemoryUsage;
+        return Math.max(delegate.getMemoryUsagePercent(), Math.min(1.0, poolPressure));
+    }
+
+    /**
+     * Returns the pool's current usage, 0 to 1.
+     */
+    public double getPoolUsagePercent() {
+        return poolUsage.getAsDouble();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.common.tuning;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.worker.tuning.SlotInfo;
+import io.temporal.worker.tuning.SlotMarkUsedContext;
+import io.temporal.worker.tuning.SlotPermit;
+import io.temporal.worker.tuning.SlotReleaseContext;
+import io.temporal.worker.tuning.SlotReserveContext;
+import io.temporal.worker.tuning.SlotSupplier;
+import io.temporal.worker.tuning.SlotSupplierFuture;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot supplier that measures how another supplier hands out slots.
+ * Pollers wait in {@link #reserveSlot} until a slot is granted, so a
+ * supplier holding workers back shows as reservations that were not
+ * granted at once and as time spent waiting; both are recorded, together
+ * with eager dispatches refused by {@link #tryReserveSlot}.  Meters are
+ * tagged with the worker's task queue and slot type.
+ */
+public class MeteredSlotSupplier<SI extends SlotInfo> implements SlotSupplier<SI> {
+
+    private final SlotSupplier<SI> delegate;
+    private final Counter granted;
+    private final Counter throttled;
+    private final Counter released;
+    private final Timer wait;
+
+    public MeteredSlotSupplier(SlotSupplier<SI> delegate, MeterRegistry meterRegistry,
+                               String taskQueue, String slotType) {
+        this.delegate = delegate;
+        this.granted = counter(meterRegistry, "temporal.worker.slots.granted", taskQueue, slotType);
+        this.throttled = counter(meterRegistry, "temporal.worker.slots.throttled", taskQueue, slotType);
+        this.released = counter(meterRegistry, "temporal.worker.slots.released", taskQueue, slotType);
+        this.wait = Timer.builder("temporal.worker.slots.wait")
+                .description("Time a poller waited for a slot")
+                .tag("taskQueue", taskQueue)
+                .tag("slotType", slotType)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SlotSupplierFuture reserveSlot(SlotReserveContext<SI> ctx) throws Exception {
+        long start = System.nanoTime();
+        SlotSupplierFuture reservation = delegate.reserveSlot(ctx);
+        if (!reservation.isDone()) {
+            throttled.increment();
+        }
+        // Aborted reservations complete exceptionally and are not timed
+        reservation.thenRun(() -> {
+            wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            granted.increment();
+        });
+        return reservation;
+    }
+
+    @Override
+    public Optional<SlotPermit> tryReserveSlot(SlotReserveContext<SI> ctx) {
+        Optional<SlotPermit> permit = delegate.tryReserveSlot(ctx);
+        (permit.isPresent() ? granted : throttled).increment();
+        return permit;
+    }
+
+    @Override
+    public void markSlotUsed(SlotMarkUsedContext<SI> ctx) {
+        delegate.markSlotUsed(ctx);
+    }
+
+    @Override
+    public void releaseSlot(SlotReleaseContext<SI> ctx) {
+        released.increment();
+        delegate.releaseSlot(ctx);
+    }
+
+    @Override
+    public Optional<Integer> getMaximumSlots() {
+        return delegate.getMaximumSlots();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String taskQueue, String slotType) {
+        return Counter.builder(name)
+                .tag("taskQueue", taskQueue)
+                .tag("slotType", slotType)
+                .register(meterRegistry);
+    }
+}
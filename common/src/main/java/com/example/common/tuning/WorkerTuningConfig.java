@@ -0,0 +1,66 @@
+package com.example.common.tuning;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Sizing of the Activity slots of a service's workers, bound from
+ * {@code temporal.tuning.*} properties and imported by the payment and
+ * shipping services.  With {@code mode=resource-based} the
+ * {@code temporal.lanes.<lane>.activityConcurrency} of each lane becomes a
+ * ceiling and slots are granted while CPU, memory and the JDBC pool stay
+ * below their targets.
+ */
+@Configuration
+@EnableConfigurationProperties(WorkerTuningConfig.TuningProperties.class)
+public class WorkerTuningConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerTuningConfig.class);
+
+    @Bean
+    public ActivitySlotTuning activitySlotTuning(TuningProperties properties, DataSource dataSource,
+                                                 MeterRegistry meterRegistry) {
+        logger.info("Activity slots sized in {} mode", properties.getMode());
+        return new ActivitySlotTuning(properties.getMode(), properties.getTargetCpuUsage(),
+                properties.getTargetMemoryUsage(), properties.getTargetPoolUsage(),
+                properties.getMinActivitySlots(), properties.getRampThrottle(),
+                poolUsage(dataSource), meterRegistry);
+    }
+
+    /**
+     * Share of the Hikari pool's connections in use.  Other pools report no
+     * usage, which leaves tuning to CPU and memory.
+     */
+    private static DoubleSupplier poolUsage(DataSource dataSource) {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return () -> 0.0;
+        }
+        return () -> {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0.0 : (double) pool.getActiveConnections() / hikari.getMaximumPoolSize();
+        };
+    }
+
+    @Data
+    @ConfigurationProperties(prefix = "temporal.tuning")
+    public static class TuningProperties {
+        private ActivitySlotTuning.Mode mode = ActivitySlotTuning.Mode.FIXED;
+        private double targetCpuUsage = 0.8;
+        private double targetMemoryUsage = 0.8;
+        private double targetPoolUsage = 0.9;
+        private int minActivitySlots = 5;
+        private Duration rampThrottle = Duration.ofMillis(50);
+    }
+}
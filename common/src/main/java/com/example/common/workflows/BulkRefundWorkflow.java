@@ -0,0 +1,35 @@
+package com.example.common.workflows;
+
+import com.example.common.dto.BulkRefundProgress;
+import com.example.common.dto.BulkRefundRequest;
+import io.temporal.workflow.QueryMethod;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+
+/**
+ * BulkRefundWorkflow refunds every payment of a recalled product.  It pages
+ * through the product's refundable payments, refunds each page in batches
+ * with a bounded number of concurrent Activities and continues as new
+ * periodically so its history stays small no matter how many payments are
+ * refunded.
+ */
+@WorkflowInterface
+public interface BulkRefundWorkflow {
+
+    /**
+     * Refunds all payments of the requested product that are not refunded
+     * yet.  Cancelling the workflow stops it after the running batches
+     * acknowledge the cancellation; payments refunded so far stay refunded
+     * and a new run picks up the rest.
+     *
+     * @param request the product and the pacing of the refunds
+     */
+    @WorkflowMethod
+    void refundProduct(BulkRefundRequest request);
+
+    /**
+     * Returns the progress across all runs so far.
+     */
+    @QueryMethod
+    BulkRefundProgress getProgress();
+}
@@ -1,6 +1,8 @@
 package com.example.common.workflows;
 
 import com.example.common.dto.OrderDTO;
+import com.example.common.dto.PaymentOutcome;
+import io.temporal.workflow.UpdateMethod;
 import io.temporal.workflow.WorkflowInterface;
 import io.temporal.workflow.WorkflowMethod;
 
@@ -26,4 +28,15 @@ public interface OrderWorkflow {
      */
     @WorkflowMethod
     void placeOrder(OrderDTO order);
-}
\ No newline at end of file
+
+    /**
+     * Waits until the payment step has finished and returns its outcome.
+     * Sent together with the workflow start (update‑with‑start), it lets a
+     * caller learn whether the debit succeeded in a single round trip
+     * instead of polling.
+     *
+     * @return whether the order was paid, and the payment id or failure
+     */
+    @UpdateMethod
+    PaymentOutcome awaitPayment();
+}
@@ -0,0 +1,110 @@
+package com.example.common.faults;
+
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.failures.TransientFailureException;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.activity.ActivityInfo;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor.ActivityInput;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor.ActivityOutput;
+import io.temporal.common.interceptors.Header;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FaultInjectionWorkerInterceptorTest {
+
+    private final FaultRegistry registry = new FaultRegistry();
+    private final ActivityInboundCallsInterceptor next = mock(ActivityInboundCallsInterceptor.class);
+    private final ActivityInput input = new ActivityInput(Header.empty(), new Object[0]);
+    private ActivityInboundCallsInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ActivityInfo info = mock(ActivityInfo.class);
+        when(info.getActivityType()).thenReturn("DebitPayment");
+        when(info.getAttempt()).thenReturn(2);
+        when(info.getStartToCloseTimeout()).thenReturn(Duration.ofSeconds(10));
+        ActivityExecutionContext context = mock(ActivityExecutionContext.class);
+        when(context.getInfo()).thenReturn(info);
+        when(next.execute(any())).thenReturn(new ActivityOutput("ok"));
+
+        registry.setEnabled(true);
+        interceptor = new FaultInjectionWorkerInterceptor(registry).interceptActivity(next);
+        interceptor.init(context);
+    }
+
+    @Test
+    void activityWithoutSpecRunsUntouched() {
+        registry.put("ShipOrder", errors(1.0, false));
+
+        assertThat(interceptor.execute(input).getResult()).isEqualTo("ok");
+        assertThat(registry.counters()).containsEntry("errors", 0L);
+    }
+
+    @Test
+    void injectedErrorIsTransientByDefaultAndSkipsTheActivity() {
+        registry.put("DebitPayment", errors(1.0, false));
+
+        assertThatThrownBy(() -> interceptor.execute(input))
+                .isInstanceOf(TransientFailureException.class)
+                .hasMessageContaining("DebitPayment attempt 2");
+        verify(next, never()).execute(any());
+        assertThat(registry.counters()).containsEntry("errors", 1L);
+    }
+
+    @Test
+    void permanentErrorsAreNotRetryable() {
+        registry.put(FaultRegistry.ALL_ACTIVITIES, errors(1.0, true));
+
+        assertThatThrownBy(() -> interceptor.execute(input)).isInstanceOf(PermanentFailureException.class);
+    }
+
+    @Test
+    void fixedLatencyDelaysTheActivity() {
+        FaultSpec spec = new FaultSpec();
+        spec.setLatency(FaultSpec.LatencyDistribution.FIXED);
+        spec.setLatencyMs(100);
+        registry.put("DebitPayment", spec);
+
+        long start = System.nanoTime();
+        assertThat(interceptor.execute(input).getResult()).isEqualTo("ok");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(registry.counters()).containsEntry("delays", 1L);
+    }
+
+    @Test
+    void specWithoutLatencyOnlyInjectsErrors() {
+        FaultSpec spec = errors(0.0, false);
+        spec.setLatency(null);
+        registry.put("DebitPayment", spec);
+
+        assertThat(interceptor.execute(input).getResult()).isEqualTo("ok");
+        assertThat(registry.counters()).containsEntry("delays", 0L);
+    }
+
+    @Test
+    void pausedRegistryInjectsNothing() {
+        registry.put("DebitPayment", errors(1.0, false));
+        registry.setEnabled(false);
+
+        assertThat(interceptor.execute(input).getResult()).isEqualTo("ok");
+    }
+
+    private static FaultSpec errors(double errorRate, boolean permanent) {
+        FaultSpec spec = new FaultSpec();
+        spec.setErrorRate(errorRate);
+        spec.setPermanentErrors(permanent);
+        return spec;
+    }
+}
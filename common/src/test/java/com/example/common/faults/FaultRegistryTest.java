@@ -0,0 +1,88 @@
+package com.example.common.faults;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FaultRegistryTest {
+
+    @Test
+    void specOfTheActivityTypeWinsOverTheWildcard() {
+        FaultRegistry registry = new FaultRegistry();
+        FaultSpec debit = spec(FaultSpec.LatencyDistribution.NONE, 0, 0);
+        FaultSpec all = spec(FaultSpec.LatencyDistribution.NONE, 0, 0);
+        registry.put("DebitPayment", debit);
+        registry.put(FaultRegistry.ALL_ACTIVITIES, all);
+
+        assertThat(registry.specFor("DebitPayment")).isNull();
+
+        registry.setEnabled(true);
+        assertThat(registry.specFor("DebitPayment")).isSameAs(debit);
+        assertThat(registry.specFor("ShipOrder")).isSameAs(all);
+
+        registry.remove(FaultRegistry.ALL_ACTIVITIES);
+        assertThat(registry.specFor("ShipOrder")).isNull();
+    }
+
+    @Test
+    void latencyIsDrawnFromTheConfiguredDistribution() {
+        assertThat(FaultRegistry.sampleLatency(spec(FaultSpec.LatencyDistribution.NONE, 50, 100)))
+                .isEqualTo(Duration.ZERO);
+        assertThat(FaultRegistry.sampleLatency(spec(FaultSpec.LatencyDistribution.FIXED, 50, 100)))
+                .isEqualTo(Duration.ofMillis(50));
+        IntStream.range(0, 1_000).forEach(i ->
+                assertThat(FaultRegistry.sampleLatency(spec(FaultSpec.LatencyDistribution.UNIFORM, 50, 100)))
+                        .isBetween(Duration.ofMillis(50), Duration.ofMillis(100)));
+
+        long[] samples = IntStream.range(0, 10_001)
+                .mapToLong(i -> FaultRegistry.sampleLatency(spec(FaultSpec.LatencyDistribution.LOGNORMAL, 50, 300))
+                        .toMillis())
+                .sorted()
+                .toArray();
+        assertThat(samples[5_000]).isBetween(45L, 55L);
+        assertThat(samples[9_900]).isBetween(240L, 370L);
+        assertThat(Arrays.stream(samples).min().orElseThrow()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void emptyLatencyPropertyBindsToNoLatency() {
+        FaultInjectionConfig.FaultProperties properties = new Binder(new MapConfigurationPropertySource(Map.of(
+                "faults.activities[DebitPayment].latency", "",
+                "faults.activities[DebitPayment].error-rate", "0.1")))
+                .bindOrCreate("faults", FaultInjectionConfig.FaultProperties.class);
+
+        FaultSpec spec = properties.getActivities().get("DebitPayment");
+        assertThat(spec.getLatency()).isEqualTo(FaultSpec.LatencyDistribution.NONE);
+        assertThat(FaultRegistry.sampleLatency(spec)).isEqualTo(Duration.ZERO);
+
+        spec.setLatency(null);
+        assertThat(spec.getLatency()).isEqualTo(FaultSpec.LatencyDistribution.NONE);
+    }
+
+    @Test
+    void ratesOutsideZeroToOneAreRejected() {
+        FaultSpec spec = spec(FaultSpec.LatencyDistribution.NONE, 0, 0);
+        spec.setErrorRate(1.5);
+
+        assertThatThrownBy(spec::validate).isInstanceOf(IllegalArgumentException.class);
+        spec.setErrorRate(1.0);
+        spec.setTimeoutRate(-0.1);
+        assertThatThrownBy(spec::validate).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static FaultSpec spec(FaultSpec.LatencyDistribution latency, long latencyMs, long latencyMaxMs) {
+        FaultSpec spec = new FaultSpec();
+        spec.setLatency(latency);
+        spec.setLatencyMs(latencyMs);
+        spec.setLatencyMaxMs(latencyMaxMs);
+        return spec;
+    }
+}
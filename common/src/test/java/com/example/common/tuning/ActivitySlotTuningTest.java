@@ -0,0 +1,75 @@
+package com.example.common.tuning;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.tuning.ActivitySlotInfo;
+import io.temporal.worker.tuning.CompositeTuner;
+import io.temporal.worker.tuning.SlotPermit;
+import io.temporal.worker.tuning.SlotReserveContext;
+import io.temporal.worker.tuning.SlotSupplier;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class ActivitySlotTuningTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @SuppressWarnings("unchecked")
+    private final SlotReserveContext<ActivitySlotInfo> reserveContext = mock(SlotReserveContext.class);
+
+    @Test
+    void fixedModeGivesTheConfiguredSlotsAndMetersThem() throws Exception {
+        ActivitySlotTuning tuning = tuning(ActivitySlotTuning.Mode.FIXED, 0.9);
+
+        SlotSupplier<ActivitySlotInfo> slots = activitySlots(tuning.workerOptions("shipping", 2));
+
+        assertThat(slots).isInstanceOf(MeteredSlotSupplier.class);
+        assertThat(slots.getMaximumSlots()).contains(2);
+        SlotPermit permit = slots.reserveSlot(reserveContext).get();
+        assertThat(permit).isNotNull();
+        assertThat(slots.tryReserveSlot(reserveContext)).isPresent();
+        assertThat(slots.tryReserveSlot(reserveContext)).isEmpty();
+        assertThat(meterRegistry.get("temporal.worker.slots.granted").tag("taskQueue", "shipping")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("temporal.worker.slots.throttled").tag("taskQueue", "shipping")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("temporal.worker.resources.cpu").gauge()).isNull();
+    }
+
+    @Test
+    void resourceBasedModeMetersEachTaskQueueAndExportsReadings() {
+        ActivitySlotTuning tuning = tuning(ActivitySlotTuning.Mode.RESOURCE_BASED, 0.9);
+
+        SlotSupplier<ActivitySlotInfo> express = activitySlots(tuning.workerOptions("shipping", 200));
+        SlotSupplier<ActivitySlotInfo> bulk = activitySlots(tuning.workerOptions("shipping_BULK", 20));
+
+        assertThat(express).isInstanceOf(MeteredSlotSupplier.class);
+        assertThat(bulk).isInstanceOf(MeteredSlotSupplier.class);
+        assertThat(meterRegistry.get("temporal.worker.slots.granted").counters()).hasSize(2);
+        assertThat(meterRegistry.get("temporal.worker.resources.jdbc.pool").gauge().value()).isEqualTo(0.45);
+        assertThat(meterRegistry.get("temporal.worker.resources.memory").gauge().value()).isGreaterThanOrEqualTo(0.4);
+    }
+
+    @Test
+    void resourceBasedModeRejectsAZeroPoolTarget() {
+        assertThatThrownBy(() -> tuning(ActivitySlotTuning.Mode.RESOURCE_BASED, 0.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(tuning(ActivitySlotTuning.Mode.FIXED, 0.0).getMode()).isEqualTo(ActivitySlotTuning.Mode.FIXED);
+    }
+
+    private ActivitySlotTuning tuning(ActivitySlotTuning.Mode mode, double targetPoolUsage) {
+        return new ActivitySlotTuning(mode, 0.8, 0.8, targetPoolUsage, 5, Duration.ofMillis(50), () -> 0.45,
+                meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SlotSupplier<ActivitySlotInfo> activitySlots(WorkerOptions options) {
+        return ((CompositeTuner) options.getWorkerTuner()).getActivityTaskSlotSupplier();
+    }
+}
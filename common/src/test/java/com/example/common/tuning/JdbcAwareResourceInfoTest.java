@@ -0,0 +1,57 @@
+package com.example.common.tuning;
+
+import io.temporal.worker.tuning.SystemResourceInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JdbcAwareResourceInfoTest {
+
+    private final SystemResourceInfo system = mock(SystemResourceInfo.class);
+    private final AtomicReference<Double> poolUsage = new AtomicReference<>(0.0);
+    private final JdbcAwareResourceInfo resources = new JdbcAwareResourceInfo(system, poolUsage::get, 0.8, 0.5);
+
+    @Test
+    void poolAtItsTargetReadsAsMemoryAtItsTarget() {
+        when(system.getMemoryUsagePercent()).thenReturn(0.3);
+        when(system.getCPUUsagePercent()).thenReturn(0.6);
+
+        assertThat(resources.getMemoryUsagePercent()).isEqualTo(0.3);
+        poolUsage.set(0.25);
+        assertThat(resources.getMemoryUsagePercent()).isCloseTo(0.4, within(1e-9));
+        poolUsage.set(0.5);
+        assertThat(resources.getMemoryUsagePercent()).isCloseTo(0.8, within(1e-9));
+        assertThat(resources.getPoolUsagePercent()).isEqualTo(0.5);
+        assertThat(resources.getCPUUsagePercent()).isEqualTo(0.6);
+    }
+
+    @Test
+    void higherMemoryUsageWinsAndPoolPressureIsCappedAtFull() {
+        when(system.getMemoryUsagePercent()).thenReturn(0.9);
+        poolUsage.set(0.25);
+
+        assertThat(resources.getMemoryUsagePercent()).isEqualTo(0.9);
+
+        when(system.getMemoryUsagePercent()).thenReturn(0.1);
+        poolUsage.set(1.0);
+        assertThat(resources.getMemoryUsagePercent()).isEqualTo(1.0);
+    }
+
+    @Test
+    void poolTargetOutOfRangeIsRejected() {
+        assertThatThrownBy(() -> new JdbcAwareResourceInfo(system, poolUsage::get, 0.8, 0.0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JdbcAwareResourceInfo(system, poolUsage::get, 0.8, -0.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JdbcAwareResourceInfo(system, poolUsage::get, 0.8, 1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JdbcAwareResourceInfo(system, poolUsage::get, 0.8, Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
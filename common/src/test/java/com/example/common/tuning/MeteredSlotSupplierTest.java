@@ -0,0 +1,84 @@
+package com.example.common.tuning;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.worker.tuning.ActivitySlotInfo;
+import io.temporal.worker.tuning.FixedSizeSlotSupplier;
+import io.temporal.worker.tuning.SlotPermit;
+import io.temporal.worker.tuning.SlotReleaseContext;
+import io.temporal.worker.tuning.SlotReserveContext;
+import io.temporal.worker.tuning.SlotSupplierFuture;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeteredSlotSupplierTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredSlotSupplier<ActivitySlotInfo> supplier = new MeteredSlotSupplier<>(
+            new FixedSizeSlotSupplier<>(1), meterRegistry, "payment-normal", "activity");
+
+    @SuppressWarnings("unchecked")
+    private final SlotReserveContext<ActivitySlotInfo> reserveContext = mock(SlotReserveContext.class);
+
+    @Test
+    void slotGrantedAtOnceIsNotThrottled() throws Exception {
+        SlotSupplierFuture reservation = supplier.reserveSlot(reserveContext);
+
+        assertThat(reservation).isDone();
+        assertThat(count("temporal.worker.slots.granted")).isEqualTo(1);
+        assertThat(count("temporal.worker.slots.throttled")).isZero();
+        assertThat(meterRegistry.get("temporal.worker.slots.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void waitingReservationIsThrottledAndTimedWhenGranted() throws Exception {
+        SlotPermit first = supplier.reserveSlot(reserveContext).get();
+        SlotSupplierFuture second = supplier.reserveSlot(reserveContext);
+
+        assertThat(second).isNotDone();
+        assertThat(count("temporal.worker.slots.throttled")).isEqualTo(1);
+        assertThat(count("temporal.worker.slots.granted")).isEqualTo(1);
+
+        supplier.releaseSlot(releaseContext(first));
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(count("temporal.worker.slots.granted")).isEqualTo(2);
+        assertThat(count("temporal.worker.slots.released")).isEqualTo(1);
+        assertThat(meterRegistry.get("temporal.worker.slots.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void abortedReservationIsNotCountedAsGranted() throws Exception {
+        supplier.reserveSlot(reserveContext).get();
+        SlotSupplierFuture waiting = supplier.reserveSlot(reserveContext);
+
+        waiting.abortReservation();
+
+        assertThat(count("temporal.worker.slots.granted")).isEqualTo(1);
+        assertThat(meterRegistry.get("temporal.worker.slots.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void refusedEagerDispatchIsThrottled() throws Exception {
+        supplier.reserveSlot(reserveContext).get();
+
+        assertThat(supplier.tryReserveSlot(reserveContext)).isEmpty();
+        assertThat(count("temporal.worker.slots.throttled")).isEqualTo(1);
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SlotReleaseContext<ActivitySlotInfo> releaseContext(SlotPermit permit) {
+        SlotReleaseContext<ActivitySlotInfo> context = mock(SlotReleaseContext.class);
+        when(context.getSlotPermit()).thenReturn(permit);
+        return context;
+    }
+}
@@ -2,14 +2,18 @@ package com.example.order;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the order service.  In addition to starting the Spring
  * application context this class triggers construction of Temporal workers
  * defined via beans in the context.  The service exposes REST endpoints
  * implemented in {@link com.example.order.controller.OrderController}.
+ * Scheduling is enabled for periodic background tasks such as sampling the
+ * task queue backlog for admission control.
  */
 @SpringBootApplication
+@EnableScheduling
 public class OrderServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(OrderServiceApplication.class, args);
@@ -0,0 +1,34 @@
+package com.example.order.activity;
+
+import com.example.common.activities.OrderStatusActivity;
+import com.example.common.dto.OrderStatus;
+import com.example.order.details.OrderDetailsService;
+import com.example.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementation of the {@link OrderStatusActivity}.  Persists the new
+ * status and drops the cached order details so the next read reflects it.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderStatusActivityImpl implements OrderStatusActivity {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusActivityImpl.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderDetailsService orderDetailsService;
+
+    @Override
+    public void updateStatus(Long orderId, OrderStatus status) {
+        orderRepository.findById(orderId).ifPresentOrElse(order -> {
+            order.setStatus(status);
+            orderRepository.save(order);
+            logger.info("[SAGA Status] Order {} is now {}", orderId, status);
+        }, () -> logger.warn("[SAGA Status] Order {} not found, status {} not recorded", orderId, status));
+        orderDetailsService.invalidate(orderId);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.order.admission;
+
+import com.example.common.dto.OrderPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.temporal.api.enums.v1.TaskQueueType;
+import io.temporal.api.taskqueue.v1.TaskQueue;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueRequest;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueResponse;
+import io.temporal.client.WorkflowClient;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backlog‑aware admission control for the order API.  A {@link TokenBucket}
+ * limits how many orders are accepted per second.  The bucket's rate is
+ * recomputed periodically from the backlog of the order, payment,
+ * shipping and inventory task queues (as reported by the Temporal server)
+ * and from the number of workflow starts that are currently in flight.
+ * When either signal exceeds its target the admission rate is reduced
+ * proportionally, down to a configured floor; once the pressure subsides
+ * the rate recovers gradually so that a drained queue is not immediately
+ * flooded again.
+ * <p>
+ * Every {@link OrderPriority} lane has its own bucket driven by the backlog
+ * of its own task queues, so a bulk backlog throttles bulk orders without
+ * shedding express checkouts.  The maximum rate can be set per lane with
+ * {@code order.admission.<lane>.maxRatePerSecond}.
+ * <p>
+ * The current admission rate, the sampled backlogs, the pending starts and
+ * the number of rejected requests are exported as Micrometer metrics.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControl.class);
+
+    private final WorkflowClient workflowClient;
+    private final MeterRegistry meterRegistry;
+    private final Environment environment;
+
+    @Value("${order.admission.enabled:true}")
+    private boolean enabled;
+
+    /** Admission rate used when the task queues keep up. */
+    @Value("${order.admission.maxRatePerSecond:200}")
+    private double maxRatePerSecond;
+
+    /** Admission rate never drops below this floor. */
+    @Value("${order.admission.minRatePerSecond:5}")
+    private double minRatePerSecond;
+
+    /** Number of requests that may be admitted at once after an idle period. */
+    @Value("${order.admission.burst:50}")
+    private double burst;
+
+    /** Backlog per task queue above which the admission rate is reduced. */
+    @Value("${order.admission.targetBacklog:500}")
+    private long targetBacklog;
+
+    /** In‑flight workflow starts above which the admission rate is reduced. */
+    @Value("${order.admission.targetPendingStarts:100}")
+    private int targetPendingStarts;
+
+    /** Fraction of the maximum rate regained per sample once pressure subsides. */
+    @Value("${order.admission.recoveryStep:0.1}")
+    private double recoveryStep;
+
+    @Value("${temporal.order.taskQueue:ORDER_TASK_QUEUE}")
+    private String orderTaskQueue;
+
+    @Value("${temporal.payment.taskQueue:PAYMENT_ACTIVITY_TASK_QUEUE}")
+    private String paymentTaskQueue;
+
+    @Value("${temporal.shipping.taskQueue:SHIPPING_ACTIVITY_TASK_QUEUE}")
+    private String shippingTaskQueue;
+
+    @Value("${temporal.inventory.taskQueue:INVENTORY_ACTIVITY_TASK_QUEUE}")
+    private String inventoryTaskQueue;
+
+    private final Map<OrderPriority, Lane> lanes = new EnumMap<>(OrderPriority.class);
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        for (OrderPriority priority : OrderPriority.values()) {
+            double laneMaxRate = environment.getProperty(
+                    "order.admission." + priority.key() + ".maxRatePerSecond", Double.class, maxRatePerSecond);
+            Lane lane = new Lane(priority, laneMaxRate);
+            lane.queues.put(priority.taskQueue(orderTaskQueue), TaskQueueType.TASK_QUEUE_TYPE_WORKFLOW);
+            lane.queues.put(priority.taskQueue(paymentTaskQueue), TaskQueueType.TASK_QUEUE_TYPE_ACTIVITY);
+            lane.queues.put(priority.taskQueue(shippingTaskQueue), TaskQueueType.TASK_QUEUE_TYPE_ACTIVITY);
+            lane.queues.put(priority.taskQueue(inventoryTaskQueue), TaskQueueType.TASK_QUEUE_TYPE_ACTIVITY);
+            lanes.put(priority, lane);
+
+            Gauge.builder("orders.admission.rate", lane.bucket, TokenBucket::getRate)
+                    .description("Current number of orders admitted per second")
+                    .tag("priority", priority.key())
+                    .register(meterRegistry);
+            Gauge.builder("orders.admission.pending.starts", lane.pendingStarts, AtomicInteger::get)
+                    .description("Workflow starts currently in flight")
+                    .tag("priority", priority.key())
+                    .register(meterRegistry);
+            for (String queue : lane.queues.keySet()) {
+                lane.backlogs.put(queue, 0L);
+                Gauge.builder("orders.admission.backlog", lane.backlogs, b -> b.getOrDefault(queue, 0L))
+                        .description("Approximate task backlog sampled from the Temporal server")
+                        .tag("taskQueue", queue)
+                        .register(meterRegistry);
+            }
+        }
+        rejected = Counter.builder("orders.admission.rejected")
+                .description("Order requests shed with 429 by admission control")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether a new order of the given priority may be accepted
+     * right now.
+     *
+     * @param priority the order's priority, {@code null} meaning express
+     * @return {@code true} if the order is admitted
+     */
+    public boolean tryAdmit(OrderPriority priority) {
+        if (!enabled || lane(priority).bucket.tryAcquire()) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Suggested number of seconds a rejected client should wait before
+     * retrying, derived from the lane's current admission rate.
+     */
+    public long retryAfterSeconds(OrderPriority priority) {
+        return Math.max(1L, (long) Math.ceil(1.0 / lane(priority).bucket.getRate()));
+    }
+
+    /** Marks the beginning of a workflow start call. */
+    public void startBegan(OrderPriority priority) {
+        lane(priority).pendingStarts.incrementAndGet();
+    }
+
+    /** Marks the end of a workflow start call, successful or not. */
+    public void startEnded(OrderPriority priority) {
+        lane(priority).pendingStarts.decrementAndGet();
+    }
+
+    /**
+     * Samples the task queue backlogs and adjusts the admission rates.  A
+     * failure to reach the Temporal server keeps the previous samples; the
+     * pending start count still rises in that case and tightens admission.
+     */
+    @Scheduled(fixedDelayString = "${order.admission.sampleIntervalMs:5000}")
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+        for (Lane lane : lanes.values()) {
+            for (Map.Entry<String, TaskQueueType> entry : lane.queues.entrySet()) {
+                try {
+                    lane.backlogs.put(entry.getKey(), describeBacklog(entry.getKey(), entry.getValue()));
+                } catch (Exception e) {
+                    logger.warn("Unable to sample backlog of task queue {}: {}", entry.getKey(), e.getMessage());
+                }
+            }
+            adjustRate(lane);
+        }
+    }
+
+    private Lane lane(OrderPriority priority) {
+        return lanes.get(OrderPriority.orDefault(priority));
+    }
+
+    private long describeBacklog(String taskQueue, TaskQueueType type) {
+        DescribeTaskQueueRequest request = DescribeTaskQueueRequest.newBuilder()
+                .setNamespace(workflowClient.getOptions().getNamespace())
+                .setTaskQueue(TaskQueue.newBuilder().setName(taskQueue).build())
+                .setTaskQueueType(type)
+                .setIncludeTaskQueueStatus(true)
+                .build();
+        DescribeTaskQueueResponse response = workflowClient.getWorkflowServiceStubs()
+                .blockingStub()
+                .describeTaskQueue(request);
+        return response.getTaskQueueStatus().getBacklogCountHint();
+    }
+
+    private void adjustRate(Lane lane) {
+        long maxBacklog = lane.backlogs.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+        double pressure = Math.max(
+                (double) maxBacklog / targetBacklog,
+                (double) lane.pendingStarts.get() / targetPendingStarts);
+
+        double current = lane.bucket.getRate();
+        double next;
+        if (pressure > 1.0) {
+            // Shrink proportionally to how far over target the worst signal is.
+            next = Math.max(minRatePerSecond, Math.min(current, lane.maxRate / pressure));
+        } else {
+            next = Math.min(lane.maxRate, current + lane.maxRate * recoveryStep);
+        }
+        if (next != current) {
+            logger.info("Admission rate of {} lane changed from {} to {} orders/s (backlog={}, pendingStarts={})",
+                    lane.priority.key(), String.format("%.1f", current), String.format("%.1f", next),
+                    maxBacklog, lane.pendingStarts.get());
+            lane.bucket.setRate(next);
+        }
+    }
+
+    /**
+     * Admission state of a single priority lane.
+     */
+    private final class Lane {
+        private final OrderPriority priority;
+        private final double maxRate;
+        private final TokenBucket bucket;
+        private final AtomicInteger pendingStarts = new AtomicInteger();
+        private final Map<String, TaskQueueType> queues = new LinkedHashMap<>();
+        private final Map<String, Long> backlogs = new ConcurrentHashMap<>();
+
+        Lane(OrderPriority priority, double maxRate) {
+            this.priority = priority;
+            this.maxRate = maxRate;
+            this.bucket = new TokenBucket(maxRate, burst);
+        }
+    }
+}
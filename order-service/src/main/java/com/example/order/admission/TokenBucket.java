@@ -0,0 +1,59 @@
+package com.example.order.admission;
+
+/**
+ * Minimal token bucket used to rate limit incoming requests.  Tokens are
+ * refilled continuously at {@link #getRate()} tokens per second up to the
+ * configured burst capacity.  The refill rate can be changed at runtime,
+ * which is how {@link AdmissionControl} tightens admission when the
+ * Temporal task queues fall behind.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private double ratePerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a single token from the bucket if one is available.
+     *
+     * @return {@code true} if the caller may proceed
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Changes the refill rate.  Tokens accumulated so far are kept so that a
+     * rate change does not cause a sudden burst or stall.
+     *
+     * @param ratePerSecond the new refill rate in tokens per second
+     */
+    public synchronized void setRate(double ratePerSecond) {
+        refill();
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public synchronized double getRate() {
+        return ratePerSecond;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        tokens = Math.min(capacity, tokens + elapsedSeconds * ratePerSecond);
+        lastRefillNanos = now;
+    }
+}
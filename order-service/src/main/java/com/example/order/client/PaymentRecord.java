@@ -0,0 +1,17 @@
+package com.example.order.client;
+
+import lombok.Data;
+
+/**
+ * Payment as returned by the payment service.  Only the fields the order
+ * service needs are mapped; unknown properties are ignored.
+ */
+@Data
+public class PaymentRecord {
+    private Long id;
+    private Long orderId;
+    private Long productId;
+    private Double amount;
+    private String externalId;
+    private boolean refunded;
+}
@@ -0,0 +1,65 @@
+package com.example.order.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Client for the payment service REST API.
+ */
+@Component
+public class PaymentServiceClient extends ServiceClient {
+
+    private static final TypeReference<List<PaymentRecord>> PAYMENT_LIST = new TypeReference<>() {
+    };
+
+    @Value("${order.clients.payment.baseUrl:http://localhost:8082}")
+    private String baseUrl;
+
+    @Value("${order.clients.requestTimeoutMs:5000}")
+    private long requestTimeoutMs;
+
+    public PaymentServiceClient(HttpClient httpClient, ObjectMapper objectMapper) {
+        super(httpClient, objectMapper);
+    }
+
+    @Override
+    protected String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    protected Duration requestTimeout() {
+        return Duration.ofMillis(requestTimeoutMs);
+    }
+
+    /**
+     * Fetches the payments of a single order.
+     *
+     * @param timeout deadline for this call, overriding the default
+     */
+    public List<PaymentRecord> findByOrderId(Long orderId, Duration timeout) {
+        return get("/payments/order/" + orderId, PAYMENT_LIST, timeout);
+    }
+
+    /**
+     * Fetches one page of payments ordered by order id and payment id,
+     * starting after {@code (afterOrderId, afterId)}.
+     */
+    public List<PaymentRecord> findPageByOrderId(long afterOrderId, long afterId, long toOrderId, int limit) {
+        return get("/payments/by-order?afterOrderId=" + afterOrderId + "&afterId=" + afterId
+                + "&toOrderId=" + toOrderId + "&limit=" + limit, PAYMENT_LIST);
+    }
+
+    /**
+     * Refunds the given payment.
+     */
+    public void refund(Long paymentId) {
+        post("/payments/" + paymentId + "/refund");
+    }
+}
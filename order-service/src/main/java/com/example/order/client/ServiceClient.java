@@ -0,0 +1,88 @@
+package com.example.order.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Base class for the small JSON clients of the payment and shipping
+ * services.  Every request carries a timeout; non‑2xx responses and I/O
+ * errors surface as {@link ServiceClientException}.
+ */
+public abstract class ServiceClient {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    protected ServiceClient(HttpClient httpClient, ObjectMapper objectMapper) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Base URL of the remote service, e.g. {@code http://localhost:8082}. */
+    protected abstract String baseUrl();
+
+    /** Timeout applied to each request. */
+    protected abstract Duration requestTimeout();
+
+    protected <T> T get(String pathAndQuery, TypeReference<T> type) {
+        return get(pathAndQuery, type, requestTimeout());
+    }
+
+    protected <T> T get(String pathAndQuery, TypeReference<T> type, Duration timeout) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + pathAndQuery))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        String body = send(request);
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new ServiceClientException("Unable to parse response of GET " + request.uri(), e);
+        }
+    }
+
+    protected void post(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl() + path))
+                .timeout(requestTimeout())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        send(request);
+    }
+
+    private String send(HttpRequest request) {
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new ServiceClientException(request.method() + " " + request.uri()
+                        + " returned status " + response.statusCode());
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new ServiceClientException(request.method() + " " + request.uri() + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceClientException(request.method() + " " + request.uri() + " interrupted", e);
+        }
+    }
+
+    /**
+     * Raised when a remote service call fails.
+     */
+    public static class ServiceClientException extends RuntimeException {
+        public ServiceClientException(String message) {
+            super(message);
+        }
+
+        public ServiceClientException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.order.client;
+
+import lombok.Data;
+
+/**
+ * Shipment as returned by the shipping service.  Only the fields the order
+ * service needs are mapped; unknown properties are ignored.
+ */
+@Data
+public class ShipmentRecord {
+    private Long id;
+    private Long orderId;
+    private Long productId;
+    private Integer quantity;
+    private String trackingNumber;
+}
@@ -0,0 +1,58 @@
+package com.example.order.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Client for the shipping service REST API.
+ */
+@Component
+public class ShippingServiceClient extends ServiceClient {
+
+    private static final TypeReference<List<ShipmentRecord>> SHIPMENT_LIST = new TypeReference<>() {
+    };
+
+    @Value("${order.clients.shipping.baseUrl:http://localhost:8083}")
+    private String baseUrl;
+
+    @Value("${order.clients.requestTimeoutMs:5000}")
+    private long requestTimeoutMs;
+
+    public ShippingServiceClient(HttpClient httpClient, ObjectMapper objectMapper) {
+        super(httpClient, objectMapper);
+    }
+
+    @Override
+    protected String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    protected Duration requestTimeout() {
+        return Duration.ofMillis(requestTimeoutMs);
+    }
+
+    /**
+     * Fetches the shipments of a single order.
+     *
+     * @param timeout deadline for this call, overriding the default
+     */
+    public List<ShipmentRecord> findByOrderId(Long orderId, Duration timeout) {
+        return get("/shipments/order/" + orderId, SHIPMENT_LIST, timeout);
+    }
+
+    /**
+     * Fetches one page of shipments ordered by order id and shipment id,
+     * starting after {@code (afterOrderId, afterId)}.
+     */
+    public List<ShipmentRecord> findPageByOrderId(long afterOrderId, long afterId, long toOrderId, int limit) {
+        return get("/shipments/by-order?afterOrderId=" + afterOrderId + "&afterId=" + afterId
+                + "&toOrderId=" + toOrderId + "&limit=" + limit, SHIPMENT_LIST);
+    }
+}
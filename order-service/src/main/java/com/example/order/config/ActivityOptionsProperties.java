@@ -0,0 +1,128 @@
+package com.example.order.config;
+
+import com.example.common.dto.OrderPriority;
+import com.example.common.failures.PermanentFailureException;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Externalised Activity options for the order workflow.  Timeouts, retry
+ * policies and task queues are bound from {@code temporal.order.activities.*}
+ * properties: {@code defaults} applies to every Activity and entries under
+ * {@code types[<ActivityType>]} override individual settings for a single
+ * Activity type (for example {@code DebitPayment} or {@code ShipOrder}).
+ * <p>
+ * {@link PermanentFailureException} is always treated as non‑retryable in
+ * addition to any configured {@code non-retryable-error-types}.  Task queues
+ * are configured by their base name and mapped to the priority lane of the
+ * worker that runs the workflow.
+ */
+@Data
+@ConfigurationProperties(prefix = "temporal.order.activities")
+public class ActivityOptionsProperties {
+
+    private ActivitySettings defaults = new ActivitySettings();
+
+    private Map<String, ActivitySettings> types = new HashMap<>();
+
+    /**
+     * Builds the options used for Activities without a per‑type entry.
+     *
+     * @param lane the priority lane the workflow runs in
+     */
+    public ActivityOptions defaultActivityOptions(OrderPriority lane) {
+        return toActivityOptions(defaults, lane);
+    }
+
+    /**
+     * Builds per‑Activity‑type options with each entry layered on top of the
+     * defaults, so an entry only needs to list what differs.
+     *
+     * @param lane the priority lane the workflow runs in
+     */
+    public Map<String, ActivityOptions> perTypeActivityOptions(OrderPriority lane) {
+        Map<String, ActivityOptions> options = new HashMap<>();
+        types.forEach((type, settings) -> options.put(type, toActivityOptions(defaults.overriddenBy(settings), lane)));
+        return options;
+    }
+
+    private static ActivityOptions toActivityOptions(ActivitySettings settings, OrderPriority lane) {
+        Set<String> doNotRetry = new LinkedHashSet<>(settings.getNonRetryableErrorTypes());
+        doNotRetry.add(PermanentFailureException.class.getName());
+
+        RetryOptions.Builder retry = RetryOptions.newBuilder()
+                .setDoNotRetry(doNotRetry.toArray(new String[0]));
+        if (settings.getMaximumAttempts() != null) {
+            retry.setMaximumAttempts(settings.getMaximumAttempts());
+        }
+        if (settings.getInitialInterval() != null) {
+            retry.setInitialInterval(settings.getInitialInterval());
+        }
+        if (settings.getBackoffCoefficient() != null) {
+            retry.setBackoffCoefficient(settings.getBackoffCoefficient());
+        }
+        if (settings.getMaximumInterval() != null) {
+            retry.setMaximumInterval(settings.getMaximumInterval());
+        }
+
+        ActivityOptions.Builder builder = ActivityOptions.newBuilder()
+                .setRetryOptions(retry.build());
+        if (settings.getTaskQueue() != null) {
+            builder.setTaskQueue(lane.taskQueue(settings.getTaskQueue()));
+        }
+        if (settings.getStartToCloseTimeout() != null) {
+            builder.setStartToCloseTimeout(settings.getStartToCloseTimeout());
+        }
+        if (settings.getScheduleToCloseTimeout() != null) {
+            builder.setScheduleToCloseTimeout(settings.getScheduleToCloseTimeout());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Settings for one Activity type.  Unset values fall back to the
+     * defaults and finally to Temporal's own defaults.
+     */
+    @Data
+    public static class ActivitySettings {
+        private String taskQueue;
+        private Duration startToCloseTimeout;
+        private Duration scheduleToCloseTimeout;
+        private Integer maximumAttempts;
+        private Duration initialInterval;
+        private Double backoffCoefficient;
+        private Duration maximumInterval;
+        private List<String> nonRetryableErrorTypes = new ArrayList<>();
+
+        ActivitySettings overriddenBy(ActivitySettings override) {
+            ActivitySettings merged = new ActivitySettings();
+            merged.setTaskQueue(override.getTaskQueue() != null ? override.getTaskQueue() : taskQueue);
+            merged.setStartToCloseTimeout(override.getStartToCloseTimeout() != null
+                    ? override.getStartToCloseTimeout() : startToCloseTimeout);
+            merged.setScheduleToCloseTimeout(override.getScheduleToCloseTimeout() != null
+                    ? override.getScheduleToCloseTimeout() : scheduleToCloseTimeout);
+            merged.setMaximumAttempts(override.getMaximumAttempts() != null
+                    ? override.getMaximumAttempts() : maximumAttempts);
+            merged.setInitialInterval(override.getInitialInterval() != null
+                    ? override.getInitialInterval() : initialInterval);
+            merged.setBackoffCoefficient(override.getBackoffCoefficient() != null
+                    ? override.getBackoffCoefficient() : backoffCoefficient);
+            merged.setMaximumInterval(override.getMaximumInterval() != null
+                    ? override.getMaximumInterval() : maximumInterval);
+            List<String> errorTypes = new ArrayList<>(nonRetryableErrorTypes);
+            errorTypes.addAll(override.getNonRetryableErrorTypes());
+            merged.setNonRetryableErrorTypes(errorTypes);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.order.config;
+
+import com.example.common.tracing.TracingConfig;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Configuration shared with the other services, from the common module:
+ * tracing.  Imported here rather than on the application class so that
+ * test slices, which skip scanned configuration, do not pull it in.
+ */
+@Configuration
+@Import(TracingConfig.class)
+public class CommonConfig {
+}
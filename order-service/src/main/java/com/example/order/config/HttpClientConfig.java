@@ -0,0 +1,28 @@
+package com.example.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Provides the shared {@link HttpClient} used to call the payment and
+ * shipping services.  The JDK client keeps connections alive and reuses
+ * them across requests, so a single instance is shared by all callers.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${order.clients.connectTimeoutMs:2000}")
+    private long connectTimeoutMs;
+
+    @Bean
+    public HttpClient httpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
+}
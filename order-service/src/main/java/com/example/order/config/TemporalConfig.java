@@ -1,9 +1,15 @@
 package com.example.order.config;
 
+import com.example.common.tracing.Tracing;
+import io.opentelemetry.api.OpenTelemetry;
 import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import io.temporal.worker.WorkerFactoryOptions;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,20 +19,46 @@ import org.springframework.context.annotation.Configuration;
  * application property {@code temporal.server.address}.  When running
  * locally using the Temporal docker compose environment the default
  * address is "127.0.0.1:7233" as documented in Temporal's self‑hosting
- * guide【353231094681361†L116-L124】.
+ * guide【353231094681361†L116-L124】.  It also enables the externalised
+ * {@link ActivityOptionsProperties} used when registering the workflow.
  */
 @Configuration
+@EnableConfigurationProperties(ActivityOptionsProperties.class)
 public class TemporalConfig {
 
     @Value("${temporal.server.address:127.0.0.1:7233}")
     private String temporalServerAddress;
 
+    /**
+     * Connection to the Temporal server.  A parent context may provide its
+     * own, as the all‑in‑one launcher does for its embedded server.
+     */
     @Bean
-    public WorkflowClient workflowClient() {
+    @ConditionalOnMissingBean
+    public WorkflowServiceStubs workflowServiceStubs() {
         WorkflowServiceStubsOptions options = WorkflowServiceStubsOptions.newBuilder()
                 .setTarget(temporalServerAddress)
                 .build();
-        WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(options);
-        return WorkflowClient.newInstance(service);
+        return WorkflowServiceStubs.newServiceStubs(options);
+    }
+
+    @Bean
+    public WorkflowClient workflowClient(WorkflowServiceStubs service, OpenTelemetry openTelemetry) {
+        WorkflowClientOptions clientOptions = WorkflowClientOptions.newBuilder()
+                .setInterceptors(Tracing.clientInterceptor(openTelemetry))
+                .build();
+        return WorkflowClient.newInstance(service, clientOptions);
+    }
+
+    /**
+     * Options for the worker factories created by the workers of this
+     * service.  The tracing interceptor continues the trace propagated in
+     * Temporal headers.
+     */
+    @Bean
+    public WorkerFactoryOptions workerFactoryOptions(OpenTelemetry openTelemetry) {
+        return WorkerFactoryOptions.newBuilder()
+                .setWorkerInterceptors(Tracing.workerInterceptor(openTelemetry))
+                .build();
     }
 }
\ No newline at end of file
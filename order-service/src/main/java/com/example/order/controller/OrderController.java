@@ -1,11 +1,18 @@
 package com.example.order.controller;
 
+import com.example.common.dto.OrderStatus;
+import com.example.order.admission.AdmissionControl;
+import com.example.order.details.OrderDetails;
+import com.example.order.details.OrderDetailsService;
 import com.example.order.entity.Order;
 import com.example.order.repository.OrderRepository;
 import com.example.order.service.OrderService;
+import com.example.order.service.PlacementMode;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -26,21 +33,48 @@ public class OrderController {
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     private final OrderService orderService;
     private final OrderRepository orderRepository;
+    private final AdmissionControl admissionControl;
+    private final OrderDetailsService orderDetailsService;
 
     /**
      * Creates a new order and starts its workflow.  The request body only
      * includes the productId, price and quantity because the id is
-     * generated by the database.
+     * generated by the database.  Requests are shed with 429 when
+     * {@link AdmissionControl} decides the task queues are too far behind.
+     * <p>
+     * With {@code placement=SYNC} the call waits until the payment has been
+     * debited or has failed; a failed debit is answered with 402, and an
+     * order whose stock could not be reserved with 409.  If the outcome is
+     * not known within {@code order.placement.syncTimeout} the still pending
+     * order is answered with 202.
      *
-     * @param order the order payload
+     * @param order     the order payload
+     * @param placement {@code ASYNC} (default) or {@code SYNC}
      * @return the persisted order with its id
      */
     @PostMapping
-    public ResponseEntity<?> createOrder(@Validated @RequestBody Order order) {
+    public ResponseEntity<?> createOrder(@Validated @RequestBody Order order,
+                                         @RequestParam(defaultValue = "ASYNC") PlacementMode placement) {
+        if (!admissionControl.tryAdmit(order.getPriority())) {
+            logger.warn("Order creation request rejected by admission control: {}", order);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Order service is overloaded, please retry later");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(admissionControl.retryAfterSeconds(order.getPriority())))
+                    .body(errorResponse);
+        }
         try {
             logger.info("Received order creation request: {}", order);
-            Order created = orderService.createOrder(order);
+            Order created = orderService.createOrder(order, placement);
             logger.info("Order created successfully: {}", created);
+            if (placement == PlacementMode.SYNC && created.getStatus() == OrderStatus.PENDING) {
+                return ResponseEntity.accepted().body(created);
+            }
+            if (created.getStatus() == OrderStatus.FAILED) {
+                boolean outOfStock = created.getPaymentOutcome() != null && created.getPaymentOutcome().isOutOfStock();
+                return ResponseEntity.status(outOfStock ? HttpStatus.CONFLICT : HttpStatus.PAYMENT_REQUIRED)
+                        .body(created);
+            }
             return ResponseEntity.ok(created);
         } catch (Exception e) {
             logger.error("Error creating order: {}", e.getMessage(), e);
@@ -68,6 +102,21 @@ public class OrderController {
     public ResponseEntity<List<Order>> getOrders() {
         return ResponseEntity.ok(orderRepository.findAll());
     }
+
+    /**
+     * Returns an order together with its payments and shipments.  If the
+     * payment or shipping service is slow the response is still returned
+     * in time with that part missing and listed under {@code unavailable}.
+     *
+     * @param id the order id
+     * @return the order details, or 404 if the order does not exist
+     */
+    @GetMapping("/{id}/details")
+    public ResponseEntity<OrderDetails> getOrderDetails(@PathVariable Long id) {
+        return orderDetailsService.getDetails(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
     
     /**
      * Gets the root cause of an exception
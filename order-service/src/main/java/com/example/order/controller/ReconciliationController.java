@@ -0,0 +1,58 @@
+package com.example.order.controller;
+
+import com.example.order.reconciliation.ReconciliationJob;
+import com.example.order.reconciliation.ReconciliationRun;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Administrative endpoints to trigger and inspect the saga reconciliation
+ * job.  The job normally runs nightly; these endpoints allow ad‑hoc runs.
+ */
+@RestController
+@RequestMapping("/admin/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    private final ReconciliationJob reconciliationJob;
+
+    /** Runs ad‑hoc reconciliations off the request threads and the common pool. */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Starts a reconciliation run in the background.
+     *
+     * @param refund whether to refund unshipped and duplicate charges
+     * @return 202 Accepted; poll {@code GET /admin/reconciliation} for progress
+     */
+    @PostMapping
+    public ResponseEntity<Void> startRun(@RequestParam(defaultValue = "false") boolean refund) {
+        executor.execute(() -> reconciliationJob.run(refund));
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Returns progress and results of the current or most recent run.
+     *
+     * @return the run, or 404 if reconciliation has never run
+     */
+    @GetMapping
+    public ResponseEntity<ReconciliationRun> lastRun() {
+        ReconciliationRun run = reconciliationJob.lastRun();
+        return run == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
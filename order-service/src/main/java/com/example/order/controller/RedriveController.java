@@ -0,0 +1,89 @@
+package com.example.order.controller;
+
+import com.example.order.redrive.RedriveJob;
+import com.example.order.redrive.RedriveRun;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Administrative endpoints to re‑drive failed order sagas after an outage
+ * and to follow the progress of the re‑drive.
+ */
+@RestController
+@RequestMapping("/admin/redrive")
+@RequiredArgsConstructor
+public class RedriveController {
+
+    private final RedriveJob redriveJob;
+
+    /** Runs re‑drives off the request threads and the common pool. */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Starts re‑driving failed order workflows in the background.
+     *
+     * @param from        start of the close time window, default one hour ago
+     * @param to          end of the close time window, default now
+     * @param rate        maximum workflow starts per second
+     * @param concurrency maximum re‑driven sagas in flight
+     * @return 202 Accepted; poll {@code GET /admin/redrive} for progress.
+     *         409 with the active run if a re‑drive is already running
+     */
+    @PostMapping
+    public ResponseEntity<RedriveRun> start(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Double rate,
+            @RequestParam(required = false) Integer concurrency) {
+        Instant closedBefore = to != null ? to : Instant.now();
+        Instant closedAfter = from != null ? from : closedBefore.minus(Duration.ofHours(1));
+        Optional<RedriveRun> run = redriveJob.start(closedAfter, closedBefore, rate, concurrency);
+        if (run.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(redriveJob.lastRun());
+        }
+        executor.execute(() -> redriveJob.execute(run.get()));
+        return ResponseEntity.accepted().body(run.get());
+    }
+
+    /**
+     * Returns progress, error rate and current start rate of the current or
+     * most recent re‑drive.
+     *
+     * @return the run, or 404 if nothing was re‑driven yet
+     */
+    @GetMapping
+    public ResponseEntity<RedriveRun> lastRun() {
+        RedriveRun run = redriveJob.lastRun();
+        return run == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(run);
+    }
+
+    /**
+     * Stops the current re‑drive from starting further workflows.
+     *
+     * @return 202 Accepted, or 404 if no re‑drive is running
+     */
+    @DeleteMapping
+    public ResponseEntity<Void> cancel() {
+        return redriveJob.cancel() ? ResponseEntity.accepted().build() : ResponseEntity.notFound().build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
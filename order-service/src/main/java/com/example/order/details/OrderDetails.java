@@ -0,0 +1,35 @@
+package com.example.order.details;
+
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.ShipmentRecord;
+import com.example.order.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Combined view of an order with its payments and shipments.  When the
+ * payment or shipping service does not answer in time the corresponding
+ * list is {@code null} and the service is listed in {@link #unavailable}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDetails {
+
+    private Order order;
+
+    private List<PaymentRecord> payments;
+
+    private List<ShipmentRecord> shipments;
+
+    /** Names of the services whose data is missing from this view. */
+    private List<String> unavailable;
+
+    /** Whether some of the data could not be fetched. */
+    public boolean isPartial() {
+        return !unavailable.isEmpty();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.order.details;
+
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShipmentRecord;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the aggregated {@link OrderDetails} view.  The payment and shipping
+ * services are queried in parallel on virtual threads, each call bounded by
+ * the same deadline.  A service that fails or misses the deadline is left
+ * out and the view is marked partial instead of failing the request.
+ * <p>
+ * Complete views are cached for a short time in a bounded Caffeine cache,
+ * which keeps caching new views when full by evicting rarely used ones.  The cache entry of an order
+ * is dropped whenever the workflow records a new status for it, see
+ * {@link com.example.order.activity.OrderStatusActivityImpl}.  Partial
+ * views are never cached.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderDetailsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderDetailsService.class);
+
+    private final OrderRepository orderRepository;
+    private final PaymentServiceClient paymentClient;
+    private final ShippingServiceClient shippingClient;
+
+    /** Deadline for fetching the payment and shipping data. */
+    @Value("${order.details.timeoutMs:800}")
+    private long timeoutMs;
+
+    @Value("${order.details.cacheTtlMs:5000}")
+    private long cacheTtlMs;
+
+    @Value("${order.details.cacheMaxEntries:10000}")
+    private int cacheMaxEntries;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private Cache<Long, OrderDetails> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .build();
+    }
+
+    /**
+     * Returns the details of an order.
+     *
+     * @param orderId the order
+     * @return the details, or empty if the order does not exist
+     */
+    public Optional<OrderDetails> getDetails(Long orderId) {
+        OrderDetails cached = cache.getIfPresent(orderId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Order> order = orderRepository.findById(orderId);
+        if (order.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Duration timeout = Duration.ofMillis(timeoutMs);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Future<List<PaymentRecord>> payments = executor.submit(() -> paymentClient.findByOrderId(orderId, timeout));
+        Future<List<ShipmentRecord>> shipments = executor.submit(() -> shippingClient.findByOrderId(orderId, timeout));
+
+        List<String> unavailable = new ArrayList<>();
+        OrderDetails details = new OrderDetails(order.get(),
+                await(payments, deadline, "payment-service", orderId, unavailable),
+                await(shipments, deadline, "shipping-service", orderId, unavailable),
+                unavailable);
+        if (!details.isPartial()) {
+            cache.put(orderId, details);
+        }
+        return Optional.of(details);
+    }
+
+    /**
+     * Drops the cached details of an order.
+     */
+    public void invalidate(Long orderId) {
+        cache.invalidate(orderId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T await(Future<T> future, long deadlineNanos, String service, Long orderId, List<String> unavailable) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Order {} details: {} unavailable: {}", orderId, service, e.toString());
+        }
+        future.cancel(true);
+        unavailable.add(service);
+        return null;
+    }
+}
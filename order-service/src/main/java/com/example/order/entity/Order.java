@@ -1,12 +1,22 @@
 package com.example.order.entity;
 
+import com.example.common.dto.OrderPriority;
+import com.example.common.dto.OrderStatus;
+import com.example.common.dto.PaymentOutcome;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Data;
 
+import java.time.Instant;
+
 /**
  * Simple JPA entity representing an order.  This entity is stored in an
  * in‑memory H2 database.  Only a few fields are defined for demonstration
@@ -26,4 +36,27 @@ public class Order {
     private Double price;
 
     private Integer quantity;
+
+    /**
+     * Priority lane of the order; defaults to express when not given.
+     */
+    @Enumerated(EnumType.STRING)
+    private OrderPriority priority;
+
+    /**
+     * Progress of the order's saga, maintained by the workflow.
+     */
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private Instant createdAt;
+
+    /**
+     * Payment outcome of an order placed synchronously, returned to the
+     * caller but not stored.
+     */
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private PaymentOutcome paymentOutcome;
 }
\ No newline at end of file
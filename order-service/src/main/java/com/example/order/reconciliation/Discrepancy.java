@@ -0,0 +1,37 @@
+package com.example.order.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A mismatch between the payments and shipments recorded for one order.
+ */
+@Data
+@AllArgsConstructor
+public class Discrepancy {
+
+    public enum Type {
+        /** The customer was charged but nothing was shipped or refunded. */
+        PAYMENT_WITHOUT_SHIPMENT,
+        /** Goods were shipped although every payment was refunded. */
+        SHIPMENT_WITH_REFUNDED_PAYMENT,
+        /** Goods were shipped without any payment. */
+        SHIPMENT_WITHOUT_PAYMENT,
+        /** The order was charged more than once and not refunded. */
+        DUPLICATE_PAYMENT,
+        /** One charge was recorded more than once; nothing to refund. */
+        DUPLICATE_RECORD
+    }
+
+    private Type type;
+    private long orderId;
+    private List<Long> paymentIds;
+    private List<Long> shipmentIds;
+
+    /**
+     * Payments that a compensating refund should be issued for, if any.
+     */
+    private List<Long> refundCandidates;
+}
@@ -0,0 +1,88 @@
+package com.example.order.reconciliation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Streams rows ordered by {@code (orderId, id)} from a keyset‑paginated API
+ * one page at a time.  Only the current page is held in memory, so the
+ * cursor can walk tables of any size in constant memory.
+ *
+ * @param <T> the row type
+ */
+class KeysetCursor<T> {
+
+    /**
+     * Fetches up to {@code limit} rows positioned after
+     * {@code (afterOrderId, afterId)}.
+     */
+    interface PageFetcher<T> {
+        List<T> fetch(long afterOrderId, long afterId, int limit);
+    }
+
+    private final PageFetcher<T> fetcher;
+    private final ToLongFunction<T> orderIdOf;
+    private final ToLongFunction<T> idOf;
+    private final int pageSize;
+
+    private Iterator<T> page = Collections.emptyIterator();
+    private T head;
+    private boolean exhausted;
+    private long lastOrderId;
+    private long lastId;
+    private long rowsRead;
+
+    KeysetCursor(PageFetcher<T> fetcher, ToLongFunction<T> orderIdOf, ToLongFunction<T> idOf,
+                 long afterOrderId, int pageSize) {
+        this.fetcher = fetcher;
+        this.orderIdOf = orderIdOf;
+        this.idOf = idOf;
+        this.pageSize = pageSize;
+        this.lastOrderId = afterOrderId;
+        this.lastId = Long.MAX_VALUE;
+    }
+
+    boolean hasNext() {
+        return peek() != null;
+    }
+
+    /**
+     * Returns the next row without consuming it, or {@code null} at the end.
+     */
+    T peek() {
+        if (head == null) {
+            if (!page.hasNext() && !exhausted) {
+                List<T> rows = fetcher.fetch(lastOrderId, lastId, pageSize);
+                exhausted = rows.size() < pageSize;
+                page = rows.iterator();
+            }
+            if (page.hasNext()) {
+                head = page.next();
+                lastOrderId = orderIdOf.applyAsLong(head);
+                lastId = idOf.applyAsLong(head);
+                rowsRead++;
+            }
+        }
+        return head;
+    }
+
+    T next() {
+        T row = peek();
+        if (row == null) {
+            throw new NoSuchElementException();
+        }
+        head = null;
+        return row;
+    }
+
+    long orderIdOf(T row) {
+        return orderIdOf.applyAsLong(row);
+    }
+
+    long rowsRead() {
+        return rowsRead;
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.order.reconciliation;
+
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShipmentRecord;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cross‑service reconciliation of saga outcomes.  The job streams payments
+ * and shipments ordered by order id from the payment and shipping services'
+ * keyset‑paginated APIs and merge‑joins the two streams, so memory use is
+ * bounded by the page size regardless of table size.  The order id range is
+ * split into partitions that are reconciled in parallel.
+ * <p>
+ * Orders created within the grace period are skipped because their sagas
+ * may still be in flight, and only orders created within the lookback are
+ * checked.  The lookback must be shorter than the archive age of the
+ * payment and shipping services ({@code *.archive.maxAge}): the listings
+ * only cover their tables, and an order whose payment or shipment is
+ * already archived would look like a discrepancy, and with refunds
+ * enabled be refunded.  Each discrepancy is written to a report file;
+ * when refunds are enabled, charges that were never shipped and duplicate
+ * charges are refunded through the payment service.  Payments are told
+ * apart by their provider {@code externalId}, so one charge recorded twice
+ * is reported but not refunded.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReconciliationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationJob.class);
+    private static final DateTimeFormatter REPORT_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final OrderRepository orderRepository;
+    private final PaymentServiceClient paymentClient;
+    private final ShippingServiceClient shippingClient;
+
+    @Value("${order.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    /** Number of partitions per worker thread, to even out skewed ranges. */
+    @Value("${order.reconciliation.partitionsPerThread:4}")
+    private int partitionsPerThread;
+
+    @Value("${order.reconciliation.pageSize:2000}")
+    private int pageSize;
+
+    @Value("${order.reconciliation.gracePeriod:PT1H}")
+    private Duration gracePeriod;
+
+    @Value("${order.reconciliation.lookback:P7D}")
+    private Duration lookback;
+
+    @Value("${order.reconciliation.reportDir:/tmp}")
+    private String reportDir;
+
+    @Value("${order.reconciliation.refundsEnabled:false}")
+    private boolean refundsEnabledByDefault;
+
+    private final AtomicReference<ReconciliationRun> currentRun = new AtomicReference<>();
+
+    /**
+     * Nightly entry point.  Disabled unless {@code order.reconciliation.cron}
+     * is set.
+     */
+    @Scheduled(cron = "${order.reconciliation.cron:-}")
+    public void scheduledRun() {
+        run(refundsEnabledByDefault);
+    }
+
+    /**
+     * Returns the current or most recent run, or {@code null}.
+     */
+    public ReconciliationRun lastRun() {
+        return currentRun.get();
+    }
+
+    /**
+     * Reconciles the orders created within the lookback that are older
+     * than the grace period.  Returns the already active run if one is in
+     * progress.
+     *
+     * @param refundsEnabled whether to refund unshipped and duplicate charges
+     * @return the run, which is complete when this method returns
+     */
+    public ReconciliationRun run(boolean refundsEnabled) {
+        ReconciliationRun active = currentRun.get();
+        if (active != null && active.getStatus() == ReconciliationRun.Status.RUNNING) {
+            logger.warn("Reconciliation already running since {}", active.getStartedAt());
+            return active;
+        }
+
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(gracePeriod);
+        long toOrderId = orderRepository.findFirstByCreatedAtBeforeOrderByIdDesc(cutoff).map(Order::getId).orElse(0L);
+        long fromOrderId = orderRepository.findFirstByCreatedAtAfterOrderByIdAsc(now.minus(lookback))
+                .map(Order::getId).orElse(toOrderId + 1) - 1;
+        List<long[]> ranges = partition(fromOrderId, toOrderId, Math.max(1, parallelism * partitionsPerThread));
+        Path reportFile = Path.of(reportDir, "saga_reconciliation_" + REPORT_SUFFIX.format(Instant.now()) + ".txt");
+
+        ReconciliationRun run = new ReconciliationRun(toOrderId, refundsEnabled, reportFile.toString(), ranges.size());
+        if (!currentRun.compareAndSet(active, run)) {
+            return currentRun.get();
+        }
+        logger.info("Reconciliation started for orders ({}, {}] in {} partitions, report {}",
+                fromOrderId, toOrderId, ranges.size(), reportFile);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try (ReconciliationReport report = new ReconciliationReport(reportFile)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] range : ranges) {
+                futures.add(executor.submit(() -> reconcilePartition(range[0], range[1], run, report)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            run.completed();
+            logger.info("Reconciliation finished: {} orders checked, discrepancies {}",
+                    run.getOrdersChecked(), run.getDiscrepancies());
+        } catch (Exception e) {
+            logger.error("Reconciliation failed: {}", e.getMessage(), e);
+            run.failed(e.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+        return run;
+    }
+
+    /**
+     * Splits the half‑open range {@code (from, to]} into at most
+     * {@code count} contiguous ranges.
+     */
+    static List<long[]> partition(long from, long to, int count) {
+        List<long[]> ranges = new ArrayList<>();
+        if (to <= from) {
+            return ranges;
+        }
+        long span = to - from;
+        long step = Math.max(1, (span + count - 1) / count);
+        for (long lower = from; lower < to; lower += step) {
+            ranges.add(new long[]{lower, Math.min(to, lower + step)});
+        }
+        return ranges;
+    }
+
+    /**
+     * Merge‑joins payments and shipments of the orders in
+     * {@code (afterOrderId, toOrderId]}.
+     */
+    private void reconcilePartition(long afterOrderId, long toOrderId, ReconciliationRun run,
+                                    ReconciliationReport report) {
+        KeysetCursor<PaymentRecord> payments = new KeysetCursor<>(
+                (o, id, limit) -> paymentClient.findPageByOrderId(o, id, toOrderId, limit),
+                PaymentRecord::getOrderId, PaymentRecord::getId, afterOrderId, pageSize);
+        KeysetCursor<ShipmentRecord> shipments = new KeysetCursor<>(
+                (o, id, limit) -> shippingClient.findPageByOrderId(o, id, toOrderId, limit),
+                ShipmentRecord::getOrderId, ShipmentRecord::getId, afterOrderId, pageSize);
+
+        List<PaymentRecord> orderPayments = new ArrayList<>();
+        List<ShipmentRecord> orderShipments = new ArrayList<>();
+        while (payments.hasNext() || shipments.hasNext()) {
+            long orderId = Math.min(
+                    payments.hasNext() ? payments.orderIdOf(payments.peek()) : Long.MAX_VALUE,
+                    shipments.hasNext() ? shipments.orderIdOf(shipments.peek()) : Long.MAX_VALUE);
+            orderPayments.clear();
+            orderShipments.clear();
+            while (payments.hasNext() && payments.orderIdOf(payments.peek()) == orderId) {
+                orderPayments.add(payments.next());
+            }
+            while (shipments.hasNext() && shipments.orderIdOf(shipments.peek()) == orderId) {
+                orderShipments.add(shipments.next());
+            }
+            run.getOrdersChecked().incrementAndGet();
+            Discrepancy discrepancy = compare(orderId, orderPayments, orderShipments);
+            if (discrepancy != null) {
+                handle(discrepancy, run, report);
+            }
+        }
+        run.getPaymentsScanned().addAndGet(payments.rowsRead());
+        run.getShipmentsScanned().addAndGet(shipments.rowsRead());
+        run.getPartitionsCompleted().incrementAndGet();
+    }
+
+    /**
+     * Compares the payments and shipments of a single order.
+     *
+     * @return the discrepancy, or {@code null} if the order is consistent
+     */
+    static Discrepancy compare(long orderId, List<PaymentRecord> payments, List<ShipmentRecord> shipments) {
+        List<Long> paymentIds = payments.stream().map(PaymentRecord::getId).toList();
+        List<Long> shipmentIds = shipments.stream().map(ShipmentRecord::getId).toList();
+        List<PaymentRecord> activePayments = payments.stream().filter(p -> !p.isRefunded()).toList();
+        List<Long> active = activePayments.stream().map(PaymentRecord::getId).toList();
+
+        if (shipments.isEmpty()) {
+            return active.isEmpty() ? null
+                    : new Discrepancy(Discrepancy.Type.PAYMENT_WITHOUT_SHIPMENT, orderId, paymentIds, shipmentIds, active);
+        }
+        if (payments.isEmpty()) {
+            return new Discrepancy(Discrepancy.Type.SHIPMENT_WITHOUT_PAYMENT, orderId, paymentIds, shipmentIds, List.of());
+        }
+        if (active.isEmpty()) {
+            return new Discrepancy(Discrepancy.Type.SHIPMENT_WITH_REFUNDED_PAYMENT, orderId, paymentIds, shipmentIds, List.of());
+        }
+        if (active.size() > 1) {
+            List<Long> extraCharges = extraCharges(activePayments);
+            return extraCharges.isEmpty()
+                    ? new Discrepancy(Discrepancy.Type.DUPLICATE_RECORD, orderId, paymentIds, shipmentIds, List.of())
+                    : new Discrepancy(Discrepancy.Type.DUPLICATE_PAYMENT, orderId, paymentIds, shipmentIds,
+                            extraCharges);
+        }
+        return null;
+    }
+
+    /**
+     * Returns one payment of every provider charge after the first.  Rows
+     * with the same {@code externalId} record one charge, and refunding
+     * one of them would refund the charge the order keeps.  Rows without
+     * an external id each count as a charge of their own.
+     */
+    private static List<Long> extraCharges(List<PaymentRecord> activePayments) {
+        Set<String> charges = new HashSet<>();
+        List<Long> extra = new ArrayList<>();
+        for (PaymentRecord payment : activePayments) {
+            String charge = payment.getExternalId() != null ? payment.getExternalId() : "payment-" + payment.getId();
+            if (charges.add(charge) && charges.size() > 1) {
+                extra.add(payment.getId());
+            }
+        }
+        return extra;
+    }
+
+    private void handle(Discrepancy discrepancy, ReconciliationRun run, ReconciliationReport report) {
+        run.getDiscrepancies().get(discrepancy.getType()).incrementAndGet();
+        String action = "reported";
+        if (run.isRefundsEnabled() && !discrepancy.getRefundCandidates().isEmpty()) {
+            List<Long> refunded = new ArrayList<>();
+            for (Long paymentId : discrepancy.getRefundCandidates()) {
+                try {
+                    paymentClient.refund(paymentId);
+                    refunded.add(paymentId);
+                    run.getRefundsIssued().incrementAndGet();
+                } catch (Exception e) {
+                    logger.error("Reconciliation refund of payment {} for order {} failed: {}",
+                            paymentId, discrepancy.getOrderId(), e.getMessage());
+                    run.getRefundFailures().incrementAndGet();
+                }
+            }
+            action = "refunded " + refunded;
+        }
+        try {
+            report.write(discrepancy, action);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
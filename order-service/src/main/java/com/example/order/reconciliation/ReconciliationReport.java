@@ -0,0 +1,40 @@
+package com.example.order.reconciliation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * Append‑only text report of the discrepancies found by a reconciliation
+ * run.  One line is written per discrepancy; writes from the partition
+ * workers are serialised on this object.
+ */
+class ReconciliationReport implements Closeable {
+
+    private final BufferedWriter writer;
+
+    ReconciliationReport(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.writer = Files.newBufferedWriter(file);
+        writer.write("# Saga reconciliation report started " + Instant.now());
+        writer.newLine();
+    }
+
+    synchronized void write(Discrepancy d, String action) throws IOException {
+        writer.write(d.getType() + " - Order: " + d.getOrderId()
+                + ", Payments: " + d.getPaymentIds()
+                + ", Shipments: " + d.getShipmentIds()
+                + ", Action: " + action);
+        writer.newLine();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.write("# Finished " + Instant.now());
+        writer.newLine();
+        writer.close();
+    }
+}
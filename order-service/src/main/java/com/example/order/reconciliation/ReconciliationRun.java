@@ -0,0 +1,56 @@
+package com.example.order.reconciliation;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and results of a single reconciliation run.  Counters are
+ * updated concurrently by the partition workers and can be read while the
+ * run is in progress.
+ */
+@Getter
+public class ReconciliationRun {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private final Instant startedAt = Instant.now();
+    private final long toOrderId;
+    private final boolean refundsEnabled;
+    private final String reportFile;
+    private final int partitions;
+    private final AtomicLong partitionsCompleted = new AtomicLong();
+    private final AtomicLong ordersChecked = new AtomicLong();
+    private final AtomicLong paymentsScanned = new AtomicLong();
+    private final AtomicLong shipmentsScanned = new AtomicLong();
+    private final AtomicLong refundsIssued = new AtomicLong();
+    private final AtomicLong refundFailures = new AtomicLong();
+    private final Map<Discrepancy.Type, AtomicLong> discrepancies = new EnumMap<>(Discrepancy.Type.class);
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ReconciliationRun(long toOrderId, boolean refundsEnabled, String reportFile, int partitions) {
+        this.toOrderId = toOrderId;
+        this.refundsEnabled = refundsEnabled;
+        this.reportFile = reportFile;
+        this.partitions = partitions;
+        for (Discrepancy.Type type : Discrepancy.Type.values()) {
+            discrepancies.put(type, new AtomicLong());
+        }
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void failed(String message) {
+        finishedAt = Instant.now();
+        error = message;
+        status = Status.FAILED;
+    }
+}
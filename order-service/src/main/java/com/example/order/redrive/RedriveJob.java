@@ -0,0 +1,398 @@
+package com.example.order.redrive;
+
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.dto.OrderStatus;
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.workflows.OrderWorkflow;
+import com.example.order.admission.TokenBucket;
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.api.enums.v1.WorkflowIdReusePolicy;
+import io.temporal.api.failure.v1.Failure;
+import io.temporal.api.history.v1.History;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.client.WorkflowExecutionMetadata;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Re‑drives order sagas that failed, for example during an outage of the
+ * payment or shipping service.  Failed {@link OrderWorkflow} executions
+ * closed within a time window are listed through the visibility API and
+ * started again with the {@link OrderDTO} taken from their history.
+ * Orders that were compensated, or that have completed since, are skipped,
+ * and so are sagas that failed permanently, such as an order refused for
+ * lack of stock, which would only fail the same way again.  An order that
+ * still has a payment that was not refunded is skipped too: its saga failed
+ * after the debit and before or during compensation, and a re‑drive would
+ * charge the customer a second time.  An order whose payments were all
+ * refunded is re‑driven: the re‑drive is a new workflow run, and the payment
+ * service keys charges by run, so the customer is charged afresh instead of
+ * the refunded charge being handed back as paid.  Each re‑drive uses the
+ * workflow id {@code redrive-<runId>} of the failed run, so re‑driving the
+ * same window twice does not start duplicates.
+ * <p>
+ * Starts are paced by a {@link TokenBucket} and at most {@code concurrency}
+ * re‑driven sagas are in flight; a permit is returned when a re‑driven
+ * workflow closes.  The outcomes of re‑driven sagas feed an additive
+ * increase, multiplicative decrease controller: whenever the error rate of
+ * the last interval exceeds {@code order.redrive.maxErrorRate} the start
+ * rate is halved, otherwise it grows back towards the maximum in steps.
+ * A just‑recovered dependency is therefore probed gently rather than
+ * flooded.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedriveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedriveJob.class);
+
+    private static final String PERMANENT_FAILURE = PermanentFailureException.class.getName();
+
+    private final WorkflowClient workflowClient;
+    private final OrderRepository orderRepository;
+    private final PaymentServiceClient paymentClient;
+
+    @Value("${temporal.order.taskQueue:ORDER_TASK_QUEUE}")
+    private String orderTaskQueue;
+
+    @Value("${order.redrive.maxRatePerSecond:20}")
+    private double defaultMaxRate;
+
+    @Value("${order.redrive.minRatePerSecond:0.5}")
+    private double minRate;
+
+    @Value("${order.redrive.concurrency:50}")
+    private int defaultConcurrency;
+
+    /** Error rate over one adjustment interval above which the rate is halved. */
+    @Value("${order.redrive.maxErrorRate:0.2}")
+    private double maxErrorRate;
+
+    /** Fraction of the maximum rate regained per healthy interval. */
+    @Value("${order.redrive.recoveryStep:0.1}")
+    private double recoveryStep;
+
+    @Value("${order.redrive.adjustInterval:PT5S}")
+    private Duration adjustInterval;
+
+    /** How long to wait for in‑flight re‑drives to close at the end of a run. */
+    @Value("${order.redrive.drainTimeout:PT10M}")
+    private Duration drainTimeout;
+
+    /** Deadline of the lookup of an order's payments before it is re‑driven. */
+    @Value("${order.redrive.paymentCheckTimeout:PT5S}")
+    private Duration paymentCheckTimeout;
+
+    private final AtomicReference<RedriveRun> currentRun = new AtomicReference<>();
+
+    /**
+     * Returns the current or most recent run, or {@code null}.
+     */
+    public RedriveRun lastRun() {
+        return currentRun.get();
+    }
+
+    /**
+     * Stops the current run from starting further workflows.  Sagas already
+     * re‑driven keep running.  A run that was started but has not begun
+     * executing stops before its first workflow.
+     *
+     * @return {@code false} if no run is active
+     */
+    public boolean cancel() {
+        RedriveRun run = currentRun.get();
+        if (run == null || run.getFinishedAt() != null) {
+            return false;
+        }
+        run.requestCancel();
+        return true;
+    }
+
+    /**
+     * Registers a run re‑driving failed order workflows closed in
+     * {@code [closedAfter, closedBefore)}.  The run is visible to
+     * {@link #lastRun} and {@link #cancel} at once; {@link #execute} does
+     * the work.
+     *
+     * @param maxRatePerSecond maximum starts per second, or {@code null} for
+     *                         the configured default
+     * @param concurrency      maximum re‑driven sagas in flight, or
+     *                         {@code null} for the configured default
+     * @return the new run, or empty if another run is still active
+     */
+    public Optional<RedriveRun> start(Instant closedAfter, Instant closedBefore, Double maxRatePerSecond,
+                                      Integer concurrency) {
+        RedriveRun active = currentRun.get();
+        if (active != null && active.getFinishedAt() == null) {
+            logger.warn("Re-drive already running since {}", active.getStartedAt());
+            return Optional.empty();
+        }
+        RedriveRun run = new RedriveRun(closedAfter, closedBefore,
+                maxRatePerSecond != null ? maxRatePerSecond : defaultMaxRate,
+                concurrency != null ? Math.max(1, concurrency) : defaultConcurrency);
+        return currentRun.compareAndSet(active, run) ? Optional.of(run) : Optional.empty();
+    }
+
+    /**
+     * Executes a run registered by {@link #start}.
+     *
+     * @return the run, which is finished when this method returns
+     */
+    public RedriveRun execute(RedriveRun run) {
+        logger.info("Re-drive started for failed orders closed in [{}, {}) at up to {}/s, {} in flight",
+                run.getClosedAfter(), run.getClosedBefore(), run.getMaxRatePerSecond(), run.getConcurrency());
+
+        Semaphore inFlight = new Semaphore(run.getConcurrency());
+        try (Stream<WorkflowExecutionMetadata> executions =
+                     workflowClient.listExecutions(query(run.getClosedAfter(), run.getClosedBefore()))) {
+            Pacer pacer = new Pacer(run);
+            Iterator<WorkflowExecutionMetadata> it = executions.iterator();
+            while (it.hasNext() && !run.isCancelRequested()) {
+                WorkflowExecutionMetadata failed = it.next();
+                run.getFound().incrementAndGet();
+                History history = workflowClient
+                        .fetchHistory(failed.getExecution().getWorkflowId(), failed.getExecution().getRunId())
+                        .getHistory();
+                OrderDTO order = originalInput(history);
+                if (!shouldRedrive(order)) {
+                    run.getSkipped().incrementAndGet();
+                    continue;
+                }
+                if (failedPermanently(history)) {
+                    run.getPermanentlyFailed().incrementAndGet();
+                    continue;
+                }
+                if (!pacer.acquire() || !acquire(inFlight, run)) {
+                    break;
+                }
+                if (hasUnrefundedPayment(order, run)) {
+                    inFlight.release();
+                    continue;
+                }
+                if (!redrive(failed, order, run, inFlight)) {
+                    inFlight.release();
+                }
+            }
+            run.draining();
+            if (!inFlight.tryAcquire(run.getConcurrency(), drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Re-drive finished with sagas still in flight after {}", drainTimeout);
+            }
+            run.finished(run.isCancelRequested() ? RedriveRun.Status.CANCELLED : RedriveRun.Status.COMPLETED);
+            logger.info("Re-drive finished: found {}, started {}, skipped {}, failed permanently {}, "
+                            + "still paid {}, succeeded {}, failed again {}",
+                    run.getFound(), run.getStarted(), run.getSkipped(), run.getPermanentlyFailed(),
+                    run.getStillPaid(), run.getSucceeded(), run.getFailedAgain());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.failed("Interrupted");
+        } catch (Exception e) {
+            logger.error("Re-drive failed: {}", e.getMessage(), e);
+            run.failed(e.getMessage());
+        }
+        return run;
+    }
+
+    static String query(Instant closedAfter, Instant closedBefore) {
+        return "WorkflowType = 'OrderWorkflow' AND ExecutionStatus = 'Failed'"
+                + " AND CloseTime >= '" + closedAfter + "' AND CloseTime < '" + closedBefore + "'";
+    }
+
+    /**
+     * Decodes the {@link OrderDTO} the failed execution was started with.
+     */
+    private OrderDTO originalInput(History history) {
+        Payloads input = history.getEvents(0).getWorkflowExecutionStartedEventAttributes().getInput();
+        return workflowClient.getOptions().getDataConverter()
+                .fromPayloads(0, Optional.of(input), OrderDTO.class, OrderDTO.class);
+    }
+
+    /**
+     * Returns whether the execution failed with a
+     * {@link PermanentFailureException} anywhere in its failure chain.
+     */
+    static boolean failedPermanently(History history) {
+        HistoryEvent closed = history.getEvents(history.getEventsCount() - 1);
+        if (!closed.hasWorkflowExecutionFailedEventAttributes()) {
+            return false;
+        }
+        for (Failure failure = closed.getWorkflowExecutionFailedEventAttributes().getFailure(); ;
+             failure = failure.getCause()) {
+            if (failure.hasApplicationFailureInfo()
+                    && PERMANENT_FAILURE.equals(failure.getApplicationFailureInfo().getType())) {
+                return true;
+            }
+            if (!failure.hasCause()) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the order still has a payment that was not refunded.
+     * When the payment service cannot tell, the order counts as a failed
+     * start, so an outage still slows the run down.
+     */
+    private boolean hasUnrefundedPayment(OrderDTO order, RedriveRun run) {
+        try {
+            List<PaymentRecord> payments = paymentClient.findByOrderId(order.getOrderId(), paymentCheckTimeout);
+            if (payments.stream().anyMatch(p -> !p.isRefunded())) {
+                logger.warn("Not re-driving order {}: it still has a payment that was not refunded",
+                        order.getOrderId());
+                run.getStillPaid().incrementAndGet();
+                return true;
+            }
+            return false;
+        } catch (Exception e) {
+            logger.warn("Not re-driving order {}: its payments could not be checked: {}",
+                    order.getOrderId(), e.getMessage());
+            run.getStartFailures().incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Waits for an in‑flight permit until the run is cancelled.
+     *
+     * @return {@code false} if the run was cancelled
+     */
+    private static boolean acquire(Semaphore inFlight, RedriveRun run) throws InterruptedException {
+        while (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+            if (run.isCancelRequested()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean shouldRedrive(OrderDTO order) {
+        Optional<Order> stored = orderRepository.findById(order.getOrderId());
+        if (stored.isEmpty()) {
+            return false;
+        }
+        OrderStatus status = stored.get().getStatus();
+        return status != OrderStatus.COMPENSATED && status != OrderStatus.COMPLETED;
+    }
+
+    /**
+     * Starts the saga again and releases the permit when it closes.
+     *
+     * @return {@code true} if a workflow was started
+     */
+    private boolean redrive(WorkflowExecutionMetadata failed, OrderDTO order, RedriveRun run, Semaphore inFlight) {
+        WorkflowOptions options = WorkflowOptions.newBuilder()
+                .setWorkflowId("redrive-" + failed.getExecution().getRunId())
+                .setTaskQueue(OrderPriority.orDefault(order.getPriority()).taskQueue(orderTaskQueue))
+                .setWorkflowIdReusePolicy(WorkflowIdReusePolicy.WORKFLOW_ID_REUSE_POLICY_REJECT_DUPLICATE)
+                .build();
+        OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, options);
+        try {
+            WorkflowClient.start(workflow::placeOrder, order);
+        } catch (WorkflowExecutionAlreadyStarted e) {
+            run.getAlreadyRedriven().incrementAndGet();
+            return false;
+        } catch (Exception e) {
+            logger.warn("Re-drive of order {} failed to start: {}", order.getOrderId(), e.getMessage());
+            run.getStartFailures().incrementAndGet();
+            return false;
+        }
+        run.getStarted().incrementAndGet();
+        WorkflowStub.fromTyped(workflow).getResultAsync(Void.class).whenComplete((result, error) -> {
+            if (error == null) {
+                run.getSucceeded().incrementAndGet();
+            } else {
+                run.getFailedAgain().incrementAndGet();
+            }
+            inFlight.release();
+        });
+        return true;
+    }
+
+    /**
+     * Paces starts and adjusts the start rate from the outcomes observed
+     * since the previous adjustment.
+     */
+    final class Pacer {
+        private final RedriveRun run;
+        private final TokenBucket bucket;
+        private long lastAdjustNanos = System.nanoTime();
+        private long lastErrors;
+        private long lastOutcomes;
+
+        Pacer(RedriveRun run) {
+            this.run = run;
+            // A burst of one keeps starts evenly spaced
+            this.bucket = new TokenBucket(run.getMaxRatePerSecond(), 1);
+        }
+
+        /**
+         * Waits for the next start until the run is cancelled.
+         *
+         * @return {@code false} if the run was cancelled
+         */
+        boolean acquire() throws InterruptedException {
+            while (!bucket.tryAcquire()) {
+                if (run.isCancelRequested()) {
+                    return false;
+                }
+                adjust();
+                Thread.sleep(Math.max(1L, (long) (1000 / Math.max(1.0, bucket.getRate() * 4))));
+            }
+            adjust();
+            return true;
+        }
+
+        void adjust() {
+            long now = System.nanoTime();
+            if (now - lastAdjustNanos < adjustInterval.toNanos()) {
+                return;
+            }
+            lastAdjustNanos = now;
+            long errors = run.getFailedAgain().get() + run.getStartFailures().get();
+            long outcomes = errors + run.getSucceeded().get();
+            long intervalErrors = errors - lastErrors;
+            long intervalOutcomes = outcomes - lastOutcomes;
+            lastErrors = errors;
+            lastOutcomes = outcomes;
+            if (intervalOutcomes == 0) {
+                return;
+            }
+            double errorRate = (double) intervalErrors / intervalOutcomes;
+            run.setRecentErrorRate(errorRate);
+            double current = bucket.getRate();
+            double next;
+            if (errorRate > maxErrorRate) {
+                next = Math.max(minRate, current / 2);
+                run.getBackoffs().incrementAndGet();
+                logger.warn("Re-drive error rate {} above {}, start rate cut from {} to {}/s",
+                        String.format("%.2f", errorRate), maxErrorRate,
+                        String.format("%.1f", current), String.format("%.1f", next));
+            } else {
+                next = Math.min(run.getMaxRatePerSecond(), current + run.getMaxRatePerSecond() * recoveryStep);
+            }
+            bucket.setRate(next);
+            run.setCurrentRatePerSecond(next);
+        }
+    }
+}
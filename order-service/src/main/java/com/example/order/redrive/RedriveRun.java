@@ -0,0 +1,89 @@
+package com.example.order.redrive;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a single re‑drive run.  Counters are updated concurrently by
+ * the job and by completion callbacks of re‑driven workflows, and can be
+ * read while the run is in progress.
+ */
+@Getter
+public class RedriveRun {
+
+    public enum Status { RUNNING, DRAINING, COMPLETED, CANCELLED, FAILED }
+
+    private final Instant startedAt = Instant.now();
+    private final Instant closedAfter;
+    private final Instant closedBefore;
+    private final double maxRatePerSecond;
+    private final int concurrency;
+    /** Failed executions found in the window. */
+    private final AtomicLong found = new AtomicLong();
+    /** Skipped because the order was compensated or has completed since. */
+    private final AtomicLong skipped = new AtomicLong();
+    /** Skipped because the saga failed permanently and would fail again. */
+    private final AtomicLong permanentlyFailed = new AtomicLong();
+    /** Skipped because the order still has a payment that was not refunded. */
+    private final AtomicLong stillPaid = new AtomicLong();
+    /** Skipped because the failed execution was already re‑driven. */
+    private final AtomicLong alreadyRedriven = new AtomicLong();
+    private final AtomicLong started = new AtomicLong();
+    /** Workflows that could not be started, or whose payments could not be checked. */
+    private final AtomicLong startFailures = new AtomicLong();
+    /** Re‑driven workflows that completed. */
+    private final AtomicLong succeeded = new AtomicLong();
+    /** Re‑driven workflows that failed again. */
+    private final AtomicLong failedAgain = new AtomicLong();
+    /** Number of times the rate was cut because of the error rate. */
+    private final AtomicLong backoffs = new AtomicLong();
+    private volatile double currentRatePerSecond;
+    private volatile double recentErrorRate;
+    private volatile Status status = Status.RUNNING;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    RedriveRun(Instant closedAfter, Instant closedBefore, double maxRatePerSecond, int concurrency) {
+        this.closedAfter = closedAfter;
+        this.closedBefore = closedBefore;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.concurrency = concurrency;
+        this.currentRatePerSecond = maxRatePerSecond;
+    }
+
+    /** Errors among finished re‑drives so far, including failed starts. */
+    public double getErrorRate() {
+        long errors = failedAgain.get() + startFailures.get();
+        long total = errors + succeeded.get();
+        return total == 0 ? 0.0 : (double) errors / total;
+    }
+
+    void setCurrentRatePerSecond(double rate) {
+        currentRatePerSecond = rate;
+    }
+
+    void setRecentErrorRate(double rate) {
+        recentErrorRate = rate;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void draining() {
+        status = Status.DRAINING;
+    }
+
+    void finished(Status finalStatus) {
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    void failed(String message) {
+        error = message;
+        finished(Status.FAILED);
+    }
+}
@@ -4,9 +4,22 @@ import com.example.order.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Optional;
+
 /**
  * Spring Data repository for {@link com.example.order.entity.Order} entities.
  */
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Returns the oldest order created after the given instant.
+     */
+    Optional<Order> findFirstByCreatedAtAfterOrderByIdAsc(Instant createdAfter);
+
+    /**
+     * Returns the most recent order created before the given instant.
+     */
+    Optional<Order> findFirstByCreatedAtBeforeOrderByIdDesc(Instant createdBefore);
 }
\ No newline at end of file
@@ -1,17 +1,39 @@
 package com.example.order.service;
 
 import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.dto.OrderStatus;
+import com.example.common.dto.PaymentOutcome;
+import com.example.common.jfr.OrderPlacementEvent;
+import com.example.common.tracing.Tracing;
 import com.example.common.workflows.OrderWorkflow;
+import com.example.order.admission.AdmissionControl;
 import com.example.order.entity.Order;
 import com.example.order.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.temporal.api.enums.v1.WorkflowIdConflictPolicy;
+import io.temporal.client.UpdateOptions;
+import io.temporal.client.WithStartWorkflowOperation;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowUpdateHandle;
+import io.temporal.client.WorkflowUpdateStage;
 import io.temporal.workflow.Workflow;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * OrderService encapsulates persistence of orders and submission of the
@@ -20,19 +42,35 @@ import java.time.Instant;
  * {@link WorkflowClient#newWorkflowStub(Class, WorkflowOptions)} to create
  * a stub for the {@link OrderWorkflow}.  It then starts the workflow
  * asynchronously via {@link io.temporal.client.WorkflowClient#start(Runnable, Object...)}.
+ * <p>
+ * In {@link PlacementMode#SYNC} the start is sent together with the
+ * workflow's {@code awaitPayment} update (update‑with‑start), so the caller
+ * learns whether the debit succeeded in one round trip.  Eager workflow
+ * dispatch is requested in both modes: this service hosts the order
+ * workflow worker on the same client, so the server can hand the first
+ * workflow task straight back in the start response instead of through the
+ * task queue.  The time spent in Temporal is recorded per mode in the
+ * {@code orders.placement.latency} timer, and every placement is timed
+ * with a Flight Recorder {@link OrderPlacementEvent}.
  */
 @Service
 @RequiredArgsConstructor
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
     private final OrderRepository orderRepository;
     private final WorkflowClient workflowClient;
+    private final AdmissionControl admissionControl;
+    private final Tracer tracer;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Name of the Temporal task queue on which the OrderWorkflow is
      * scheduled.  This allows workflow workers to be decoupled from
      * workflow clients.  See {@link com.example.order.worker.OrderWorkflowWorker}
-     * for the worker implementation.
+     * for the worker implementation.  Each {@link OrderPriority} lane uses
+     * its own variant of this queue.
      */
     @Value("${temporal.order.taskQueue:ORDER_TASK_QUEUE}")
     private String orderTaskQueue;
@@ -43,33 +81,121 @@ public class OrderService {
     @Value("${temporal.order.workflowIdPrefix:order}")
     private String workflowIdPrefix;
 
+    /**
+     * How long a synchronous placement waits for the payment outcome before
+     * it answers with the still pending order.
+     */
+    @Value("${order.placement.syncTimeout:PT5S}")
+    private Duration syncTimeout;
+
     /**
      * Creates and persists a new order, then starts the corresponding
      * workflow using Temporal.  The returned entity includes the generated
-     * primary key.
+     * primary key.  The call is traced; the workflow start span and every
+     * span of the saga become children of it.
      *
      * @param order the order to create
-     * @return the persisted order
+     * @param mode  whether to wait for the payment outcome
+     * @return the persisted order; in {@link PlacementMode#SYNC} its status
+     *         is {@code PAID} or {@code FAILED}, or still {@code PENDING} if
+     *         the outcome was not known within {@code order.placement.syncTimeout}
      */
-    public Order createOrder(Order order) {
-        Order saved = orderRepository.save(order);
+    public Order createOrder(Order order, PlacementMode mode) {
+        OrderPlacementEvent event = new OrderPlacementEvent(mode.name());
+        event.begin();
+        try {
+            Order placed = Tracing.inSpan(tracer, "OrderService.createOrder", SpanKind.SERVER,
+                    () -> placeOrder(order, mode));
+            event.setOutcome(placed.getStatus().name());
+            return placed;
+        } catch (RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                // Assigned by the save, or null when the order was never stored
+                event.setOrderId(order.getId());
+                event.commit();
+            }
+        }
+    }
+
+    private Order placeOrder(Order order, PlacementMode mode) {
+        order.setCreatedAt(Instant.now());
+        order.setPriority(OrderPriority.orDefault(order.getPriority()));
+        order.setStatus(OrderStatus.PENDING);
+        Order saved = Tracing.inSpan(tracer, "OrderRepository.save", SpanKind.CLIENT, () -> orderRepository.save(order));
         // Map the entity to a DTO; this is deliberately simple.
-        OrderDTO dto = new OrderDTO(saved.getId(), saved.getProductId(), saved.getPrice(), saved.getQuantity());
+        OrderDTO dto = new OrderDTO(saved.getId(), saved.getProductId(), saved.getPrice(), saved.getQuantity(),
+                saved.getPriority());
 
         // Generate a unique workflow ID by appending a timestamp to avoid conflicts
         String uniqueWorkflowId = workflowIdPrefix + "-" + saved.getId() + "-" + Instant.now().toEpochMilli();
         
-        // Build workflow options specifying a unique workflow ID and the task queue.
-        WorkflowOptions options = WorkflowOptions.newBuilder()
+        // Build workflow options specifying a unique workflow ID and the task
+        // queue of the order's priority lane.
+        WorkflowOptions.Builder options = WorkflowOptions.newBuilder()
                 .setWorkflowId(uniqueWorkflowId)
-                .setTaskQueue(orderTaskQueue)
-                .build();
+                .setTaskQueue(saved.getPriority().taskQueue(orderTaskQueue))
+                .setDisableEagerExecution(false);
+        if (mode == PlacementMode.SYNC) {
+            // Required by update-with-start; the id is unique so nothing is reused
+            options.setWorkflowIdConflictPolicy(WorkflowIdConflictPolicy.WORKFLOW_ID_CONFLICT_POLICY_USE_EXISTING);
+        }
 
         // Create a stub for the workflow and start it asynchronously.  Do not
         // call workflow methods directly on this stub outside of the Temporal
-        // client context.
-        OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, options);
-        WorkflowClient.start(workflow::placeOrder, dto);
+        // client context.  In-flight starts are tracked so that admission
+        // control can back off when the Temporal frontend slows down.
+        OrderWorkflow workflow = workflowClient.newWorkflowStub(OrderWorkflow.class, options.build());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        admissionControl.startBegan(saved.getPriority());
+        try {
+            if (mode == PlacementMode.SYNC) {
+                startAndAwaitPayment(workflow, dto).ifPresent(outcome -> {
+                    saved.setStatus(outcome.isPaid() ? OrderStatus.PAID : OrderStatus.FAILED);
+                    saved.setPaymentOutcome(outcome);
+                });
+            } else {
+                WorkflowClient.start(workflow::placeOrder, dto);
+            }
+        } finally {
+            admissionControl.startEnded(saved.getPriority());
+            sample.stop(Timer.builder("orders.placement.latency")
+                    .description("Time to start the order workflow, and in sync mode to learn the payment outcome")
+                    .tag("mode", mode.name().toLowerCase())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
         return saved;
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts the workflow and sends its {@code awaitPayment} update in a
+     * single request to the Temporal server, then waits for the update's
+     * result for at most {@code syncTimeout}.  The workflow keeps running
+     * when the wait times out.
+     *
+     * @return the outcome, or empty if it was not known in time
+     */
+    private Optional<PaymentOutcome> startAndAwaitPayment(OrderWorkflow workflow, OrderDTO dto) {
+        WithStartWorkflowOperation<Void> start = new WithStartWorkflowOperation<>(workflow::placeOrder, dto);
+        UpdateOptions<PaymentOutcome> updateOptions = UpdateOptions.<PaymentOutcome>newBuilder()
+                .setWaitForStage(WorkflowUpdateStage.ACCEPTED)
+                .build();
+        WorkflowUpdateHandle<PaymentOutcome> update =
+                WorkflowClient.startUpdateWithStart(workflow::awaitPayment, updateOptions, start);
+        try {
+            return Optional.of(update.getResultAsync()
+                    .orTimeout(syncTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                logger.warn("Payment outcome of order {} not known after {}, answering with the pending order",
+                        dto.getOrderId(), syncTimeout);
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.order.service;
+
+/**
+ * How {@link OrderService} hands a new order to its workflow.
+ */
+public enum PlacementMode {
+    /**
+     * Start the workflow and return at once; clients poll the order status
+     * to learn whether the payment went through.
+     */
+    ASYNC,
+    /**
+     * Start the workflow and wait for the debit in the same call, using
+     * update‑with‑start.
+     */
+    SYNC
+}
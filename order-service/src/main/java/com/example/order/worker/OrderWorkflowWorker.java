@@ -1,17 +1,27 @@
 package com.example.order.worker;
 
+import com.example.common.dto.OrderPriority;
+import com.example.order.activity.OrderStatusActivityImpl;
+import com.example.order.config.ActivityOptionsProperties;
 import com.example.order.workflow.OrderWorkflowImpl;
+import io.temporal.activity.LocalActivityOptions;
 import io.temporal.client.WorkflowClient;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.WorkflowImplementationOptions;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 
+import java.time.Duration;
+
 /**
  * OrderWorkflowWorker spins up a Temporal worker that polls the task queue
  * configured for order workflows and executes {@link OrderWorkflowImpl}
@@ -19,6 +29,16 @@ import jakarta.annotation.PostConstruct;
  * application context is initialised.  Because a Temporal worker runs
  * indefinitely polling for tasks, this component should be used in
  * conjunction with a REST controller which submits workflows to the queue.
+ * <p>
+ * Activity timeouts, retry policies and task queues are not hard‑coded in
+ * the workflow; they come from {@link ActivityOptionsProperties} and are
+ * supplied through {@link WorkflowImplementationOptions} at registration.
+ * <p>
+ * One worker is created per {@link OrderPriority} lane.  Each polls the
+ * lane's variant of the order task queue with its own workflow task
+ * concurrency ({@code temporal.lanes.<lane>.workflowTaskConcurrency}) and
+ * routes the workflow's Activities to the same lane, so bulk traffic cannot
+ * consume the capacity reserved for express orders.
  */
 @Component
 @RequiredArgsConstructor
@@ -27,23 +47,51 @@ public class OrderWorkflowWorker {
     private static final Logger logger = LoggerFactory.getLogger(OrderWorkflowWorker.class);
 
     private final WorkflowClient workflowClient;
+    private final WorkerFactoryOptions workerFactoryOptions;
+    private final ActivityOptionsProperties activityOptions;
+    private final Environment environment;
+    private final OrderStatusActivityImpl orderStatusActivity;
 
     @Value("${temporal.order.taskQueue:ORDER_TASK_QUEUE}")
     private String orderTaskQueue;
 
+    /** Overall time budget for a local order status update, including retries. */
+    @Value("${temporal.order.statusUpdateTimeout:PT1M}")
+    private Duration statusUpdateTimeout;
+
     @PostConstruct
     public void start() {
         // Create a factory for workers bound to this WorkflowClient.  Multiple
         // workers can be created from the same factory to listen on different
         // task queues.
-        WorkerFactory factory = WorkerFactory.newInstance(workflowClient);
-        Worker worker = factory.newWorker(orderTaskQueue);
-        // Register the workflow implementation type.  Temporal will create a
-        // new instance per workflow execution.
-        worker.registerWorkflowImplementationTypes(OrderWorkflowImpl.class);
+        WorkerFactory factory = WorkerFactory.newInstance(workflowClient, workerFactoryOptions);
+        for (OrderPriority lane : OrderPriority.values()) {
+            String taskQueue = lane.taskQueue(orderTaskQueue);
+            int concurrency = environment.getProperty(
+                    "temporal.lanes." + lane.key() + ".workflowTaskConcurrency", Integer.class, 200);
+            Worker worker = factory.newWorker(taskQueue, WorkerOptions.newBuilder()
+                    .setMaxConcurrentWorkflowTaskExecutionSize(concurrency)
+                    .build());
+            // Register the workflow implementation type.  Temporal will create a
+            // new instance per workflow execution.  Activity stubs created in the
+            // workflow pick up the default and per-type options given here.
+            WorkflowImplementationOptions implementationOptions = WorkflowImplementationOptions.newBuilder()
+                    .setDefaultActivityOptions(activityOptions.defaultActivityOptions(lane))
+                    .setActivityOptions(activityOptions.perTypeActivityOptions(lane))
+                    .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                            .setStartToCloseTimeout(Duration.ofSeconds(10))
+                            .setScheduleToCloseTimeout(statusUpdateTimeout)
+                            .build())
+                    .build();
+            worker.registerWorkflowImplementationTypes(implementationOptions, OrderWorkflowImpl.class);
+            // Local activities run on the workflow worker itself
+            worker.registerActivitiesImplementations(orderStatusActivity);
+            logger.info("Order workflow worker polling task queue {} with {} workflow task slots",
+                    taskQueue, concurrency);
+        }
         // Start polling for workflow tasks.  This call returns immediately
         // and runs in background threads.
         factory.start();
-        logger.info("Order workflow worker started and polling task queue: {}", orderTaskQueue);
+        logger.info("Order workflow worker started");
     }
 }
\ No newline at end of file
@@ -1,14 +1,21 @@
 package com.example.order.workflow;
 
+import com.example.common.activities.InventoryActivity;
+import com.example.common.activities.OrderStatusActivity;
 import com.example.common.activities.PaymentActivity;
 import com.example.common.activities.ShippingActivity;
 import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderStatus;
+import com.example.common.dto.PaymentOutcome;
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.jfr.SagaStepEvent;
 import com.example.common.workflows.OrderWorkflow;
-import io.temporal.activity.ActivityOptions;
-import io.temporal.common.RetryOptions;
+import io.temporal.failure.ActivityFailure;
+import io.temporal.failure.ApplicationFailure;
 import io.temporal.workflow.Workflow;
 import org.slf4j.Logger;
-import java.time.Duration;
+
+import java.util.function.Supplier;
 
 /**
  * Implementation of the {@link OrderWorkflow}.  Because workflows must be
@@ -16,70 +23,199 @@ import java.time.Duration;
  * Spring.  Instead, it creates Activity stubs using the Temporal API and
  * calls them as part of the workflow logic.  Any exceptions thrown from
  * Activities will cause the workflow to retry the Activity according to the
- * configured retry policy.
+ * configured retry policy.  Timeouts and retry policies are supplied per
+ * Activity type by {@link com.example.order.worker.OrderWorkflowWorker};
+ * failures of type {@link com.example.common.failures.PermanentFailureException}
+ * are never retried so the saga compensates immediately.
  * 
  * This implementation uses the Saga pattern to ensure data consistency across
- * distributed services. If any step fails after a successful payment, the
- * payment will be refunded as a compensating transaction.
+ * distributed services.  Stock is reserved through the {@link InventoryActivity}
+ * before the customer is charged, so an order that cannot be fulfilled fails
+ * without a debit.  If any later step fails, the reservation is released,
+ * and if the payment went through it is refunded as a compensating
+ * transaction.  The order's
+ * {@link OrderStatus} is recorded after every step through a local
+ * {@link OrderStatusActivity}.  Recording a status is best effort: a failed
+ * update is logged and neither skips a compensation nor replaces the
+ * failure the saga ends with.  Callers waiting for the debit are answered
+ * through the {@link #awaitPayment()} update as soon as the payment step
+ * has an outcome.
+ * <p>
+ * Each step and the compensation is timed with a Flight Recorder
+ * {@link SagaStepEvent}.  Events are committed only for steps that finish
+ * while the workflow runs live, so replaying the history does not record a
+ * step again.
  */
 public class OrderWorkflowImpl implements OrderWorkflow {
 
+    private final InventoryActivity inventoryActivity;
     private final PaymentActivity paymentActivity;
     private final ShippingActivity shippingActivity;
+    private final OrderStatusActivity orderStatusActivity;
     private final Logger logger = Workflow.getLogger(OrderWorkflowImpl.class);
+    private PaymentOutcome paymentOutcome;
 
     public OrderWorkflowImpl() {
-        // Configure Activity options such as timeouts and retry policies.  These
-        // settings control how Activities behave in the face of failures.
-        RetryOptions retryOptions = RetryOptions.newBuilder()
-                .setMaximumAttempts(3)
-                .setInitialInterval(Duration.ofSeconds(2))
-                .setBackoffCoefficient(2.0)
-                .build();
-
-        ActivityOptions options = ActivityOptions.newBuilder()
-                .setStartToCloseTimeout(Duration.ofMinutes(1))
-                .setRetryOptions(retryOptions)
-                .build();
-
         // Create stubs for the Activities.  When the workflow calls a method
         // on these stubs the corresponding Activity implementation will run in
-        // a separate worker (potentially in another microservice).
-        this.paymentActivity = Workflow.newActivityStub(PaymentActivity.class, options);
-        this.shippingActivity = Workflow.newActivityStub(ShippingActivity.class, options);
+        // a separate worker (potentially in another microservice).  Options
+        // such as timeouts, retry policies and task queues come from the
+        // WorkflowImplementationOptions the worker registered us with.
+        this.inventoryActivity = Workflow.newActivityStub(InventoryActivity.class);
+        this.paymentActivity = Workflow.newActivityStub(PaymentActivity.class);
+        this.shippingActivity = Workflow.newActivityStub(ShippingActivity.class);
+        // The order database lives next to this worker, so status updates run
+        // as local Activities without a round trip through a task queue.
+        this.orderStatusActivity = Workflow.newLocalActivityStub(OrderStatusActivity.class);
     }
 
     @Override
     public void placeOrder(OrderDTO order) {
         logger.info("=== SAGA START: Processing order {} with productId {} ===", order.getOrderId(), order.getProductId());
+        // Executions started before status tracking existed replay without it
+        boolean trackStatus = Workflow.getVersion("order-status-tracking", Workflow.DEFAULT_VERSION, 1) >= 1;
+        // Executions started before status updates were best effort replay without it
+        boolean bestEffortStatus = trackStatus
+                && Workflow.getVersion("best-effort-status", Workflow.DEFAULT_VERSION, 1) >= 1;
+        // Executions started before inventory reservation existed replay without it
+        boolean reserveStock = Workflow.getVersion("inventory-reservation", Workflow.DEFAULT_VERSION, 1) >= 1;
+        boolean reserved = false;
         Long paymentId = null;
+        boolean compensated = false;
         try {
-            // Step 1: Process payment
-            logger.info("SAGA Step 1: Processing payment for order {}", order.getOrderId());
-            paymentId = paymentActivity.debitPayment(order);
-            logger.info("SAGA Step 1 Complete: Payment processed successfully with ID: {}", paymentId);
-            
+            if (reserveStock) {
+                // Step 1: Reserve stock
+                logger.info("SAGA Step 1: Reserving stock for order {}", order.getOrderId());
+                try {
+                    step(order, "ReserveStock", false, () -> {
+                        inventoryActivity.reserveStock(order);
+                        return null;
+                    });
+                } catch (Exception e) {
+                    // A timed out reservation may still have been made
+                    boolean refused = PermanentFailureException.class.getName().equals(failureType(e));
+                    reserved = !refused;
+                    paymentOutcome = new PaymentOutcome(false, null, e.getMessage(), refused);
+                    throw e;
+                }
+                reserved = true;
+                logger.info("SAGA Step 1 Complete: Stock reserved for order {}", order.getOrderId());
+            }
+
+            // Step 2: Process payment
+            logger.info("SAGA Step 2: Processing payment for order {}", order.getOrderId());
+            try {
+                paymentId = step(order, "DebitPayment", false, () -> paymentActivity.debitPayment(order));
+            } catch (Exception e) {
+                paymentOutcome = new PaymentOutcome(false, null, e.getMessage());
+                throw e;
+            }
+            paymentOutcome = new PaymentOutcome(true, paymentId, null);
+            logger.info("SAGA Step 2 Complete: Payment processed successfully with ID: {}", paymentId);
+            updateStatus(trackStatus, bestEffortStatus, order, OrderStatus.PAID);
+
             try {
-                // Step 2: Ship the order
-                logger.info("SAGA Step 2: Shipping order {}", order.getOrderId());
-                shippingActivity.shipOrder(order);
-                logger.info("SAGA Step 2 Complete: Order {} shipped successfully", order.getOrderId());
+                // Step 3: Ship the order
+                logger.info("SAGA Step 3: Shipping order {}", order.getOrderId());
+                step(order, "ShipOrder", false, () -> {
+                    shippingActivity.shipOrder(order);
+                    return null;
+                });
+                logger.info("SAGA Step 3 Complete: Order {} shipped successfully", order.getOrderId());
             } catch (Exception e) {
                 // Compensating transaction: If shipping fails, refund the payment
-                logger.error("SAGA Compensation Triggered: Shipping failed for order {}. Error: {}", order.getOrderId(), e.getMessage());
+                logger.error("SAGA Compensation Triggered: Shipping failed for order {} ({}). Error: {}",
+                        order.getOrderId(), failureType(e), e.getMessage());
                 if (paymentId != null) {
                     logger.info("SAGA Compensation Action: Initiating refund for payment {}", paymentId);
-                    paymentActivity.refundPayment(paymentId);
+                    Long refunded = paymentId;
+                    step(order, "RefundPayment", true, () -> {
+                        paymentActivity.refundPayment(refunded);
+                        return null;
+                    });
                     logger.info("SAGA Compensation Complete: Payment {} refunded due to shipping failure", paymentId);
+                    compensated = true;
                 }
                 throw e; // Re-throw to mark workflow as failed
             }
         } catch (Exception e) {
             // Handle overall workflow failure
             logger.error("SAGA Failed: Order workflow failed for order {}. Error: {}", order.getOrderId(), e.getMessage());
+            if (reserved) {
+                logger.info("SAGA Compensation Action: Releasing stock reserved for order {}", order.getOrderId());
+                step(order, "ReleaseStock", true, () -> {
+                    inventoryActivity.releaseStock(order);
+                    return null;
+                });
+            }
+            updateStatus(trackStatus, bestEffortStatus, order,
+                    compensated ? OrderStatus.COMPENSATED : OrderStatus.FAILED);
             throw e;
         }
         
+        updateStatus(trackStatus, bestEffortStatus, order, OrderStatus.COMPLETED);
         logger.info("=== SAGA COMPLETE: Order {} processed successfully ===", order.getOrderId());
     }
+
+    @Override
+    public PaymentOutcome awaitPayment() {
+        Workflow.await(() -> paymentOutcome != null);
+        return paymentOutcome;
+    }
+
+    /**
+     * Runs one saga step inside a {@link SagaStepEvent}.  The event is not
+     * committed when the step completes during replay, nor when the
+     * workflow thread is torn down by the worker (an {@link Error}), since
+     * the step then finishes in a later replay of the same execution.
+     */
+    private <T> T step(OrderDTO order, String name, boolean compensation, Supplier<T> body) {
+        SagaStepEvent event = new SagaStepEvent(order.getOrderId(), Workflow.getInfo().getWorkflowId(),
+                name, compensation);
+        event.setStartedInReplay(Workflow.isReplaying());
+        event.begin();
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            event.setOutcome(failureType(e));
+            commitIfLive(event);
+            throw e;
+        }
+        event.succeeded();
+        commitIfLive(event);
+        return result;
+    }
+
+    private static void commitIfLive(SagaStepEvent event) {
+        if (!Workflow.isReplaying()) {
+            event.commit();
+        }
+    }
+
+    private void updateStatus(boolean trackStatus, boolean bestEffort, OrderDTO order, OrderStatus status) {
+        if (!trackStatus) {
+            return;
+        }
+        try {
+            orderStatusActivity.updateStatus(order.getOrderId(), status);
+        } catch (ActivityFailure e) {
+            if (!bestEffort) {
+                throw e;
+            }
+            logger.warn("Could not record status {} of order {}: {}", status, order.getOrderId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the application failure type behind an Activity failure, for
+     * logging.  Permanent failures show up as
+     * {@code com.example.common.failures.PermanentFailureException}.
+     */
+    private static String failureType(Exception e) {
+        if (e instanceof ActivityFailure && e.getCause() instanceof ApplicationFailure) {
+            return ((ApplicationFailure) e.getCause()).getType();
+        }
+        return e.getClass().getSimpleName();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.example.order.replay;
+
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.common.WorkflowExecutionHistory;
+
+import java.util.Set;
+
+/**
+ * Kinds of order saga histories kept in the replay corpus.  Each kind
+ * exercises different workflow code, so the corpus keeps a few of each.
+ */
+enum HistoryCategory {
+    /** The saga completed without a retried Activity. */
+    HAPPY_PATH("happy"),
+    /** At least one Activity needed more than one attempt. */
+    RETRIES("retries"),
+    /** A compensation (refund or stock release) was scheduled. */
+    COMPENSATION("compensation"),
+    /** The saga failed without compensating, for example on a declined payment. */
+    FAILED("failed");
+
+    private static final Set<String> COMPENSATIONS = Set.of("RefundPayment", "ReleaseStock");
+
+    private final String key;
+
+    HistoryCategory(String key) {
+        this.key = key;
+    }
+
+    /** Prefix of the corpus files holding histories of this kind. */
+    String key() {
+        return key;
+    }
+
+    /**
+     * Classifies a history.  Compensation wins over retries, which win over
+     * a plain failure.
+     */
+    static HistoryCategory of(WorkflowExecutionHistory history) {
+        boolean compensated = false;
+        boolean retried = false;
+        boolean failed = false;
+        for (HistoryEvent event : history.getEvents()) {
+            switch (event.getEventType()) {
+                case EVENT_TYPE_ACTIVITY_TASK_SCHEDULED -> compensated |= COMPENSATIONS.contains(
+                        event.getActivityTaskScheduledEventAttributes().getActivityType().getName());
+                case EVENT_TYPE_ACTIVITY_TASK_STARTED ->
+                        retried |= event.getActivityTaskStartedEventAttributes().getAttempt() > 1;
+                case EVENT_TYPE_WORKFLOW_EXECUTION_FAILED -> failed = true;
+                default -> {
+                }
+            }
+        }
+        if (compensated) {
+            return COMPENSATION;
+        }
+        if (retried) {
+            return RETRIES;
+        }
+        return failed ? FAILED : HAPPY_PATH;
+    }
+}
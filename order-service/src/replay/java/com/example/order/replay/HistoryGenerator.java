@@ -0,0 +1,140 @@
+package com.example.order.replay;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.activities.OrderStatusActivity;
+import com.example.common.activities.PaymentActivity;
+import com.example.common.activities.ShippingActivity;
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.failures.TransientFailureException;
+import com.example.common.workflows.OrderWorkflow;
+import com.example.order.workflow.OrderWorkflowImpl;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.common.WorkflowExecutionHistory;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Produces a replay corpus without a Temporal server.  Each
+ * {@link HistoryCategory} is played out once by {@link OrderWorkflowImpl} in
+ * an in‑process {@link TestWorkflowEnvironment}, against mocked Activities
+ * scripted to succeed, fail once, or fail for good.  The histories get
+ * fixed file names, {@code <category>-generated.json}, so regenerating the
+ * corpus after a deliberate workflow change replaces them and a baseline
+ * report keeps matching them.
+ */
+final class HistoryGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryGenerator.class);
+
+    private static final String TASK_QUEUE = "replay-generate";
+
+    private HistoryGenerator() {
+    }
+
+    static void generate(Path corpus) throws IOException {
+        Files.createDirectories(corpus);
+        generate(corpus, HistoryCategory.HAPPY_PATH, activities -> {
+        });
+        generate(corpus, HistoryCategory.RETRIES, activities -> when(activities.payment.debitPayment(any()))
+                .thenThrow(new TransientFailureException("Payment service unavailable"))
+                .thenReturn(42L));
+        generate(corpus, HistoryCategory.COMPENSATION, activities -> doThrow(
+                new PermanentFailureException("Address not deliverable")).when(activities.shipping).shipOrder(any()));
+        generate(corpus, HistoryCategory.FAILED, activities -> doThrow(
+                new PermanentFailureException("Insufficient stock")).when(activities.inventory).reserveStock(any()));
+    }
+
+    private static void generate(Path corpus, HistoryCategory category, Consumer<Activities> script)
+            throws IOException {
+        Activities activities = new Activities();
+        script.accept(activities);
+        TestWorkflowEnvironment environment = TestWorkflowEnvironment.newInstance();
+        try {
+            Worker worker = environment.newWorker(TASK_QUEUE);
+            worker.registerWorkflowImplementationTypes(options(), OrderWorkflowImpl.class);
+            worker.registerActivitiesImplementations(activities.inventory, activities.payment,
+                    activities.shipping, activities.status);
+            environment.start();
+
+            WorkflowClient client = environment.getWorkflowClient();
+            String workflowId = "order-" + category.key();
+            OrderWorkflow workflow = client.newWorkflowStub(OrderWorkflow.class, WorkflowOptions.newBuilder()
+                    .setWorkflowId(workflowId)
+                    .setTaskQueue(TASK_QUEUE)
+                    .build());
+            try {
+                workflow.placeOrder(new OrderDTO(1L, 7L, 9.99, 1, OrderPriority.EXPRESS));
+            } catch (RuntimeException e) {
+                // Failing is what the failure and compensation scripts are for
+            }
+            WorkflowExecutionHistory history = client.fetchHistory(workflowId);
+            HistoryCategory recorded = HistoryCategory.of(history);
+            if (recorded != category) {
+                throw new IllegalStateException("Script for " + category + " produced a " + recorded + " history");
+            }
+            Path file = corpus.resolve(category.key() + "-generated.json");
+            Files.writeString(file, history.toJson(true));
+            logger.info("Generated {} history with {} events into {}", category.key(),
+                    history.getEvents().size(), file);
+        } finally {
+            environment.close();
+        }
+    }
+
+    /**
+     * Activity options as configured for the order workers, with short
+     * backoffs; the test environment skips the waits anyway.
+     */
+    private static WorkflowImplementationOptions options() {
+        RetryOptions retries = RetryOptions.newBuilder()
+                .setInitialInterval(Duration.ofSeconds(1))
+                .setMaximumAttempts(3)
+                .setDoNotRetry(PermanentFailureException.class.getName())
+                .build();
+        return WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(retries)
+                        .build())
+                .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(retries)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Mocked Activities of one run; unless scripted otherwise they succeed.
+     */
+    private static final class Activities {
+        final InventoryActivity inventory = mock(InventoryActivity.class, withSettings().withoutAnnotations());
+        final PaymentActivity payment = mock(PaymentActivity.class, withSettings().withoutAnnotations());
+        final ShippingActivity shipping = mock(ShippingActivity.class, withSettings().withoutAnnotations());
+        final OrderStatusActivity status = mock(OrderStatusActivity.class, withSettings().withoutAnnotations());
+
+        Activities() {
+            when(payment.debitPayment(any())).thenReturn(42L);
+        }
+    }
+}
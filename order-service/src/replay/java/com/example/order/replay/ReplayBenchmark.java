@@ -0,0 +1,296 @@
+package com.example.order.replay;
+
+import com.example.order.workflow.OrderWorkflowImpl;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowExecutionMetadata;
+import io.temporal.common.WorkflowExecutionHistory;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.testing.WorkflowReplayer;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Replay regression benchmark for {@link OrderWorkflowImpl}.  In
+ * {@code generate} mode it plays out one saga per {@link HistoryCategory}
+ * in process (see {@link HistoryGenerator}) and writes the histories into a
+ * corpus of JSON files; in {@code record} mode it downloads closed order
+ * saga histories from a Temporal server, a few per category, instead.  In
+ * {@code replay} mode it replays every history in the corpus
+ * with {@link WorkflowReplayer} against the current workflow code, fails on
+ * the first replay error of each history (non‑determinism), and measures
+ * the replay time per history and per history event.
+ * <p>
+ * Measurements are written to a CSV report.  When a baseline report from a
+ * previous run is given, the run fails if the replay time per event over
+ * the whole corpus grew by more than {@code replay.tolerance}; histories
+ * that regressed individually are logged.  Run it through the
+ * {@code replay-benchmark} Maven profile of this module; all settings are
+ * system properties:
+ * <ul>
+ *   <li>{@code replay.mode}: {@code replay} (default), {@code generate} or
+ *       {@code record}</li>
+ *   <li>{@code replay.corpus}: directory of the history files</li>
+ *   <li>{@code replay.temporal.address}, {@code replay.temporal.namespace},
+ *       {@code replay.closedAfter}, {@code replay.perCategory}: where and
+ *       what to record</li>
+ *   <li>{@code replay.warmupIterations}, {@code replay.iterations}: replays
+ *       per history before and while measuring</li>
+ *   <li>{@code replay.report}, {@code replay.baseline},
+ *       {@code replay.tolerance}: report to write and baseline to compare
+ *       with</li>
+ * </ul>
+ */
+public final class ReplayBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayBenchmark.class);
+
+    private static final String CSV_HEADER = "history,category,events,medianMicros,p90Micros,nsPerEvent";
+
+    private ReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = System.getProperty("replay.mode", "replay");
+        Path corpus = Path.of(System.getProperty("replay.corpus", "src/replay/histories"));
+        switch (mode) {
+            case "generate" -> HistoryGenerator.generate(corpus);
+            case "record" -> record(corpus);
+            case "replay" -> replay(corpus);
+            default -> throw new IllegalArgumentException("Unknown replay.mode " + mode
+                    + ", expected generate, record or replay");
+        }
+    }
+
+    /**
+     * Downloads up to {@code replay.perCategory} histories of each category
+     * closed after {@code replay.closedAfter}.
+     */
+    static void record(Path corpus) throws IOException {
+        String address = System.getProperty("replay.temporal.address", "127.0.0.1:7233");
+        String namespace = System.getProperty("replay.temporal.namespace", "default");
+        String closedAfter = System.getProperty("replay.closedAfter", Instant.now().minus(Duration.ofDays(1)).toString());
+        int perCategory = Integer.getInteger("replay.perCategory", 5);
+
+        WorkflowServiceStubs stubs = WorkflowServiceStubs.newServiceStubs(
+                WorkflowServiceStubsOptions.newBuilder().setTarget(address).build());
+        try {
+            WorkflowClient client = WorkflowClient.newInstance(stubs,
+                    WorkflowClientOptions.newBuilder().setNamespace(namespace).build());
+            Files.createDirectories(corpus);
+            Map<HistoryCategory, Integer> recorded = new EnumMap<>(HistoryCategory.class);
+            String query = "WorkflowType = 'OrderWorkflow' AND ExecutionStatus != 'Running'"
+                    + " AND CloseTime >= '" + closedAfter + "'";
+            try (Stream<WorkflowExecutionMetadata> executions = client.listExecutions(query)) {
+                Iterator<WorkflowExecutionMetadata> it = executions.iterator();
+                while (it.hasNext() && !complete(recorded, perCategory)) {
+                    WorkflowExecutionMetadata execution = it.next();
+                    WorkflowExecutionHistory history = client.fetchHistory(
+                            execution.getExecution().getWorkflowId(), execution.getExecution().getRunId());
+                    HistoryCategory category = HistoryCategory.of(history);
+                    int count = recorded.getOrDefault(category, 0);
+                    if (count >= perCategory) {
+                        continue;
+                    }
+                    Path file = corpus.resolve(category.key() + "-" + execution.getExecution().getRunId() + ".json");
+                    Files.writeString(file, history.toJson(true));
+                    recorded.put(category, count + 1);
+                }
+            }
+            logger.info("Recorded histories into {}: {}", corpus, recorded);
+            for (HistoryCategory category : HistoryCategory.values()) {
+                if (!recorded.containsKey(category)) {
+                    logger.warn("No {} history found; the corpus does not cover that path", category.key());
+                }
+            }
+        } finally {
+            stubs.shutdown();
+        }
+    }
+
+    private static boolean complete(Map<HistoryCategory, Integer> recorded, int perCategory) {
+        return Arrays.stream(HistoryCategory.values()).allMatch(c -> recorded.getOrDefault(c, 0) >= perCategory);
+    }
+
+    /**
+     * Replays every history of the corpus, writes the report and compares
+     * it with the baseline.
+     */
+    static void replay(Path corpus) throws Exception {
+        List<Path> files = List.of();
+        if (Files.isDirectory(corpus)) {
+            try (Stream<Path> listing = Files.list(corpus)) {
+                files = listing.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No histories in " + corpus + "; generate some with -Dreplay.mode=generate");
+        }
+        int warmup = Integer.getInteger("replay.warmupIterations", 20);
+        int iterations = Math.max(1, Integer.getInteger("replay.iterations", 50));
+
+        List<Measurement> measurements = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        TestWorkflowEnvironment environment = TestWorkflowEnvironment.newInstance();
+        try {
+            Worker worker = environment.newWorker("replay-benchmark");
+            worker.registerWorkflowImplementationTypes(replayOptions(), OrderWorkflowImpl.class);
+            for (Path file : files) {
+                String name = file.getFileName().toString().replaceFirst("\\.json$", "");
+                WorkflowExecutionHistory history = WorkflowExecutionHistory.fromJson(Files.readString(file));
+                try {
+                    WorkflowReplayer.replayWorkflowExecution(history, worker);
+                } catch (Exception e) {
+                    logger.error("Replay of {} failed: {}", name, e.getMessage(), e);
+                    failures.add(name + ": " + e.getMessage());
+                    continue;
+                }
+                measurements.add(measure(name, history, worker, warmup, iterations));
+            }
+        } finally {
+            environment.close();
+        }
+
+        measurements.forEach(m -> logger.info("{} [{}]: {} events, median {} us, p90 {} us, {} ns/event",
+                m.history(), m.category(), m.events(), m.medianNanos() / 1_000, m.p90Nanos() / 1_000, m.nsPerEvent()));
+        long corpusNsPerEvent = nsPerEvent(measurements);
+        logger.info("Replayed {} histories, {} ns/event over the corpus", measurements.size(), corpusNsPerEvent);
+        writeReport(measurements);
+
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException(failures.size() + " histories failed to replay: " + failures);
+        }
+        compareWithBaseline(measurements, corpusNsPerEvent);
+    }
+
+    private static Measurement measure(String name, WorkflowExecutionHistory history, Worker worker,
+                                       int warmup, int iterations) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            WorkflowReplayer.replayWorkflowExecution(history, worker);
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            WorkflowReplayer.replayWorkflowExecution(history, worker);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        String category = name.contains("-") ? name.substring(0, name.indexOf('-')) : "";
+        return new Measurement(name, category, history.getEvents().size(),
+                samples[iterations / 2], samples[(int) Math.min(iterations - 1, iterations * 0.9)]);
+    }
+
+    /**
+     * Options the workflow's Activity stubs need to produce their commands.
+     * Timeouts and task queues are not part of the determinism check.
+     */
+    private static WorkflowImplementationOptions replayOptions() {
+        return WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofMinutes(1))
+                        .build())
+                .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .build())
+                .build();
+    }
+
+    private static void writeReport(List<Measurement> measurements) throws IOException {
+        Path report = Path.of(System.getProperty("replay.report", "target/replay-report.csv"));
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (Measurement m : measurements) {
+            lines.add(String.join(",", m.history(), m.category(), String.valueOf(m.events()),
+                    String.valueOf(m.medianNanos() / 1_000), String.valueOf(m.p90Nanos() / 1_000),
+                    String.valueOf(m.nsPerEvent())));
+        }
+        Files.write(report, lines);
+        logger.info("Replay report written to {}", report);
+    }
+
+    /**
+     * Fails if the corpus replays slower per event than the baseline by
+     * more than the tolerance.  Only histories present in both runs count.
+     */
+    private static void compareWithBaseline(List<Measurement> measurements, long corpusNsPerEvent) throws IOException {
+        String baselineFile = System.getProperty("replay.baseline");
+        if (baselineFile == null || baselineFile.isBlank()) {
+            return;
+        }
+        double tolerance = Double.parseDouble(System.getProperty("replay.tolerance", "0.25"));
+        Map<String, String[]> baseline = new HashMap<>();
+        for (String line : Files.readAllLines(Path.of(baselineFile))) {
+            if (!line.isBlank() && !line.equals(CSV_HEADER)) {
+                String[] columns = line.split(",");
+                baseline.put(columns[0], columns);
+            }
+        }
+        long baselineNanos = 0;
+        long currentNanos = 0;
+        long events = 0;
+        for (Measurement m : measurements) {
+            String[] before = baseline.get(m.history());
+            if (before == null) {
+                continue;
+            }
+            long beforeMedianNanos = Long.parseLong(before[3]) * 1_000;
+            baselineNanos += beforeMedianNanos;
+            currentNanos += m.medianNanos();
+            events += m.events();
+            if (m.medianNanos() > beforeMedianNanos * (1 + tolerance)) {
+                logger.warn("{} replays in {} us, baseline {} us", m.history(),
+                        m.medianNanos() / 1_000, beforeMedianNanos / 1_000);
+            }
+        }
+        if (events == 0) {
+            logger.warn("No history of the corpus is in the baseline {}", baselineFile);
+            return;
+        }
+        long before = baselineNanos / events;
+        long now = currentNanos / events;
+        logger.info("Replay cost {} ns/event, baseline {} ns/event (corpus: {} ns/event)", now, before, corpusNsPerEvent);
+        if (now > before * (1 + tolerance)) {
+            throw new IllegalStateException("Replay cost regressed from " + before + " to " + now
+                    + " ns/event, more than the tolerance of " + (int) (tolerance * 100) + "%");
+        }
+    }
+
+    private static long nsPerEvent(List<Measurement> measurements) {
+        long nanos = measurements.stream().mapToLong(Measurement::medianNanos).sum();
+        long events = measurements.stream().mapToLong(Measurement::events).sum();
+        return events == 0 ? 0 : nanos / events;
+    }
+
+    /**
+     * Replay timings of one history.
+     */
+    record Measurement(String history, String category, int events, long medianNanos, long p90Nanos) {
+
+        long nsPerEvent() {
+            return medianNanos / Math.max(1, events);
+        }
+    }
+}
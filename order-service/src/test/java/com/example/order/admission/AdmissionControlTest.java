@@ -0,0 +1,142 @@
+package com.example.order.admission;
+
+import com.example.common.dto.OrderPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.api.taskqueue.v1.TaskQueueStatus;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueRequest;
+import io.temporal.api.workflowservice.v1.DescribeTaskQueueResponse;
+import io.temporal.api.workflowservice.v1.WorkflowServiceGrpc;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.serviceclient.WorkflowServiceStubs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlTest {
+
+    private final Map<String, Long> backlogs = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile boolean serverDown;
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    void setUp() {
+        WorkflowServiceGrpc.WorkflowServiceBlockingStub stub = mock(WorkflowServiceGrpc.WorkflowServiceBlockingStub.class);
+        when(stub.describeTaskQueue(any())).thenAnswer(invocation -> {
+            if (serverDown) {
+                throw new IllegalStateException("unavailable");
+            }
+            DescribeTaskQueueRequest request = invocation.getArgument(0);
+            long backlog = backlogs.getOrDefault(request.getTaskQueue().getName(), 0L);
+            return DescribeTaskQueueResponse.newBuilder()
+                    .setTaskQueueStatus(TaskQueueStatus.newBuilder().setBacklogCountHint(backlog))
+                    .build();
+        });
+        WorkflowServiceStubs service = mock(WorkflowServiceStubs.class);
+        when(service.blockingStub()).thenReturn(stub);
+        WorkflowClient workflowClient = mock(WorkflowClient.class);
+        when(workflowClient.getOptions()).thenReturn(WorkflowClientOptions.newBuilder().setNamespace("default").build());
+        when(workflowClient.getWorkflowServiceStubs()).thenReturn(service);
+
+        admissionControl = new AdmissionControl(workflowClient, meterRegistry,
+                new MockEnvironment().withProperty("order.admission.bulk.maxRatePerSecond", "50"));
+        ReflectionTestUtils.setField(admissionControl, "enabled", true);
+        ReflectionTestUtils.setField(admissionControl, "maxRatePerSecond", 100.0);
+        ReflectionTestUtils.setField(admissionControl, "minRatePerSecond", 5.0);
+        ReflectionTestUtils.setField(admissionControl, "burst", 3.0);
+        ReflectionTestUtils.setField(admissionControl, "targetBacklog", 500L);
+        ReflectionTestUtils.setField(admissionControl, "targetPendingStarts", 10);
+        ReflectionTestUtils.setField(admissionControl, "recoveryStep", 0.1);
+        ReflectionTestUtils.setField(admissionControl, "orderTaskQueue", "ORDER_TASK_QUEUE");
+        ReflectionTestUtils.setField(admissionControl, "paymentTaskQueue", "PAYMENT_ACTIVITY_TASK_QUEUE");
+        ReflectionTestUtils.setField(admissionControl, "shippingTaskQueue", "SHIPPING_ACTIVITY_TASK_QUEUE");
+        ReflectionTestUtils.setField(admissionControl, "inventoryTaskQueue", "INVENTORY_ACTIVITY_TASK_QUEUE");
+        admissionControl.init();
+    }
+
+    @Test
+    void burstIsAdmittedAndTheRestIsShed() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(admissionControl.tryAdmit(OrderPriority.EXPRESS)).isTrue();
+        }
+        assertThat(admissionControl.tryAdmit(null)).isFalse();
+        // The bulk lane has its own bucket
+        assertThat(admissionControl.tryAdmit(OrderPriority.BULK)).isTrue();
+        assertThat(meterRegistry.get("orders.admission.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void disabledAdmissionAdmitsEverything() {
+        ReflectionTestUtils.setField(admissionControl, "enabled", false);
+        for (int i = 0; i < 10; i++) {
+            assertThat(admissionControl.tryAdmit(OrderPriority.EXPRESS)).isTrue();
+        }
+    }
+
+    @Test
+    void backlogShrinksOnlyItsOwnLaneAndRecoversGradually() {
+        backlogs.put("PAYMENT_ACTIVITY_TASK_QUEUE_BULK", 2_000L);
+
+        admissionControl.sample();
+
+        assertThat(rate(OrderPriority.BULK)).isEqualTo(12.5);
+        assertThat(rate(OrderPriority.EXPRESS)).isEqualTo(100.0);
+        assertThat(admissionControl.retryAfterSeconds(OrderPriority.BULK)).isEqualTo(1L);
+
+        backlogs.clear();
+        admissionControl.sample();
+        assertThat(rate(OrderPriority.BULK)).isEqualTo(17.5);
+    }
+
+    @Test
+    void rateNeverDropsBelowTheFloor() {
+        backlogs.put("ORDER_TASK_QUEUE", 1_000_000L);
+
+        admissionControl.sample();
+
+        assertThat(rate(OrderPriority.EXPRESS)).isEqualTo(5.0);
+    }
+
+    @Test
+    void pendingStartsTightenAdmission() {
+        for (int i = 0; i < 40; i++) {
+            admissionControl.startBegan(OrderPriority.EXPRESS);
+        }
+        admissionControl.sample();
+        assertThat(rate(OrderPriority.EXPRESS)).isEqualTo(25.0);
+
+        for (int i = 0; i < 40; i++) {
+            admissionControl.startEnded(OrderPriority.EXPRESS);
+        }
+        admissionControl.sample();
+        assertThat(rate(OrderPriority.EXPRESS)).isEqualTo(35.0);
+    }
+
+    @Test
+    void unreachableServerKeepsThePreviousSamples() {
+        backlogs.put("SHIPPING_ACTIVITY_TASK_QUEUE", 1_000L);
+        admissionControl.sample();
+        assertThat(rate(OrderPriority.EXPRESS)).isEqualTo(50.0);
+
+        serverDown = true;
+        admissionControl.sample();
+
+        assertThat(rate(OrderPriority.EXPRESS)).isEqualTo(50.0);
+        assertThat(meterRegistry.get("orders.admission.backlog").tag("taskQueue", "SHIPPING_ACTIVITY_TASK_QUEUE")
+                .gauge().value()).isEqualTo(1_000.0);
+    }
+
+    private double rate(OrderPriority priority) {
+        return meterRegistry.get("orders.admission.rate").tag("priority", priority.key()).gauge().value();
+    }
+}
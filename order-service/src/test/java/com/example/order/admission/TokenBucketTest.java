@@ -0,0 +1,31 @@
+package com.example.order.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    @Test
+    void fullBucketAdmitsItsCapacityThenRefillsAtTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100.0, 2.0);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        Thread.sleep(30);
+        assertThat(bucket.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void rateChangeKeepsTheTokensAccumulatedSoFar() {
+        TokenBucket bucket = new TokenBucket(0.001, 1.0);
+
+        bucket.setRate(0.002);
+
+        assertThat(bucket.getRate()).isEqualTo(0.002);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.order.config;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.activities.OrderStatusActivity;
+import com.example.common.activities.PaymentActivity;
+import com.example.common.activities.ShippingActivity;
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.failures.TransientFailureException;
+import com.example.common.workflows.OrderWorkflow;
+import com.example.order.workflow.OrderWorkflowImpl;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.client.WorkflowFailedException;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ActivityOptionsPropertiesTest {
+
+    private static final String TASK_QUEUE = "activity-options-test";
+
+    @Test
+    void typeEntriesAreLayeredOnTheDefaults() {
+        ActivityOptionsProperties properties = bind(Map.of(
+                "temporal.order.activities.defaults.start-to-close-timeout", "1m",
+                "temporal.order.activities.defaults.maximum-attempts", "3",
+                "temporal.order.activities.defaults.non-retryable-error-types[0]", "java.lang.IllegalArgumentException",
+                "temporal.order.activities.types[RefundPayment].task-queue", "PAYMENT_ACTIVITY_TASK_QUEUE",
+                "temporal.order.activities.types[RefundPayment].maximum-attempts", "10",
+                "temporal.order.activities.types[RefundPayment].maximum-interval", "1m",
+                "temporal.order.activities.types[RefundPayment].non-retryable-error-types[0]", "java.lang.ArithmeticException"));
+
+        ActivityOptions refund = properties.perTypeActivityOptions(OrderPriority.EXPRESS).get("RefundPayment");
+
+        assertThat(refund.getTaskQueue()).isEqualTo("PAYMENT_ACTIVITY_TASK_QUEUE");
+        assertThat(refund.getStartToCloseTimeout()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(refund.getRetryOptions().getMaximumAttempts()).isEqualTo(10);
+        assertThat(refund.getRetryOptions().getMaximumInterval()).isEqualTo(Duration.ofMinutes(1));
+        assertThat(refund.getRetryOptions().getDoNotRetry()).containsExactly(
+                "java.lang.IllegalArgumentException", "java.lang.ArithmeticException",
+                PermanentFailureException.class.getName());
+
+        ActivityOptions defaults = properties.defaultActivityOptions(OrderPriority.EXPRESS);
+        assertThat(defaults.getTaskQueue()).isNull();
+        assertThat(defaults.getRetryOptions().getMaximumAttempts()).isEqualTo(3);
+        assertThat(defaults.getRetryOptions().getDoNotRetry()).containsExactly(
+                "java.lang.IllegalArgumentException", PermanentFailureException.class.getName());
+    }
+
+    @Test
+    void taskQueuesFollowTheWorkflowsLane() {
+        ActivityOptionsProperties properties = bind(Map.of(
+                "temporal.order.activities.types[ShipOrder].task-queue", "SHIPPING_ACTIVITY_TASK_QUEUE"));
+
+        assertThat(properties.perTypeActivityOptions(OrderPriority.BULK).get("ShipOrder").getTaskQueue())
+                .isEqualTo("SHIPPING_ACTIVITY_TASK_QUEUE_BULK");
+    }
+
+    @Test
+    void permanentFailuresAreNotRetriedAndTransientOnesAre() {
+        ActivityOptionsProperties properties = bind(Map.of(
+                "temporal.order.activities.defaults.start-to-close-timeout", "10s",
+                "temporal.order.activities.defaults.maximum-attempts", "5",
+                "temporal.order.activities.defaults.initial-interval", "10ms"));
+        InventoryActivity inventory = mock(InventoryActivity.class, withSettings().withoutAnnotations());
+        PaymentActivity payment = mock(PaymentActivity.class, withSettings().withoutAnnotations());
+        ShippingActivity shipping = mock(ShippingActivity.class, withSettings().withoutAnnotations());
+        OrderStatusActivity status = mock(OrderStatusActivity.class, withSettings().withoutAnnotations());
+        when(payment.debitPayment(any()))
+                .thenThrow(new TransientFailureException("provider timeout"))
+                .thenThrow(new TransientFailureException("provider timeout"))
+                .thenThrow(new PermanentFailureException("card declined"));
+
+        try (TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance()) {
+            Worker worker = testEnv.newWorker(TASK_QUEUE);
+            worker.registerWorkflowImplementationTypes(WorkflowImplementationOptions.newBuilder()
+                    .setDefaultActivityOptions(properties.defaultActivityOptions(OrderPriority.EXPRESS))
+                    .setActivityOptions(properties.perTypeActivityOptions(OrderPriority.EXPRESS))
+                    .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                            .setStartToCloseTimeout(Duration.ofSeconds(10))
+                            .build())
+                    .build(), OrderWorkflowImpl.class);
+            worker.registerActivitiesImplementations(inventory, payment, shipping, status);
+            testEnv.start();
+            OrderWorkflow workflow = testEnv.getWorkflowClient().newWorkflowStub(OrderWorkflow.class,
+                    WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).build());
+
+            assertThatThrownBy(() -> workflow.placeOrder(new OrderDTO(1L, 123L, 10.0, 1, OrderPriority.EXPRESS)))
+                    .isInstanceOf(WorkflowFailedException.class);
+        }
+
+        verify(payment, times(3)).debitPayment(any());
+        verify(inventory).releaseStock(any());
+    }
+
+    private static ActivityOptionsProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+                .bindOrCreate("temporal.order.activities", ActivityOptionsProperties.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.order.controller;
+
+import com.example.common.dto.OrderStatus;
+import com.example.common.dto.PaymentOutcome;
+import com.example.order.admission.AdmissionControl;
+import com.example.order.details.OrderDetailsService;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import com.example.order.service.OrderService;
+import com.example.order.service.PlacementMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderControllerTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final AdmissionControl admissionControl = mock(AdmissionControl.class);
+    private final OrderController controller = new OrderController(orderService, mock(OrderRepository.class),
+            admissionControl, mock(OrderDetailsService.class));
+
+    @BeforeEach
+    void setUp() {
+        when(admissionControl.tryAdmit(any())).thenReturn(true);
+    }
+
+    @Test
+    void paidOrderIsAnsweredWith200() {
+        placing(OrderStatus.PAID, new PaymentOutcome(true, 42L, null), PlacementMode.SYNC);
+
+        assertThat(controller.createOrder(new Order(), PlacementMode.SYNC).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void pendingSyncOrderIsAnsweredWith202() {
+        placing(OrderStatus.PENDING, null, PlacementMode.SYNC);
+
+        assertThat(controller.createOrder(new Order(), PlacementMode.SYNC).getStatusCode())
+                .isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    @Test
+    void pendingAsyncOrderIsAnsweredWith200() {
+        placing(OrderStatus.PENDING, null, PlacementMode.ASYNC);
+
+        assertThat(controller.createOrder(new Order(), PlacementMode.ASYNC).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void declinedDebitIsAnsweredWith402() {
+        placing(OrderStatus.FAILED, new PaymentOutcome(false, null, "card declined"), PlacementMode.SYNC);
+
+        ResponseEntity<?> response = controller.createOrder(new Order(), PlacementMode.SYNC);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PAYMENT_REQUIRED);
+        assertThat(((Order) response.getBody()).getPaymentOutcome().getFailure()).isEqualTo("card declined");
+    }
+
+    @Test
+    void missingStockIsAnsweredWith409() {
+        placing(OrderStatus.FAILED, new PaymentOutcome(false, null, "out of stock", true), PlacementMode.SYNC);
+
+        assertThat(controller.createOrder(new Order(), PlacementMode.SYNC).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void shedOrderIsAnsweredWith429AndNotPlaced() {
+        when(admissionControl.tryAdmit(any())).thenReturn(false);
+        when(admissionControl.retryAfterSeconds(any())).thenReturn(3L);
+
+        ResponseEntity<?> response = controller.createOrder(new Order(), PlacementMode.SYNC);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        verify(orderService, never()).createOrder(any(), any());
+    }
+
+    private void placing(OrderStatus status, PaymentOutcome outcome, PlacementMode mode) {
+        when(orderService.createOrder(any(), eq(mode))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            order.setStatus(status);
+            order.setPaymentOutcome(outcome);
+            return order;
+        });
+    }
+}
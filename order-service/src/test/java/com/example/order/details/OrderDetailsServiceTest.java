@@ -0,0 +1,135 @@
+package com.example.order.details;
+
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShipmentRecord;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderDetailsServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final PaymentServiceClient paymentClient = mock(PaymentServiceClient.class);
+    private final ShippingServiceClient shippingClient = mock(ShippingServiceClient.class);
+    private OrderDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderDetailsService(orderRepository, paymentClient, shippingClient);
+        ReflectionTestUtils.setField(service, "timeoutMs", 300L);
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(service, "cacheMaxEntries", 2);
+        service.init();
+        when(orderRepository.findById(anyLong())).thenAnswer(i -> Optional.of(order(i.getArgument(0))));
+        when(paymentClient.findByOrderId(anyLong(), any())).thenReturn(List.of(new PaymentRecord()));
+        when(shippingClient.findByOrderId(anyLong(), any())).thenReturn(List.of(new ShipmentRecord()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void paymentAndShippingAreFetchedInParallel() {
+        // Each call only returns once the other one has started
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(paymentClient.findByOrderId(anyLong(), any())).thenAnswer(i -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            return List.of(new PaymentRecord());
+        });
+        when(shippingClient.findByOrderId(anyLong(), any())).thenAnswer(i -> {
+            bothStarted.countDown();
+            bothStarted.await(1, TimeUnit.SECONDS);
+            return List.of(new ShipmentRecord());
+        });
+
+        OrderDetails details = service.getDetails(1L).orElseThrow();
+
+        assertThat(details.isPartial()).isFalse();
+        assertThat(details.getPayments()).hasSize(1);
+        assertThat(details.getShipments()).hasSize(1);
+    }
+
+    @Test
+    void slowServiceIsLeftOutAtTheDeadline() {
+        when(shippingClient.findByOrderId(anyLong(), any())).thenAnswer(i -> {
+            Thread.sleep(5_000);
+            return List.of(new ShipmentRecord());
+        });
+
+        long start = System.nanoTime();
+        OrderDetails details = service.getDetails(1L).orElseThrow();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+        assertThat(details.isPartial()).isTrue();
+        assertThat(details.getUnavailable()).containsExactly("shipping-service");
+        assertThat(details.getShipments()).isNull();
+        assertThat(details.getPayments()).hasSize(1);
+    }
+
+    @Test
+    void failedServiceMakesThePartialViewWhichIsNotCached() {
+        when(paymentClient.findByOrderId(anyLong(), any())).thenThrow(new IllegalStateException("down"));
+
+        assertThat(service.getDetails(1L).orElseThrow().getUnavailable()).containsExactly("payment-service");
+        service.getDetails(1L);
+
+        verify(shippingClient, times(2)).findByOrderId(eq(1L), any());
+    }
+
+    @Test
+    void completeViewIsCachedUntilInvalidated() {
+        service.getDetails(1L);
+        service.getDetails(1L);
+        verify(paymentClient, times(1)).findByOrderId(eq(1L), any());
+
+        service.invalidate(1L);
+        service.getDetails(1L);
+        verify(paymentClient, times(2)).findByOrderId(eq(1L), any());
+    }
+
+    @Test
+    void fullCacheKeepsCachingNewViews() {
+        service.getDetails(1L);
+        service.getDetails(2L);
+        service.getDetails(3L);
+
+        service.getDetails(3L);
+
+        verify(paymentClient, times(1)).findByOrderId(eq(3L), any());
+    }
+
+    @Test
+    void unknownOrderHasNoDetails() {
+        when(orderRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThat(service.getDetails(9L)).isEmpty();
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.order.reconciliation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetCursorTest {
+
+    /** Rows as (orderId, id) pairs, ordered like the paginated endpoints. */
+    private static final List<long[]> ROWS = List.of(
+            new long[]{1, 10}, new long[]{2, 11}, new long[]{2, 12}, new long[]{2, 13}, new long[]{5, 14});
+
+    @Test
+    void walksAllRowsAfterThePositionAcrossPages() {
+        List<long[]> fetches = new ArrayList<>();
+        KeysetCursor<long[]> cursor = new KeysetCursor<>((afterOrderId, afterId, limit) -> {
+            fetches.add(new long[]{afterOrderId, afterId});
+            return page(afterOrderId, afterId, limit);
+        }, row -> row[0], row -> row[1], 1, 2);
+
+        List<Long> ids = new ArrayList<>();
+        while (cursor.hasNext()) {
+            ids.add(cursor.next()[1]);
+        }
+
+        assertThat(ids).containsExactly(11L, 12L, 13L, 14L);
+        assertThat(cursor.rowsRead()).isEqualTo(4);
+        // A page splitting order 2 resumes after the last row read, not the last order
+        assertThat(fetches).extracting(f -> f[0] + "/" + f[1])
+                .containsExactly("1/" + Long.MAX_VALUE, "2/12", "5/14");
+    }
+
+    @Test
+    void shortPageEndsTheStreamWithoutAnotherFetch() {
+        List<long[]> fetches = new ArrayList<>();
+        KeysetCursor<long[]> cursor = new KeysetCursor<>((afterOrderId, afterId, limit) -> {
+            fetches.add(new long[]{afterOrderId, afterId});
+            return page(afterOrderId, afterId, limit);
+        }, row -> row[0], row -> row[1], 0, 10);
+
+        assertThat(cursor.peek()[1]).isEqualTo(10L);
+        assertThat(cursor.peek()[1]).isEqualTo(10L);
+        while (cursor.hasNext()) {
+            cursor.next();
+        }
+
+        assertThat(cursor.hasNext()).isFalse();
+        assertThat(fetches).hasSize(1);
+    }
+
+    private static List<long[]> page(long afterOrderId, long afterId, int limit) {
+        return ROWS.stream()
+                .filter(r -> r[0] > afterOrderId || (r[0] == afterOrderId && r[1] > afterId))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.order.reconciliation;
+
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.client.ShipmentRecord;
+import com.example.order.client.ShippingServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReconciliationJobTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final PaymentServiceClient paymentClient = mock(PaymentServiceClient.class);
+    private final ShippingServiceClient shippingClient = mock(ShippingServiceClient.class);
+    private final List<PaymentRecord> payments = new ArrayList<>();
+    private final List<ShipmentRecord> shipments = new ArrayList<>();
+
+    @TempDir
+    private Path reportDir;
+
+    private ReconciliationJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReconciliationJob(orderRepository, paymentClient, shippingClient);
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+        ReflectionTestUtils.setField(job, "partitionsPerThread", 2);
+        ReflectionTestUtils.setField(job, "pageSize", 2);
+        ReflectionTestUtils.setField(job, "gracePeriod", Duration.ofHours(1));
+        ReflectionTestUtils.setField(job, "lookback", Duration.ofDays(7));
+        ReflectionTestUtils.setField(job, "reportDir", reportDir.toString());
+        when(orderRepository.findFirstByCreatedAtAfterOrderByIdAsc(any())).thenReturn(Optional.of(order(1L)));
+        when(orderRepository.findFirstByCreatedAtBeforeOrderByIdDesc(any())).thenReturn(Optional.of(order(8L)));
+        when(paymentClient.findPageByOrderId(anyLong(), anyLong(), anyLong(), anyInt())).thenAnswer(i ->
+                page(payments, PaymentRecord::getOrderId, PaymentRecord::getId,
+                        i.getArgument(0), i.getArgument(1), i.getArgument(2), i.getArgument(3)));
+        when(shippingClient.findPageByOrderId(anyLong(), anyLong(), anyLong(), anyInt())).thenAnswer(i ->
+                page(shipments, ShipmentRecord::getOrderId, ShipmentRecord::getId,
+                        i.getArgument(0), i.getArgument(1), i.getArgument(2), i.getArgument(3)));
+    }
+
+    @Test
+    void partitionsCoverTheRangeWithoutOverlap() {
+        assertThat(ReconciliationJob.partition(0, 10, 3)).extracting(r -> r[0] + "-" + r[1])
+                .containsExactly("0-4", "4-8", "8-10");
+        assertThat(ReconciliationJob.partition(5, 7, 4)).extracting(r -> r[0] + "-" + r[1])
+                .containsExactly("5-6", "6-7");
+        assertThat(ReconciliationJob.partition(7, 7, 4)).isEmpty();
+    }
+
+    @Test
+    void compareClassifiesEachKindOfMismatch() {
+        ShipmentRecord shipped = shipment(1L, 1L);
+
+        assertThat(ReconciliationJob.compare(1L, List.of(payment(1L, 1L, "a", false)), List.of(shipped))).isNull();
+        assertThat(ReconciliationJob.compare(1L, List.of(payment(1L, 1L, "a", true)), List.of())).isNull();
+        assertThat(ReconciliationJob.compare(1L, List.of(payment(1L, 1L, "a", false)), List.of()))
+                .satisfies(d -> {
+                    assertThat(d.getType()).isEqualTo(Discrepancy.Type.PAYMENT_WITHOUT_SHIPMENT);
+                    assertThat(d.getRefundCandidates()).containsExactly(1L);
+                });
+        assertThat(ReconciliationJob.compare(1L, List.of(), List.of(shipped)).getType())
+                .isEqualTo(Discrepancy.Type.SHIPMENT_WITHOUT_PAYMENT);
+        assertThat(ReconciliationJob.compare(1L, List.of(payment(1L, 1L, "a", true)), List.of(shipped)).getType())
+                .isEqualTo(Discrepancy.Type.SHIPMENT_WITH_REFUNDED_PAYMENT);
+    }
+
+    @Test
+    void duplicateChargesAreToldApartByExternalId() {
+        List<ShipmentRecord> shipped = List.of(shipment(1L, 1L));
+
+        Discrepancy twoCharges = ReconciliationJob.compare(1L,
+                List.of(payment(1L, 1L, "a", false), payment(2L, 1L, "b", false), payment(3L, 1L, "b", false)),
+                shipped);
+        assertThat(twoCharges.getType()).isEqualTo(Discrepancy.Type.DUPLICATE_PAYMENT);
+        assertThat(twoCharges.getRefundCandidates()).containsExactly(2L);
+
+        Discrepancy oneChargeTwice = ReconciliationJob.compare(1L,
+                List.of(payment(1L, 1L, "a", false), payment(2L, 1L, "a", false)), shipped);
+        assertThat(oneChargeTwice.getType()).isEqualTo(Discrepancy.Type.DUPLICATE_RECORD);
+        assertThat(oneChargeTwice.getRefundCandidates()).isEmpty();
+
+        Discrepancy withoutExternalIds = ReconciliationJob.compare(1L,
+                List.of(payment(1L, 1L, null, false), payment(2L, 1L, null, false)), shipped);
+        assertThat(withoutExternalIds.getRefundCandidates()).containsExactly(2L);
+    }
+
+    @Test
+    void runMergeJoinsAllPartitionsAcrossPagesAndRefundsExtraCharges() throws Exception {
+        // Order 9 is still within the grace period
+        payments.add(payment(1L, 2L, "c2", false));
+        shipments.add(shipment(1L, 2L));
+        payments.add(payment(2L, 3L, "c3", false));
+        payments.add(payment(3L, 4L, "c4", false));
+        payments.add(payment(4L, 4L, "c4", false));
+        payments.add(payment(5L, 4L, "c4b", false));
+        shipments.add(shipment(2L, 4L));
+        shipments.add(shipment(3L, 5L));
+        payments.add(payment(6L, 6L, "c6", true));
+        shipments.add(shipment(4L, 6L));
+        payments.add(payment(7L, 8L, "c8", false));
+        shipments.add(shipment(5L, 8L));
+        payments.add(payment(8L, 9L, "c9", false));
+
+        ReconciliationRun run = job.run(true);
+
+        assertThat(run.getStatus()).isEqualTo(ReconciliationRun.Status.COMPLETED);
+        assertThat(run.getPartitions()).isEqualTo(4);
+        assertThat(run.getOrdersChecked().get()).isEqualTo(6);
+        assertThat(run.getPaymentsScanned().get()).isEqualTo(7);
+        assertThat(run.getShipmentsScanned().get()).isEqualTo(5);
+        assertThat(run.getDiscrepancies().get(Discrepancy.Type.PAYMENT_WITHOUT_SHIPMENT).get()).isEqualTo(1);
+        assertThat(run.getDiscrepancies().get(Discrepancy.Type.DUPLICATE_PAYMENT).get()).isEqualTo(1);
+        assertThat(run.getDiscrepancies().get(Discrepancy.Type.SHIPMENT_WITHOUT_PAYMENT).get()).isEqualTo(1);
+        assertThat(run.getDiscrepancies().get(Discrepancy.Type.SHIPMENT_WITH_REFUNDED_PAYMENT).get()).isEqualTo(1);
+        verify(paymentClient).refund(2L);
+        verify(paymentClient).refund(5L);
+        verify(paymentClient, never()).refund(4L);
+        verify(paymentClient, never()).refund(8L);
+        assertThat(run.getRefundsIssued().get()).isEqualTo(2);
+        assertThat(Files.readAllLines(Path.of(run.getReportFile())))
+                .filteredOn(line -> !line.startsWith("#")).hasSize(4);
+    }
+
+    @Test
+    void reportOnlyRunRefundsNothing() {
+        payments.add(payment(1L, 3L, "c3", false));
+
+        ReconciliationRun run = job.run(false);
+
+        assertThat(run.getDiscrepancies().get(Discrepancy.Type.PAYMENT_WITHOUT_SHIPMENT).get()).isEqualTo(1);
+        verify(paymentClient, never()).refund(any());
+    }
+
+    private static <T> List<T> page(List<T> rows, ToLongFunction<T> orderIdOf, ToLongFunction<T> idOf,
+                                    long afterOrderId, long afterId, long toOrderId, int limit) {
+        return rows.stream()
+                .filter(r -> orderIdOf.applyAsLong(r) > afterOrderId
+                        || (orderIdOf.applyAsLong(r) == afterOrderId && idOf.applyAsLong(r) > afterId))
+                .filter(r -> orderIdOf.applyAsLong(r) <= toOrderId)
+                .sorted(Comparator.comparingLong(orderIdOf).thenComparingLong(idOf))
+                .limit(limit)
+                .toList();
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+
+    private static PaymentRecord payment(Long id, Long orderId, String externalId, boolean refunded) {
+        PaymentRecord payment = new PaymentRecord();
+        payment.setId(id);
+        payment.setOrderId(orderId);
+        payment.setExternalId(externalId);
+        payment.setRefunded(refunded);
+        return payment;
+    }
+
+    private static ShipmentRecord shipment(Long id, Long orderId) {
+        ShipmentRecord shipment = new ShipmentRecord();
+        shipment.setId(id);
+        shipment.setOrderId(orderId);
+        return shipment;
+    }
+}
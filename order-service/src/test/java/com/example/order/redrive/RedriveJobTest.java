@@ -0,0 +1,265 @@
+package com.example.order.redrive;
+
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.dto.OrderStatus;
+import com.example.common.dto.PaymentOutcome;
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.workflows.OrderWorkflow;
+import com.example.order.client.PaymentRecord;
+import com.example.order.client.PaymentServiceClient;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import io.temporal.api.common.v1.WorkflowExecution;
+import io.temporal.api.enums.v1.EventType;
+import io.temporal.api.failure.v1.ActivityFailureInfo;
+import io.temporal.api.failure.v1.ApplicationFailureInfo;
+import io.temporal.api.failure.v1.Failure;
+import io.temporal.api.history.v1.History;
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.api.history.v1.WorkflowExecutionFailedEventAttributes;
+import io.temporal.api.history.v1.WorkflowExecutionStartedEventAttributes;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowExecutionMetadata;
+import io.temporal.common.WorkflowExecutionHistory;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedriveJobTest {
+
+    private static final String TASK_QUEUE = "redrive-test";
+
+    /** Orders whose re‑driven saga ran, recorded by {@link RedrivenOrder}. */
+    private static final Set<Long> REDRIVEN = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void permanentFailureIsFoundInTheCauseChain() {
+        Failure activityFailure = Failure.newBuilder()
+                .setMessage("Activity task failed")
+                .setActivityFailureInfo(ActivityFailureInfo.getDefaultInstance())
+                .setCause(applicationFailure(PermanentFailureException.class.getName()))
+                .build();
+
+        assertThat(RedriveJob.failedPermanently(failedWith(activityFailure))).isTrue();
+        assertThat(RedriveJob.failedPermanently(failedWith(applicationFailure("java.io.IOException")))).isFalse();
+    }
+
+    @Test
+    void cancelBeforeExecutionStopsTheRunBeforeItsFirstWorkflow() {
+        WorkflowClient workflowClient = mock(WorkflowClient.class);
+        when(workflowClient.listExecutions(anyString())).thenReturn(Stream.of(mock(WorkflowExecutionMetadata.class)));
+        RedriveJob job = new RedriveJob(workflowClient, mock(OrderRepository.class), mock(PaymentServiceClient.class));
+        ReflectionTestUtils.setField(job, "defaultMaxRate", 20.0);
+        ReflectionTestUtils.setField(job, "defaultConcurrency", 5);
+        ReflectionTestUtils.setField(job, "adjustInterval", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(job, "drainTimeout", Duration.ofSeconds(1));
+        Instant now = Instant.now();
+
+        RedriveRun run = job.start(now.minusSeconds(3600), now, null, null).orElseThrow();
+        assertThat(job.start(now.minusSeconds(3600), now, null, null)).isEmpty();
+        assertThat(job.cancel()).isTrue();
+        job.execute(run);
+
+        assertThat(run.getStatus()).isEqualTo(RedriveRun.Status.CANCELLED);
+        assertThat(run.getFound().get()).isZero();
+        verify(workflowClient, never()).fetchHistory(anyString(), anyString());
+        assertThat(job.cancel()).isFalse();
+    }
+
+    @Test
+    void onlyOrdersThatCanSucceedWithoutADoubleChargeAreRedriven() {
+        Map<Long, OrderStatus> statuses = Map.of(
+                1L, OrderStatus.COMPENSATED,
+                2L, OrderStatus.COMPLETED,
+                3L, OrderStatus.FAILED,
+                4L, OrderStatus.FAILED,
+                5L, OrderStatus.FAILED,
+                7L, OrderStatus.FAILED);
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.findById(anyLong())).thenAnswer(i -> Optional.ofNullable(statuses.get(i.<Long>getArgument(0)))
+                .map(status -> order(i.getArgument(0), status)));
+        PaymentServiceClient paymentClient = mock(PaymentServiceClient.class);
+        when(paymentClient.findByOrderId(any(), any())).thenAnswer(i -> switch (i.<Long>getArgument(0).intValue()) {
+            case 4 -> List.of(payment(false));
+            case 5 -> List.of(payment(true));
+            case 7 -> throw new IllegalStateException("payment-service down");
+            default -> List.of();
+        });
+
+        try (TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance()) {
+            Worker worker = testEnv.newWorker(OrderPriority.EXPRESS.taskQueue(TASK_QUEUE));
+            worker.registerWorkflowImplementationTypes(RedrivenOrder.class);
+            testEnv.start();
+            WorkflowClient workflowClient = spy(testEnv.getWorkflowClient());
+            List<WorkflowExecutionMetadata> failed = new ArrayList<>();
+            for (long orderId = 1; orderId <= 7; orderId++) {
+                String runId = "run-" + orderId;
+                failed.add(failedExecution(runId));
+                Failure failure = applicationFailure(orderId == 3
+                        ? PermanentFailureException.class.getName() : "java.io.IOException");
+                doReturn(new WorkflowExecutionHistory(failedWith(new OrderDTO(orderId, 9L, 10.0, 1,
+                        OrderPriority.EXPRESS), failure))).when(workflowClient).fetchHistory("order-" + orderId, runId);
+            }
+            doAnswer(i -> failed.stream()).when(workflowClient).listExecutions(anyString());
+
+            RedriveJob job = newJob(workflowClient, orderRepository, paymentClient);
+            Instant now = Instant.now();
+            RedriveRun run = job.execute(job.start(now.minusSeconds(3600), now, 100.0, 2).orElseThrow());
+
+            assertThat(run.getStatus()).isEqualTo(RedriveRun.Status.COMPLETED);
+            assertThat(run.getFound().get()).isEqualTo(7);
+            // Compensated, completed and no longer stored
+            assertThat(run.getSkipped().get()).isEqualTo(3);
+            assertThat(run.getPermanentlyFailed().get()).isEqualTo(1);
+            assertThat(run.getStillPaid().get()).isEqualTo(1);
+            assertThat(run.getStartFailures().get()).isEqualTo(1);
+            // Its only payment was refunded, so it is charged afresh
+            assertThat(run.getStarted().get()).isEqualTo(1);
+            assertThat(run.getSucceeded().get()).isEqualTo(1);
+            assertThat(REDRIVEN).containsExactly(5L);
+        }
+    }
+
+    @Test
+    void pacerHalvesTheRateOnErrorsAndRecoversInSteps() {
+        RedriveJob job = newJob(mock(WorkflowClient.class), mock(OrderRepository.class), mock(PaymentServiceClient.class));
+        Instant now = Instant.now();
+        RedriveRun run = job.start(now.minusSeconds(3600), now, 20.0, 5).orElseThrow();
+        RedriveJob.Pacer pacer = job.new Pacer(run);
+
+        // An interval without outcomes leaves the rate alone
+        pacer.adjust();
+        assertThat(run.getCurrentRatePerSecond()).isEqualTo(20.0);
+
+        run.getSucceeded().addAndGet(6);
+        run.getFailedAgain().addAndGet(4);
+        pacer.adjust();
+        assertThat(run.getCurrentRatePerSecond()).isEqualTo(10.0);
+        assertThat(run.getRecentErrorRate()).isEqualTo(0.4);
+
+        run.getStartFailures().addAndGet(1);
+        pacer.adjust();
+        assertThat(run.getCurrentRatePerSecond()).isEqualTo(5.0);
+        for (int i = 0; i < 10; i++) {
+            run.getFailedAgain().incrementAndGet();
+            pacer.adjust();
+        }
+        assertThat(run.getCurrentRatePerSecond()).isEqualTo(0.5);
+        assertThat(run.getBackoffs().get()).isEqualTo(12);
+
+        // Healthy intervals add a tenth of the maximum each, up to the maximum
+        run.getSucceeded().incrementAndGet();
+        pacer.adjust();
+        assertThat(run.getCurrentRatePerSecond()).isEqualTo(2.5);
+        for (int i = 0; i < 20; i++) {
+            run.getSucceeded().incrementAndGet();
+            pacer.adjust();
+        }
+        assertThat(run.getCurrentRatePerSecond()).isEqualTo(20.0);
+    }
+
+    private static RedriveJob newJob(WorkflowClient workflowClient, OrderRepository orderRepository,
+                                     PaymentServiceClient paymentClient) {
+        RedriveJob job = new RedriveJob(workflowClient, orderRepository, paymentClient);
+        ReflectionTestUtils.setField(job, "orderTaskQueue", TASK_QUEUE);
+        ReflectionTestUtils.setField(job, "defaultMaxRate", 20.0);
+        ReflectionTestUtils.setField(job, "minRate", 0.5);
+        ReflectionTestUtils.setField(job, "defaultConcurrency", 5);
+        ReflectionTestUtils.setField(job, "maxErrorRate", 0.2);
+        ReflectionTestUtils.setField(job, "recoveryStep", 0.1);
+        ReflectionTestUtils.setField(job, "adjustInterval", Duration.ZERO);
+        ReflectionTestUtils.setField(job, "drainTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(job, "paymentCheckTimeout", Duration.ofSeconds(1));
+        return job;
+    }
+
+    private static WorkflowExecutionMetadata failedExecution(String runId) {
+        WorkflowExecutionMetadata metadata = mock(WorkflowExecutionMetadata.class);
+        when(metadata.getExecution()).thenReturn(WorkflowExecution.newBuilder()
+                .setWorkflowId("order-" + runId.substring("run-".length()))
+                .setRunId(runId)
+                .build());
+        return metadata;
+    }
+
+    private static Order order(Long id, OrderStatus status) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(status);
+        return order;
+    }
+
+    private static PaymentRecord payment(boolean refunded) {
+        PaymentRecord payment = new PaymentRecord();
+        payment.setRefunded(refunded);
+        return payment;
+    }
+
+    private static Failure applicationFailure(String type) {
+        return Failure.newBuilder()
+                .setMessage("failed")
+                .setApplicationFailureInfo(ApplicationFailureInfo.newBuilder().setType(type))
+                .build();
+    }
+
+    private static History failedWith(Failure failure) {
+        return failedWith(null, failure);
+    }
+
+    private static History failedWith(OrderDTO input, Failure failure) {
+        WorkflowExecutionStartedEventAttributes.Builder started = WorkflowExecutionStartedEventAttributes.newBuilder();
+        if (input != null) {
+            started.setInput(DefaultDataConverter.newDefaultInstance().toPayloads(input).orElseThrow());
+        }
+        return History.newBuilder()
+                .addEvents(HistoryEvent.newBuilder()
+                        .setEventId(1)
+                        .setEventType(EventType.EVENT_TYPE_WORKFLOW_EXECUTION_STARTED)
+                        .setWorkflowExecutionStartedEventAttributes(started))
+                .addEvents(HistoryEvent.newBuilder()
+                        .setEventId(2)
+                        .setEventType(EventType.EVENT_TYPE_WORKFLOW_EXECUTION_FAILED)
+                        .setWorkflowExecutionFailedEventAttributes(WorkflowExecutionFailedEventAttributes.newBuilder()
+                                .setFailure(failure)))
+                .build();
+    }
+
+    /** Stands in for the order saga that a re‑drive starts. */
+    public static class RedrivenOrder implements OrderWorkflow {
+
+        @Override
+        public void placeOrder(OrderDTO order) {
+            REDRIVEN.add(order.getOrderId());
+        }
+
+        @Override
+        public PaymentOutcome awaitPayment() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.order.service;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.activities.OrderStatusActivity;
+import com.example.common.activities.PaymentActivity;
+import com.example.common.activities.ShippingActivity;
+import com.example.common.dto.OrderPriority;
+import com.example.common.dto.OrderStatus;
+import com.example.common.failures.PermanentFailureException;
+import com.example.order.admission.AdmissionControl;
+import com.example.order.entity.Order;
+import com.example.order.repository.OrderRepository;
+import com.example.order.workflow.OrderWorkflowImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class OrderServiceTest {
+
+    private static final String TASK_QUEUE = "order-service-test";
+    private static final RetryOptions NO_RETRIES = RetryOptions.newBuilder().setMaximumAttempts(1).build();
+
+    private TestWorkflowEnvironment testEnv;
+    private OrderService orderService;
+    private final PaymentActivity payment = mock(PaymentActivity.class, withSettings().withoutAnnotations());
+    private final InventoryActivity inventory = mock(InventoryActivity.class, withSettings().withoutAnnotations());
+
+    @BeforeEach
+    void setUp() {
+        testEnv = TestWorkflowEnvironment.newInstance();
+        Worker worker = testEnv.newWorker(OrderPriority.EXPRESS.taskQueue(TASK_QUEUE));
+        worker.registerWorkflowImplementationTypes(WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(NO_RETRIES)
+                        .build())
+                .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(NO_RETRIES)
+                        .build())
+                .build(), OrderWorkflowImpl.class);
+        worker.registerActivitiesImplementations(payment, inventory,
+                mock(ShippingActivity.class, withSettings().withoutAnnotations()),
+                mock(OrderStatusActivity.class, withSettings().withoutAnnotations()));
+        testEnv.start();
+
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        orderService = new OrderService(orderRepository, testEnv.getWorkflowClient(), mock(AdmissionControl.class),
+                OpenTelemetry.noop().getTracer("test"), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orderService, "orderTaskQueue", TASK_QUEUE);
+        ReflectionTestUtils.setField(orderService, "workflowIdPrefix", "order");
+        ReflectionTestUtils.setField(orderService, "syncTimeout", Duration.ofMillis(500));
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEnv.close();
+    }
+
+    @Test
+    void syncPlacementReturnsThePaymentOutcome() {
+        when(payment.debitPayment(any())).thenReturn(42L);
+
+        Order placed = orderService.createOrder(newOrder(), PlacementMode.SYNC);
+
+        assertThat(placed.getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(placed.getPaymentOutcome().getPaymentId()).isEqualTo(42L);
+    }
+
+    @Test
+    void syncPlacementReportsADeclinedDebit() {
+        when(payment.debitPayment(any())).thenThrow(new PermanentFailureException("card declined"));
+
+        Order placed = orderService.createOrder(newOrder(), PlacementMode.SYNC);
+
+        assertThat(placed.getStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(placed.getPaymentOutcome().isPaid()).isFalse();
+        assertThat(placed.getPaymentOutcome().isOutOfStock()).isFalse();
+    }
+
+    @Test
+    void syncPlacementReportsMissingStockWithoutADebit() {
+        doThrow(new PermanentFailureException("out of stock")).when(inventory).reserveStock(any());
+
+        Order placed = orderService.createOrder(newOrder(), PlacementMode.SYNC);
+
+        assertThat(placed.getStatus()).isEqualTo(OrderStatus.FAILED);
+        assertThat(placed.getPaymentOutcome().isOutOfStock()).isTrue();
+        verify(payment, never()).debitPayment(any());
+    }
+
+    @Test
+    void syncPlacementFallsBackToPendingWhenThePaymentIsSlow() {
+        when(payment.debitPayment(any())).thenAnswer(invocation -> {
+            Thread.sleep(3000);
+            return 42L;
+        });
+
+        long start = System.nanoTime();
+        Order placed = orderService.createOrder(newOrder(), PlacementMode.SYNC);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(placed.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(placed.getPaymentOutcome()).isNull();
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.setProductId(7L);
+        order.setPrice(10.0);
+        order.setQuantity(1);
+        return order;
+    }
+}
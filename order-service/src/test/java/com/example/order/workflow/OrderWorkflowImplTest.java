@@ -0,0 +1,124 @@
+package com.example.order.workflow;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.activities.OrderStatusActivity;
+import com.example.common.activities.PaymentActivity;
+import com.example.common.activities.ShippingActivity;
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.dto.OrderStatus;
+import com.example.common.workflows.OrderWorkflow;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowFailedException;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.failure.ActivityFailure;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class OrderWorkflowImplTest {
+
+    private static final String TASK_QUEUE = "order-workflow-test";
+    private static final RetryOptions NO_RETRIES = RetryOptions.newBuilder().setMaximumAttempts(1).build();
+
+    private TestWorkflowEnvironment testEnv;
+    private WorkflowClient client;
+    private final InventoryActivity inventory = mock(InventoryActivity.class, withSettings().withoutAnnotations());
+    private final PaymentActivity payment = mock(PaymentActivity.class, withSettings().withoutAnnotations());
+    private final ShippingActivity shipping = mock(ShippingActivity.class, withSettings().withoutAnnotations());
+    private final OrderStatusActivity status = mock(OrderStatusActivity.class, withSettings().withoutAnnotations());
+
+    @BeforeEach
+    void setUp() {
+        testEnv = TestWorkflowEnvironment.newInstance();
+        Worker worker = testEnv.newWorker(TASK_QUEUE);
+        worker.registerWorkflowImplementationTypes(WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(NO_RETRIES)
+                        .build())
+                .setDefaultLocalActivityOptions(LocalActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(NO_RETRIES)
+                        .build())
+                .build(), OrderWorkflowImpl.class);
+        worker.registerActivitiesImplementations(inventory, payment, shipping, status);
+        testEnv.start();
+        client = testEnv.getWorkflowClient();
+        when(payment.debitPayment(any())).thenReturn(42L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEnv.close();
+    }
+
+    @Test
+    void failedPaidStatusDoesNotSkipTheRefund() {
+        doThrow(new IllegalStateException("order table locked")).when(status).updateStatus(anyLong(), eq(OrderStatus.PAID));
+        doThrow(new IllegalStateException("carrier down")).when(shipping).shipOrder(any());
+
+        assertThatThrownBy(() -> newWorkflow().placeOrder(order()))
+                .isInstanceOf(WorkflowFailedException.class)
+                .cause().isInstanceOf(ActivityFailure.class)
+                .satisfies(failure -> assertThat(((ActivityFailure) failure).getActivityType()).isEqualTo("ShipOrder"));
+        verify(payment).refundPayment(42L);
+        verify(inventory).releaseStock(any());
+        verify(status).updateStatus(1L, OrderStatus.COMPENSATED);
+    }
+
+    @Test
+    void failedFinalStatusDoesNotMaskTheSagaFailure() {
+        doThrow(new IllegalStateException("card declined")).when(payment).debitPayment(any());
+        doThrow(new IllegalStateException("order table locked")).when(status).updateStatus(anyLong(), eq(OrderStatus.FAILED));
+
+        assertThatThrownBy(() -> newWorkflow().placeOrder(order()))
+                .isInstanceOf(WorkflowFailedException.class)
+                .cause().isInstanceOf(ActivityFailure.class)
+                .satisfies(failure -> assertThat(((ActivityFailure) failure).getActivityType()).isEqualTo("DebitPayment"));
+        verify(inventory).releaseStock(any());
+        verify(payment, never()).refundPayment(anyLong());
+    }
+
+    @Test
+    void failedCompletedStatusStillCompletesTheSaga() {
+        doThrow(new IllegalStateException("order table locked")).when(status).updateStatus(anyLong(), eq(OrderStatus.COMPLETED));
+
+        newWorkflow().placeOrder(order());
+
+        verify(shipping).shipOrder(any());
+        verify(payment, never()).refundPayment(anyLong());
+        verify(inventory, never()).releaseStock(any());
+    }
+
+    private OrderWorkflow newWorkflow() {
+        return client.newWorkflowStub(OrderWorkflow.class, WorkflowOptions.newBuilder()
+                .setTaskQueue(TASK_QUEUE)
+                .setWorkflowId("order-1")
+                .build());
+    }
+
+    private static OrderDTO order() {
+        return new OrderDTO(1L, 123L, 9.99, 1, OrderPriority.EXPRESS);
+    }
+}
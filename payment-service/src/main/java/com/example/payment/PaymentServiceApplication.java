@@ -2,13 +2,16 @@ package com.example.payment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the payment service.  This service runs a Temporal worker
  * that handles payment activities and exposes a REST API for inspection of
- * persisted payment records.
+ * persisted payment records.  Scheduling is enabled for background tasks
+ * such as checkpointing the payment aggregates.
  */
 @SpringBootApplication
+@EnableScheduling
 public class PaymentServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(PaymentServiceApplication.class, args);
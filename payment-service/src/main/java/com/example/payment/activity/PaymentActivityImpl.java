@@ -2,6 +2,7 @@ package com.example.payment.activity;
 
 import com.example.common.activities.PaymentActivity;
 import com.example.common.dto.OrderDTO;
+import com.example.common.failures.PermanentFailureException;
 import com.example.payment.service.PaymentService;
 import io.temporal.activity.Activity;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +14,8 @@ import org.springframework.stereotype.Component;
  * Implementation of the {@link PaymentActivity}.  This class delegates to
  * {@link PaymentService} to perform the actual debit and persists the
  * payment.  It may throw runtime exceptions to signal failure and trigger
- * retries.  Because Activities run outside of the Temporal workflow thread
+ * retries, or {@link PermanentFailureException} when retrying cannot help.
+ * Because Activities run outside of the Temporal workflow thread
  * they are allowed to call external services and perform blocking I/O.
  */
 @Component
@@ -30,15 +32,13 @@ public class PaymentActivityImpl implements PaymentActivity {
         double amount = order.getPrice() * order.getQuantity();
         logger.info("[SAGA Payment] Processing payment for order {} (productId: {}) for amount {}", 
                 order.getOrderId(), order.getProductId(), amount);
-        Long paymentId = paymentService.debit(order.getOrderId(), order.getProductId(), amount);
+        // Retries of this saga run reuse the charge; a re-driven order is a new run and charges afresh
+        String chargeKey = "order-" + order.getOrderId() + "-" + Activity.getExecutionContext().getInfo().getRunId();
+        Long paymentId = paymentService.debit(chargeKey, order.getOrderId(), order.getProductId(), amount);
         logger.info("[SAGA Payment] Successfully processed payment ID {} for order {}", 
                 paymentId, order.getOrderId());
-        // Simulate a potential transient failure for demonstration.  You could
-        // uncomment the following lines to randomly throw an exception and
-        // observe automatic retries:
-        // if (Math.random() < 0.2) {
-        //     throw new RuntimeException("Simulated payment failure");
-        // }
+        // Random failures and latency for demonstrations and benchmarks are
+        // injected by FaultInjectionWorkerInterceptor; see faults.* properties.
         return paymentId;
     }
     
@@ -48,6 +48,12 @@ public class PaymentActivityImpl implements PaymentActivity {
         try {
             paymentService.refund(paymentId);
             logger.info("[SAGA Compensation] Successfully refunded payment {}", paymentId);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // The payment does not exist or can no longer be refunded; no
+            // amount of retrying will fix that.
+            logger.error("[SAGA Compensation] Refund of payment {} failed permanently. Error: {}",
+                    paymentId, e.getMessage());
+            throw new PermanentFailureException(e.getMessage(), e);
         } catch (Exception e) {
             logger.error("[SAGA Compensation] Failed to refund payment {}. Error: {}", 
                     paymentId, e.getMessage());
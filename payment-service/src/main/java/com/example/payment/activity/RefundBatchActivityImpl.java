@@ -0,0 +1,55 @@
+package com.example.payment.activity;
+
+import com.example.common.activities.RefundBatchActivity;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Implementation of the {@link RefundBatchActivity}.  A batch is refunded
+ * in chunks of {@code payment.recalls.chunkSize} payments, each loaded with
+ * one query, and the Activity heartbeats before every chunk.
+ * The heartbeat is how a cancellation of the bulk refund reaches the
+ * Activity: it throws once the workflow is cancelled, so at most one
+ * chunk is refunded after the cancel request.
+ */
+@Component
+@RequiredArgsConstructor
+public class RefundBatchActivityImpl implements RefundBatchActivity {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefundBatchActivityImpl.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+
+    @Value("${payment.recalls.chunkSize:100}")
+    private int chunkSize;
+
+    @Override
+    public List<Long> listRefundablePaymentIds(Long productId, Long afterPaymentId, int limit) {
+        return paymentRepository.findRefundableIdsByProductId(productId, afterPaymentId,
+                paymentService.refundableSince(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public int refundBatch(List<Long> paymentIds) {
+        ActivityExecutionContext context = Activity.getExecutionContext();
+        int refunded = 0;
+        for (int from = 0; from < paymentIds.size(); from += chunkSize) {
+            context.heartbeat(refunded);
+            refunded += paymentService.refundAll(paymentIds.subList(from, Math.min(paymentIds.size(), from + chunkSize)));
+        }
+        logger.info("[Recall] Refunded {} of {} payments in batch starting at {}",
+                refunded, paymentIds.size(), paymentIds.isEmpty() ? null : paymentIds.get(0));
+        return refunded;
+    }
+}
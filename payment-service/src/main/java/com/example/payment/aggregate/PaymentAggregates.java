@@ -0,0 +1,275 @@
+package com.example.payment.aggregate;
+
+import com.example.payment.dto.ProductPaymentAggregate;
+import com.example.payment.entity.PaymentAggregatesCheckpoint;
+import com.example.payment.entity.ProductPaymentSummary;
+import com.example.payment.repository.PaymentAggregatesCheckpointRepository;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.ProductPaymentSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained payment totals per product.  Every debit and
+ * refund updates in‑memory counters built on {@link LongAdder} and
+ * {@link DoubleAdder}, which stripe their state across cells so concurrent
+ * Activity threads never contend on a single lock.  Reading the aggregates
+ * therefore costs O(products) instead of a scan over all payments.
+ * Counters are only updated once the payment is saved; inside a
+ * transaction, once it commits.
+ * <p>
+ * The {@code payment_product_summary} table is a checkpoint of the totals
+ * with a watermark (see {@link PaymentAggregatesCheckpoint}): the last
+ * payment id whose debit it contains and the time up to which it contains
+ * refunds.  Each checkpoint folds the payments past the watermark into the
+ * summary with two range queries and advances the watermark, in one
+ * transaction.  On startup the counters are restored from the summary and
+ * the payments past the watermark are replayed, so the totals are exact
+ * after a crash, however long ago the last checkpoint was.  The checkpoint
+ * interval only bounds how many payments a restart has to replay.
+ * <p>
+ * The watermark trails the clock by {@code payment.aggregates.settleDelay},
+ * so that a payment saved just before a checkpoint but committed just after
+ * it is not skipped.
+ * <p>
+ * Several payment instances share the summary table, but each only counts
+ * its own debits and refunds as they happen.  After every checkpoint an
+ * instance therefore rebuilds its counters from the summary and the
+ * payments past the watermark, as on startup, so the totals include the
+ * other instances' payments within one checkpoint interval.  A payment
+ * committed while the counters are rebuilt can be counted twice until the
+ * next rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentAggregates {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentAggregates.class);
+
+    private final ProductPaymentSummaryRepository summaryRepository;
+    private final PaymentAggregatesCheckpointRepository checkpointRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payment.aggregates.settleDelay:PT5S}")
+    private Duration settleDelay;
+
+    private volatile ConcurrentMap<Long, ProductCounters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Restores the counters from the last checkpoint and replays the
+     * payments past its watermark.  Without a checkpoint every payment is
+     * replayed.
+     */
+    @PostConstruct
+    public void restore() {
+        if (checkpointRepository.findById(PaymentAggregatesCheckpoint.ID).isEmpty()) {
+            createCheckpoint();
+        }
+        long replayed = reload();
+        logger.info("Restored payment aggregates for {} products, replayed {} debits and refunds",
+                counters.size(), replayed);
+    }
+
+    /** Records a successful debit. */
+    public void recordDebit(Long productId, double amount) {
+        afterCommit(() -> {
+            ProductCounters c = countersOf(productId);
+            c.paymentCount.increment();
+            c.revenue.add(amount);
+        });
+    }
+
+    /** Records a refund of a previously debited payment. */
+    public void recordRefund(Long productId, double amount) {
+        afterCommit(() -> {
+            ProductCounters c = countersOf(productId);
+            c.refundCount.increment();
+            c.refundedAmount.add(amount);
+        });
+    }
+
+    /**
+     * Returns the current totals for all products, ordered by product id.
+     */
+    public List<ProductPaymentAggregate> snapshot() {
+        ConcurrentMap<Long, ProductCounters> current = counters;
+        List<ProductPaymentAggregate> result = new ArrayList<>(current.size());
+        current.forEach((productId, c) -> result.add(c.toAggregate(productId)));
+        result.sort(Comparator.comparing(ProductPaymentAggregate::getProductId));
+        return result;
+    }
+
+    /**
+     * Folds the payments past the watermark into the summary table and
+     * advances the watermark.
+     */
+    @PreDestroy
+    public void checkpoint() {
+        transactionTemplate.executeWithoutResult(status -> advance(Instant.now().minus(settleDelay)));
+    }
+
+    /**
+     * Checkpoints, then rebuilds the counters from the summary so that
+     * payments of other instances are included.
+     */
+    @Scheduled(fixedDelayString = "${payment.aggregates.checkpointIntervalMs:10000}",
+            initialDelayString = "${payment.aggregates.checkpointIntervalMs:10000}")
+    public void checkpointAndReload() {
+        checkpoint();
+        reload();
+    }
+
+    /**
+     * Replaces the counters with the summary plus the payments past the
+     * watermark.  The checkpoint row is locked meanwhile, so no other
+     * instance can move summary and watermark between the reads.
+     *
+     * @return the number of debits and refunds replayed
+     */
+    private long reload() {
+        return transactionTemplate.execute(status -> {
+            PaymentAggregatesCheckpoint checkpoint = checkpointRepository
+                    .findForUpdate(PaymentAggregatesCheckpoint.ID)
+                    .orElseGet(PaymentAggregatesCheckpoint::initial);
+            ConcurrentMap<Long, ProductCounters> loaded = new ConcurrentHashMap<>();
+            for (ProductPaymentSummary s : summaryRepository.findAll()) {
+                countersOf(loaded, s.getProductId())
+                        .add(s.getPaymentCount(), s.getRevenue(), s.getRefundCount(), s.getRefundedAmount());
+            }
+            long replayed = 0;
+            for (Object[] row : paymentRepository.summarizeDebits(checkpoint.getLastPaymentId(), Long.MAX_VALUE)) {
+                countersOf(loaded, (Long) row[0]).add(asLong(row[1]), asDouble(row[2]), 0, 0.0);
+                replayed += asLong(row[1]);
+            }
+            for (Object[] row : paymentRepository.summarizeRefunds(checkpoint.getRefundedUpTo(), Instant.now())) {
+                countersOf(loaded, (Long) row[0]).add(0, 0.0, asLong(row[1]), asDouble(row[2]));
+                replayed += asLong(row[1]);
+            }
+            counters = loaded;
+            return replayed;
+        });
+    }
+
+    private void advance(Instant settled) {
+        PaymentAggregatesCheckpoint checkpoint = checkpointRepository.findForUpdate(PaymentAggregatesCheckpoint.ID)
+                .orElseGet(PaymentAggregatesCheckpoint::initial);
+        long afterId = checkpoint.getLastPaymentId();
+        Long lastId = paymentRepository.findLastIdCreatedUpTo(afterId, settled);
+        long upToId = lastId != null ? lastId : afterId;
+        Instant refundedAfter = checkpoint.getRefundedUpTo();
+        Instant refundedUpTo = settled.isAfter(refundedAfter) ? settled : refundedAfter;
+
+        Instant now = Instant.now();
+        Map<Long, ProductPaymentSummary> changed = new HashMap<>();
+        for (Object[] row : paymentRepository.summarizeDebits(afterId, upToId)) {
+            ProductPaymentSummary s = summaryOf(changed, (Long) row[0]);
+            s.setPaymentCount(s.getPaymentCount() + asLong(row[1]));
+            s.setRevenue(s.getRevenue() + asDouble(row[2]));
+        }
+        for (Object[] row : paymentRepository.summarizeRefunds(refundedAfter, refundedUpTo)) {
+            ProductPaymentSummary s = summaryOf(changed, (Long) row[0]);
+            s.setRefundCount(s.getRefundCount() + asLong(row[1]));
+            s.setRefundedAmount(s.getRefundedAmount() + asDouble(row[2]));
+        }
+        changed.values().forEach(s -> s.setCheckpointedAt(now));
+        summaryRepository.saveAll(changed.values());
+
+        checkpoint.setLastPaymentId(upToId);
+        checkpoint.setRefundedUpTo(refundedUpTo);
+        checkpoint.setCheckpointedAt(now);
+        checkpointRepository.save(checkpoint);
+        logger.debug("Checkpointed payment aggregates of {} products up to payment {}", changed.size(), upToId);
+    }
+
+    private ProductPaymentSummary summaryOf(Map<Long, ProductPaymentSummary> changed, Long productId) {
+        return changed.computeIfAbsent(productId, id -> summaryRepository.findById(id)
+                .orElseGet(() -> ProductPaymentSummary.builder().productId(id).build()));
+    }
+
+    private PaymentAggregatesCheckpoint createCheckpoint() {
+        try {
+            return checkpointRepository.save(PaymentAggregatesCheckpoint.initial());
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+            return checkpointRepository.findById(PaymentAggregatesCheckpoint.ID).orElseThrow();
+        }
+    }
+
+    private ProductCounters countersOf(Long productId) {
+        return countersOf(counters, productId);
+    }
+
+    private static ProductCounters countersOf(ConcurrentMap<Long, ProductCounters> counters, Long productId) {
+        return counters.computeIfAbsent(productId, id -> new ProductCounters());
+    }
+
+    /**
+     * Runs {@code update} once the current transaction commits, or at once
+     * outside a transaction, so a rolled back save is never counted.
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static long asLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static double asDouble(Object value) {
+        return value == null ? 0.0 : ((Number) value).doubleValue();
+    }
+
+    /**
+     * Striped counters for a single product.
+     */
+    private static final class ProductCounters {
+        private final LongAdder paymentCount = new LongAdder();
+        private final DoubleAdder revenue = new DoubleAdder();
+        private final LongAdder refundCount = new LongAdder();
+        private final DoubleAdder refundedAmount = new DoubleAdder();
+
+        void add(long payments, double revenueAmount, long refunds, double refunded) {
+            paymentCount.add(payments);
+            revenue.add(revenueAmount);
+            refundCount.add(refunds);
+            refundedAmount.add(refunded);
+        }
+
+        ProductPaymentAggregate toAggregate(Long productId) {
+            return new ProductPaymentAggregate(productId, paymentCount.sum(), revenue.sum(),
+                    refundCount.sum(), refundedAmount.sum());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.payment.archive;
+
+import com.example.common.archive.SegmentArchive;
+import com.example.payment.aggregate.PaymentAggregates;
+import com.example.payment.entity.Payment;
+import com.example.payment.entity.PaymentAggregatesCheckpoint;
+import com.example.payment.repository.PaymentAggregatesCheckpointRepository;
+import com.example.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Moves payments older than {@code payment.archive.maxAge} from the
+ * {@code payments} table into a {@link SegmentArchive}, keeping the hot
+ * table and its indexes small.  Payments are archived in id order in
+ * batches; each batch is deleted from the table only after its segments are
+ * durable.  If the process dies in between, the rows are archived again on
+ * the next run and lookups drop the duplicates.
+ * <p>
+ * Only payments that nothing but the lookup by order id needs any more are
+ * archived:
+ * <ul>
+ *   <li>payments outside {@code payment.refundWindow}, which can no longer
+ *   be refunded, so refunds and recalls never look for an archived payment;
+ *   the maximum age is raised to the refund window if it is shorter;</li>
+ *   <li>payments whose debit and refund are already folded into the
+ *   {@link PaymentAggregates} checkpoint, so restoring the aggregates never
+ *   has to replay an archived payment.</li>
+ * </ul>
+ * Reconciliation only looks back {@code order.reconciliation.lookback},
+ * which must stay below the maximum age here and in the shipping service.
+ * <p>
+ * A row is only deleted if its refund state is still the one that was
+ * archived.  A payment refunded in between stays in the table and is
+ * archived again on the next run; lookups prefer its refunded copy.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentArchiver.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentAggregatesCheckpointRepository checkpointRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${payment.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.archive.directory:/tmp/payment-archive}")
+    private String directory;
+
+    @Value("${payment.archive.maxAge:P30D}")
+    private Duration maxAge;
+
+    @Value("${payment.archive.batchSize:5000}")
+    private int batchSize;
+
+    @Value("${payment.refundWindow:P30D}")
+    private Duration refundWindow;
+
+    private SegmentArchive<Payment> archive;
+
+    @PostConstruct
+    public void open() throws IOException {
+        archive = new SegmentArchive<>(Path.of(directory), objectMapper, Payment.class,
+                Payment::getId, Payment::getOrderId, Payment::getCreatedAt);
+    }
+
+    /**
+     * Archives all payments that are older than the maximum age and the
+     * refund window and already folded into the aggregates checkpoint.
+     */
+    @Scheduled(fixedDelayString = "${payment.archive.intervalMs:3600000}")
+    public void archiveOldPayments() {
+        if (!enabled) {
+            return;
+        }
+        Optional<PaymentAggregatesCheckpoint> checkpoint = checkpointRepository.findById(PaymentAggregatesCheckpoint.ID);
+        if (checkpoint.isEmpty()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(maxAge.compareTo(refundWindow) >= 0 ? maxAge : refundWindow);
+        long lastFoldedId = checkpoint.get().getLastPaymentId();
+        Instant refundsFoldedUpTo = checkpoint.get().getRefundedUpTo();
+        long archived = 0;
+        long kept = 0;
+        long afterId = 0;
+        List<Payment> batch;
+        do {
+            batch = paymentRepository.findArchivable(afterId, lastFoldedId, cutoff, refundsFoldedUpTo,
+                    PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                archive.append(batch);
+            } catch (IOException e) {
+                logger.error("Archiving payments failed, keeping them in the table: {}", e.getMessage(), e);
+                return;
+            }
+            int deleted = deleteUnchanged(batch);
+            archived += deleted;
+            kept += batch.size() - deleted;
+            afterId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == batchSize);
+        if (archived > 0) {
+            logger.info("Archived {} payments created before {}", archived, cutoff);
+        }
+        if (kept > 0) {
+            logger.warn("Kept {} payments refunded while they were archived; they are archived on the next run", kept);
+        }
+    }
+
+    /**
+     * Deletes the archived rows whose refund state has not changed since
+     * they were read.
+     */
+    private int deleteUnchanged(List<Payment> batch) {
+        List<Long> refunded = new ArrayList<>();
+        List<Long> unrefunded = new ArrayList<>();
+        batch.forEach(p -> (p.isRefunded() ? refunded : unrefunded).add(p.getId()));
+        int deleted = 0;
+        if (!refunded.isEmpty()) {
+            deleted += paymentRepository.deleteByIdInAndRefunded(refunded, true);
+        }
+        if (!unrefunded.isEmpty()) {
+            deleted += paymentRepository.deleteByIdInAndRefunded(unrefunded, false);
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns the payments of an order from the table and the archive, in
+     * id order.  A payment in the table wins over its archived copies, and
+     * a refunded archived copy over an unrefunded one.
+     */
+    public List<Payment> findByOrderId(Long orderId) {
+        Map<Long, Payment> payments = new TreeMap<>();
+        try {
+            for (Payment archived : archive.findByOrderId(orderId)) {
+                payments.merge(archived.getId(), archived, (a, b) -> b.isRefunded() ? b : a);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        paymentRepository.findByOrderId(orderId).forEach(p -> payments.put(p.getId(), p));
+        return new ArrayList<>(payments.values());
+    }
+}
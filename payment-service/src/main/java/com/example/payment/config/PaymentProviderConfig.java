@@ -0,0 +1,85 @@
+package com.example.payment.config;
+
+import com.example.payment.provider.CircuitBreaker;
+import com.example.payment.provider.HttpPaymentProvider;
+import com.example.payment.provider.LocalPaymentProviderStub;
+import com.example.payment.provider.PaymentProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Wires the {@link PaymentProvider}.  Unless
+ * {@code payment.provider.stub.enabled} is {@code false} an in‑process
+ * {@link LocalPaymentProviderStub} is started and the client talks to it;
+ * otherwise it talks to {@code payment.provider.baseUrl}.
+ */
+@Configuration
+public class PaymentProviderConfig {
+
+    @Value("${payment.provider.baseUrl:http://localhost:9090/}")
+    private URI baseUrl;
+
+    @Value("${payment.provider.connectTimeoutMs:1000}")
+    private long connectTimeoutMs;
+
+    /** Timeout of calls made outside an Activity and upper bound for all calls. */
+    @Value("${payment.provider.defaultTimeoutMs:5000}")
+    private long defaultTimeoutMs;
+
+    /** Time kept back from the Activity's remaining start‑to‑close timeout. */
+    @Value("${payment.provider.deadlineMarginMs:200}")
+    private long deadlineMarginMs;
+
+    @Value("${payment.provider.maxConcurrentCalls:64}")
+    private int maxConcurrentCalls;
+
+    @Value("${payment.provider.bulkheadWaitMs:50}")
+    private long bulkheadWaitMs;
+
+    @Value("${payment.provider.breaker.failureRateThreshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${payment.provider.breaker.minimumCalls:20}")
+    private int minimumCalls;
+
+    @Value("${payment.provider.breaker.windowSize:50}")
+    private int windowSize;
+
+    @Value("${payment.provider.breaker.openDurationMs:10000}")
+    private long openDurationMs;
+
+    @Bean(destroyMethod = "stop")
+    @ConditionalOnProperty(name = "payment.provider.stub.enabled", havingValue = "true", matchIfMissing = true)
+    public LocalPaymentProviderStub localPaymentProviderStub(
+            @Value("${payment.provider.stub.port:0}") int port,
+            @Value("${payment.provider.stub.latencyMs:0}") long latencyMs,
+            @Value("${payment.provider.stub.failureRate:0.0}") double failureRate,
+            @Value("${payment.provider.stub.idempotencyKeyTtl:PT24H}") Duration idempotencyKeyTtl) throws IOException {
+        LocalPaymentProviderStub stub = new LocalPaymentProviderStub(port, latencyMs, failureRate, idempotencyKeyTtl);
+        stub.start();
+        return stub;
+    }
+
+    @Bean
+    public PaymentProvider paymentProvider(ObjectMapper objectMapper, ObjectProvider<LocalPaymentProviderStub> stub) {
+        LocalPaymentProviderStub localStub = stub.getIfAvailable();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        return new HttpPaymentProvider(httpClient, objectMapper,
+                localStub != null ? localStub.baseUrl() : baseUrl,
+                Duration.ofMillis(defaultTimeoutMs), Duration.ofMillis(deadlineMarginMs),
+                maxConcurrentCalls, Duration.ofMillis(bulkheadWaitMs),
+                new CircuitBreaker("payment-provider", failureRateThreshold, minimumCalls, windowSize, openDurationMs));
+    }
+}
@@ -1,12 +1,25 @@
 package com.example.payment.config;
 
+import com.example.common.faults.FaultInjectionWorkerInterceptor;
+import com.example.common.faults.FaultRegistry;
+import com.example.common.tracing.Tracing;
+import com.example.payment.provider.ActivityDeadline;
+import io.opentelemetry.api.OpenTelemetry;
 import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.interceptors.WorkerInterceptor;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import io.temporal.worker.WorkerFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration for Temporal connectivity in the payment service.  A
  * {@link WorkflowClient} bean is provided to connect to the Temporal
@@ -18,12 +31,46 @@ public class TemporalConfig {
     @Value("${temporal.server.address:127.0.0.1:7233}")
     private String temporalServerAddress;
 
+    /**
+     * Connection to the Temporal server.  A parent context may provide its
+     * own, as the all‑in‑one launcher does for its embedded server.
+     */
     @Bean
-    public WorkflowClient workflowClient() {
+    @ConditionalOnMissingBean
+    public WorkflowServiceStubs workflowServiceStubs() {
         WorkflowServiceStubsOptions options = WorkflowServiceStubsOptions.newBuilder()
                 .setTarget(temporalServerAddress)
                 .build();
-        WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(options);
-        return WorkflowClient.newInstance(service);
+        return WorkflowServiceStubs.newServiceStubs(options);
+    }
+
+    @Bean
+    public WorkflowClient workflowClient(WorkflowServiceStubs service, OpenTelemetry openTelemetry) {
+        WorkflowClientOptions clientOptions = WorkflowClientOptions.newBuilder()
+                .setInterceptors(Tracing.clientInterceptor(openTelemetry))
+                .build();
+        return WorkflowClient.newInstance(service, clientOptions);
+    }
+
+    /**
+     * Options for the worker factories created by the workers of this
+     * service.  The tracing interceptor continues the trace propagated in
+     * Temporal headers.  Later interceptors wrap earlier ones, so fault
+     * injection is listed first to run inside the tracing interceptor and
+     * injected latency and errors show up on the Activity spans.  The
+     * registry only exists when {@code faults.enabled} is set.
+     * {@link ActivityDeadline} comes last, so the attempt's start is noted
+     * before any injected latency eats into its timeout.
+     */
+    @Bean
+    public WorkerFactoryOptions workerFactoryOptions(OpenTelemetry openTelemetry,
+                                                     ObjectProvider<FaultRegistry> faultRegistry) {
+        List<WorkerInterceptor> interceptors = new ArrayList<>();
+        faultRegistry.ifAvailable(registry -> interceptors.add(new FaultInjectionWorkerInterceptor(registry)));
+        interceptors.add(Tracing.workerInterceptor(openTelemetry));
+        interceptors.add(new ActivityDeadline());
+        return WorkerFactoryOptions.newBuilder()
+                .setWorkerInterceptors(interceptors.toArray(WorkerInterceptor[]::new))
+                .build();
     }
 }
\ No newline at end of file
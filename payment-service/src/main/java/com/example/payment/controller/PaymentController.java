@@ -1,11 +1,20 @@
 package com.example.payment.controller;
 
+import com.example.payment.aggregate.PaymentAggregates;
+import com.example.payment.archive.PaymentArchiver;
+import com.example.payment.dto.ProductPaymentAggregate;
 import com.example.payment.entity.Payment;
 import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -13,13 +22,19 @@ import java.util.List;
 /**
  * REST controller exposing endpoints to inspect payments.  This service does
  * not provide endpoints to create payments because payments are created as
- * part of Activities executed by Temporal.
+ * part of Activities executed by Temporal.  Refunds can be triggered
+ * explicitly for reconciliation.
  */
 @RestController
 @RequestMapping("/payments")
 @RequiredArgsConstructor
 public class PaymentController {
+    private static final int MAX_PAGE_SIZE = 5000;
+
     private final PaymentRepository paymentRepository;
+    private final PaymentAggregates paymentAggregates;
+    private final PaymentService paymentService;
+    private final PaymentArchiver paymentArchiver;
 
     /**
      * Returns all payments recorded in the system.
@@ -30,4 +45,68 @@ public class PaymentController {
     public ResponseEntity<List<Payment>> listPayments() {
         return ResponseEntity.ok(paymentRepository.findAll());
     }
+
+    /**
+     * Returns the payments recorded for an order, including archived ones.
+     *
+     * @param orderId the order
+     * @return the order's payments, possibly empty
+     */
+    @GetMapping("/order/{orderId}")
+    public ResponseEntity<List<Payment>> listPaymentsForOrder(@PathVariable Long orderId) {
+        return ResponseEntity.ok(paymentArchiver.findByOrderId(orderId));
+    }
+
+    /**
+     * Returns revenue, refund count and refunded amount per product.  The
+     * totals are maintained incrementally, so this does not scan payments.
+     *
+     * @return per‑product payment totals ordered by product id
+     */
+    @GetMapping("/aggregates")
+    public ResponseEntity<List<ProductPaymentAggregate>> getAggregates() {
+        return ResponseEntity.ok(paymentAggregates.snapshot());
+    }
+
+    /**
+     * Returns one page of payments ordered by order id and payment id.  Pass
+     * the {@code orderId} and {@code id} of the last payment of the previous
+     * page as {@code afterOrderId}/{@code afterId} to fetch the next one.
+     *
+     * @param afterOrderId order id of the last payment already seen
+     * @param afterId      payment id of the last payment already seen
+     * @param toOrderId    inclusive upper bound of order ids to return
+     * @param limit        maximum number of payments to return
+     * @return payments ordered by order id and id
+     */
+    @GetMapping("/by-order")
+    public ResponseEntity<List<Payment>> listPaymentsByOrder(
+            @RequestParam(defaultValue = "0") long afterOrderId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long toOrderId,
+            @RequestParam(defaultValue = "1000") int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return ResponseEntity.ok(paymentRepository.findPageOrderedByOrderId(afterOrderId, afterId, toOrderId, page));
+    }
+
+    /**
+     * Refunds a payment outside of a saga, for example to compensate a
+     * discrepancy found by reconciliation.  Refunding an already refunded
+     * payment is harmless.
+     *
+     * @param id the payment to refund
+     * @return 200 when refunded, 404 if the payment does not exist, 409 if
+     *         it is outside the refund window
+     */
+    @PostMapping("/{id}/refund")
+    public ResponseEntity<Void> refundPayment(@PathVariable Long id) {
+        try {
+            paymentService.refund(id);
+            return ResponseEntity.ok().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
 }
\ No newline at end of file
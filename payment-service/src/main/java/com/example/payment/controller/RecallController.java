@@ -0,0 +1,77 @@
+package com.example.payment.controller;
+
+import com.example.common.dto.BulkRefundProgress;
+import com.example.payment.service.RecallService;
+import io.temporal.client.WorkflowExecutionAlreadyStarted;
+import io.temporal.client.WorkflowNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST controller to refund all payments of a recalled product through the
+ * bulk refund workflow.
+ */
+@RestController
+@RequestMapping("/payments/recalls")
+@RequiredArgsConstructor
+public class RecallController {
+
+    private final RecallService recallService;
+
+    /**
+     * Starts the recall of a product.
+     *
+     * @param productId   the recalled product
+     * @param concurrency optional number of refund batches run in parallel
+     * @return 202 with the workflow id, or 409 if a recall is running
+     */
+    @PostMapping("/{productId}")
+    public ResponseEntity<Map<String, String>> startRecall(@PathVariable Long productId,
+                                                           @RequestParam(required = false) Integer concurrency) {
+        try {
+            String workflowId = recallService.startRecall(productId, concurrency);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("workflowId", workflowId));
+        } catch (WorkflowExecutionAlreadyStarted e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Recall of product " + productId + " is already running"));
+        }
+    }
+
+    /**
+     * Returns the progress of the latest recall of a product.
+     *
+     * @return the progress, or 404 if the product was never recalled
+     */
+    @GetMapping("/{productId}")
+    public ResponseEntity<BulkRefundProgress> getProgress(@PathVariable Long productId) {
+        try {
+            return ResponseEntity.ok(recallService.progress(productId));
+        } catch (WorkflowNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Cancels the running recall of a product.  Payments refunded so far
+     * stay refunded.
+     */
+    @DeleteMapping("/{productId}")
+    public ResponseEntity<Void> cancelRecall(@PathVariable Long productId) {
+        try {
+            recallService.cancel(productId);
+            return ResponseEntity.accepted().build();
+        } catch (WorkflowNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payment totals for a single product as returned by
+ * {@code GET /payments/aggregates}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPaymentAggregate {
+
+    private Long productId;
+
+    /** Number of successful debits. */
+    private long paymentCount;
+
+    /** Sum of all debited amounts, including ones refunded later. */
+    private double revenue;
+
+    /** Number of refunded payments. */
+    private long refundCount;
+
+    /** Sum of all refunded amounts. */
+    private double refundedAmount;
+
+    /** Revenue minus refunded amount. */
+    public double getNetRevenue() {
+        return revenue - refundedAmount;
+    }
+}
@@ -4,19 +4,27 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.time.Instant;
+
 /**
  * Entity representing a payment transaction.  It stores a reference to the
  * order being charged as well as a generated external payment ID.  In a
  * production system this would map to a payment processor transaction.
  */
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_order_id", columnList = "orderId, id"),
+        @Index(name = "idx_payments_product_id", columnList = "productId, id"),
+        @Index(name = "idx_payments_refunded_at", columnList = "refundedAt")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_payments_external_id", columnNames = "externalId"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +40,10 @@ public class Payment {
 
     private Double amount;
 
+    /**
+     * The provider's id of the charge.  Unique, so a charge is recorded
+     * only once however often its debit is retried.
+     */
     private String externalId;
     
     /**
@@ -45,4 +57,14 @@ public class Payment {
      * Only populated if the payment has been refunded.
      */
     private String refundId;
+
+    /**
+     * Time the refund was recorded, or {@code null} if not refunded.
+     */
+    private Instant refundedAt;
+
+    /**
+     * Time the payment was recorded.
+     */
+    private Instant createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.payment.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Watermark of the {@code payment_product_summary} checkpoint.  The summary
+ * rows contain every debit with a payment id up to {@code lastPaymentId} and
+ * every refund made up to {@code refundedUpTo}; payments past the watermark
+ * are replayed from the payments table on startup.  The table holds a
+ * single row with id {@value #ID}.
+ */
+@Entity
+@Table(name = "payment_aggregates_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentAggregatesCheckpoint {
+
+    /** Id of the only row. */
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    private long lastPaymentId;
+
+    private Instant refundedUpTo;
+
+    private Instant checkpointedAt;
+
+    /**
+     * Returns the watermark of an empty checkpoint, which covers no payment.
+     */
+    public static PaymentAggregatesCheckpoint initial() {
+        return new PaymentAggregatesCheckpoint(ID, 0L, Instant.EPOCH, null);
+    }
+}
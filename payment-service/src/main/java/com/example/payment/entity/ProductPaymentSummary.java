@@ -0,0 +1,39 @@
+package com.example.payment.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Checkpoint of the in‑memory payment aggregates for one product.  Rows are
+ * advanced periodically by {@link com.example.payment.aggregate.PaymentAggregates}
+ * up to the watermark in {@link PaymentAggregatesCheckpoint} and read back
+ * on startup, so that totals survive restarts without rescanning the
+ * payments table.
+ */
+@Entity
+@Table(name = "payment_product_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPaymentSummary {
+    @Id
+    private Long productId;
+
+    private long paymentCount;
+
+    private double revenue;
+
+    private long refundCount;
+
+    private double refundedAmount;
+
+    private Instant checkpointedAt;
+}
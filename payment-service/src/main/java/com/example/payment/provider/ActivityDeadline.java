@@ -0,0 +1,70 @@
+package com.example.payment.provider;
+
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkerInterceptorBase;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Worker interceptor that notes when each Activity attempt starts running
+ * on this worker, so code called by the Activity can tell how much of the
+ * start‑to‑close timeout is left.  The start is taken from this JVM's
+ * monotonic clock rather than from the attempt's scheduled time, which
+ * includes the time the task waited in the queue and is stamped by the
+ * server's clock.  The deadline is kept in a thread local while the
+ * Activity method runs.
+ */
+public class ActivityDeadline extends WorkerInterceptorBase {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    /**
+     * Returns the time left until the current Activity attempt's
+     * start‑to‑close timeout, which may be negative.
+     *
+     * @return empty outside an Activity or for an Activity without a
+     *         start‑to‑close timeout
+     */
+    public static Optional<Duration> remaining() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    @Override
+    public ActivityInboundCallsInterceptor interceptActivity(ActivityInboundCallsInterceptor next) {
+        return new DeadlineActivityInterceptor(next);
+    }
+
+    private static final class DeadlineActivityInterceptor extends ActivityInboundCallsInterceptorBase {
+
+        private ActivityExecutionContext context;
+
+        DeadlineActivityInterceptor(ActivityInboundCallsInterceptor next) {
+            super(next);
+        }
+
+        @Override
+        public void init(ActivityExecutionContext context) {
+            this.context = context;
+            super.init(context);
+        }
+
+        @Override
+        public ActivityOutput execute(ActivityInput input) {
+            long started = System.nanoTime();
+            Duration startToClose = context.getInfo().getStartToCloseTimeout();
+            if (startToClose.isZero()) {
+                return super.execute(input);
+            }
+            DEADLINE_NANOS.set(started + startToClose.toNanos());
+            try {
+                return super.execute(input);
+            } finally {
+                DEADLINE_NANOS.remove();
+            }
+        }
+    }
+}
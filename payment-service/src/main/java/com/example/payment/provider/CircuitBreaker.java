@@ -0,0 +1,130 @@
+package com.example.payment.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Count‑based circuit breaker.  The outcomes of the last {@code windowSize}
+ * calls are kept in a ring buffer; once at least {@code minimumCalls} have
+ * been recorded and the failure rate reaches the threshold, the breaker
+ * opens and rejects calls for {@code openDurationMillis}.  It then lets a
+ * single probe call through: success closes the breaker, failure opens it
+ * again.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationMillis;
+    private final boolean[] outcomes;
+    private int recorded;
+    private int next;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openUntilMillis;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, double failureRateThreshold, int minimumCalls, int windowSize,
+                          long openDurationMillis) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openDurationMillis = openDurationMillis;
+        this.outcomes = new boolean[windowSize];
+    }
+
+    /**
+     * Decides whether a call may proceed.  Every permitted call must be
+     * followed by {@link #onSuccess()}, {@link #onFailure()} or, if it was
+     * never made, {@link #releasePermission()}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntilMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns a permission whose call was never made, without recording an
+     * outcome, so a half‑open breaker lets the next probe through.
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            transitionTo(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+            open();
+            return;
+        }
+        record(true);
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        openUntilMillis = System.currentTimeMillis() + openDurationMillis;
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State newState) {
+        if (newState == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+        }
+        if (state != newState) {
+            logger.warn("Circuit breaker {} changed from {} to {}", name, state, newState);
+            state = newState;
+        }
+    }
+}
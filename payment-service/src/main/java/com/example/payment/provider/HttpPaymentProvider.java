@@ -0,0 +1,162 @@
+package com.example.payment.provider;
+
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.failures.TransientFailureException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PaymentProvider} calling the provider's HTTP API.  The shared JDK
+ * {@link HttpClient} keeps HTTP/1.1 connections alive and reuses them
+ * across calls, and since at most {@code maxConcurrentCalls} calls run at
+ * once the pool never grows beyond that.
+ * <p>
+ * Every call is protected in three ways:
+ * <ul>
+ *   <li>a {@link CircuitBreaker} opens when too many calls fail and then
+ *       rejects calls immediately, so Activity slots are freed for the
+ *       retry backoff instead of waiting on a provider that is down.  It is
+ *       asked first, so rejected calls never wait for the bulkhead;</li>
+ *   <li>a bulkhead limits concurrent calls; a call that cannot get a permit
+ *       within {@code bulkheadWait} fails with a transient error;</li>
+ *   <li>the request timeout is the time left until the calling Activity's
+ *       start‑to‑close timeout, as noted by {@link ActivityDeadline}, minus
+ *       a margin, so an attempt fails with its own error instead of being
+ *       timed out by the server.</li>
+ * </ul>
+ * Responses with status 4xx other than 408 and 429 are permanent failures
+ * and do not count against the breaker; 5xx responses, timeouts and I/O
+ * errors are transient and do.
+ */
+public class HttpPaymentProvider implements PaymentProvider {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI baseUrl;
+    private final Duration defaultTimeout;
+    private final Duration deadlineMargin;
+    private final Semaphore bulkhead;
+    private final Duration bulkheadWait;
+    private final CircuitBreaker circuitBreaker;
+
+    public HttpPaymentProvider(HttpClient httpClient, ObjectMapper objectMapper, URI baseUrl,
+                               Duration defaultTimeout, Duration deadlineMargin,
+                               int maxConcurrentCalls, Duration bulkheadWait, CircuitBreaker circuitBreaker) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.defaultTimeout = defaultTimeout;
+        this.deadlineMargin = deadlineMargin;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWait = bulkheadWait;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String charge(String reference, double amount) {
+        return post("charges", "charge-" + reference, Map.of("reference", reference, "amount", amount));
+    }
+
+    @Override
+    public String refund(String chargeId, double amount) {
+        return post("refunds", "refund-" + chargeId, Map.of("charge", chargeId, "amount", amount));
+    }
+
+    public CircuitBreaker.State getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    private String post(String path, String idempotencyKey, Map<String, Object> body) {
+        Duration timeout = callTimeout();
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new TransientFailureException("Payment provider circuit breaker is open");
+        }
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                circuitBreaker.releasePermission();
+                throw new TransientFailureException("Payment provider bulkhead full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.releasePermission();
+            throw new TransientFailureException("Interrupted waiting for the payment provider bulkhead", e);
+        }
+        try {
+            return send(path, idempotencyKey, body, timeout);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private String send(String path, String idempotencyKey, Map<String, Object> body, Duration timeout) {
+        HttpResponse<String> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve(path))
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", idempotencyKey)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (HttpTimeoutException e) {
+            circuitBreaker.onFailure();
+            throw new TransientFailureException("Payment provider timed out after " + timeout.toMillis() + "ms", e);
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            throw new TransientFailureException("Payment provider unreachable: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.onFailure();
+            throw new TransientFailureException("Interrupted calling the payment provider", e);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+
+        int status = response.statusCode();
+        if (status >= 500 || status == 408 || status == 429) {
+            circuitBreaker.onFailure();
+            throw new TransientFailureException("Payment provider returned " + status + " for " + path);
+        }
+        circuitBreaker.onSuccess();
+        if (status >= 400) {
+            throw new PermanentFailureException("Payment provider rejected " + path + " with " + status
+                    + ": " + response.body());
+        }
+        try {
+            JsonNode json = objectMapper.readTree(response.body());
+            return json.path("id").asText();
+        } catch (IOException e) {
+            throw new TransientFailureException("Unreadable payment provider response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Time left for a call: the remainder of the current Activity attempt's
+     * start‑to‑close timeout minus the margin, capped by the default
+     * timeout.  Outside an Activity the default timeout applies.
+     */
+    private Duration callTimeout() {
+        return ActivityDeadline.remaining()
+                .map(remaining -> {
+                    Duration left = remaining.minus(deadlineMargin);
+                    if (left.isNegative() || left.isZero()) {
+                        throw new TransientFailureException(
+                                "No time left in this attempt to call the payment provider");
+                    }
+                    return left.compareTo(defaultTimeout) < 0 ? left : defaultTimeout;
+                })
+                .orElse(defaultTimeout);
+    }
+}
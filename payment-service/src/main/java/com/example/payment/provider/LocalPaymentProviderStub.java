@@ -0,0 +1,147 @@
+package com.example.payment.provider;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In‑process stand‑in for the payment provider's HTTP API, used for local
+ * runs and tests instead of a real provider.  It answers
+ * {@code POST /charges} and {@code POST /refunds} with a generated id,
+ * returning the same id again for a repeated {@code Idempotency-Key}.  Like
+ * a real provider it forgets a key after a while, {@code idempotencyKeyTtl},
+ * so the stub's memory stays bounded however long it runs.  The latency and
+ * the rate of {@code 503} responses can be changed at runtime to exercise
+ * the client's timeouts and circuit breaker.
+ */
+public class LocalPaymentProviderStub {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPaymentProviderStub.class);
+
+    private final int port;
+    private final long keyTtlNanos;
+    private final Map<String, KeyedId> idsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong nextPurgeNanos = new AtomicLong(System.nanoTime());
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param port port to listen on, {@code 0} for any free port
+     */
+    public LocalPaymentProviderStub(int port, long latencyMillis, double failureRate) {
+        this(port, latencyMillis, failureRate, Duration.ofHours(24));
+    }
+
+    /**
+     * @param port              port to listen on, {@code 0} for any free port
+     * @param idempotencyKeyTtl how long a repeated key returns the same id
+     */
+    public LocalPaymentProviderStub(int port, long latencyMillis, double failureRate, Duration idempotencyKeyTtl) {
+        this.port = port;
+        this.keyTtlNanos = idempotencyKeyTtl.toNanos();
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/charges", this::handle);
+        server.createContext("/refunds", this::handle);
+        server.start();
+        logger.info("Payment provider stub listening on {}", baseUrl());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public URI baseUrl() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getRequestBody().readAllBytes();
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+                return;
+            }
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                respond(exchange, 503, "{\"error\":\"unavailable\"}");
+                return;
+            }
+            String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            String id = key != null ? idFor(key) : UUID.randomUUID().toString();
+            respond(exchange, 201, "{\"id\":\"" + id + "\"}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String idFor(String key) {
+        long now = System.nanoTime();
+        purgeExpiredKeys(now);
+        return idsByKey.compute(key, (k, known) -> known != null && known.expiresAtNanos - now > 0
+                ? known
+                : new KeyedId(UUID.randomUUID().toString(), now + keyTtlNanos)).id;
+    }
+
+    /**
+     * Drops expired keys, at most ten times per TTL so that requests do not
+     * pay for a scan each.
+     */
+    private void purgeExpiredKeys(long now) {
+        long next = nextPurgeNanos.get();
+        if (now - next < 0 || !nextPurgeNanos.compareAndSet(next, now + keyTtlNanos / 10)) {
+            return;
+        }
+        idsByKey.values().removeIf(known -> known.expiresAtNanos - now <= 0);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record KeyedId(String id, long expiresAtNanos) {
+    }
+}
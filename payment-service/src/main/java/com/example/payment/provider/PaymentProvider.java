@@ -0,0 +1,31 @@
+package com.example.payment.provider;
+
+/**
+ * The external payment provider that moves the money.  Implementations
+ * signal failures with {@link com.example.common.failures.TransientFailureException}
+ * when a retry may succeed and with
+ * {@link com.example.common.failures.PermanentFailureException} when the
+ * provider rejected the request.
+ */
+public interface PaymentProvider {
+
+    /**
+     * Charges the customer.  Repeating a charge with the same reference
+     * does not charge twice.
+     *
+     * @param reference idempotency reference of the charge, e.g. the order
+     * @param amount    amount to charge
+     * @return the provider's id of the charge
+     */
+    String charge(String reference, double amount);
+
+    /**
+     * Refunds a charge.  Repeating a refund of the same charge does not
+     * refund twice.
+     *
+     * @param chargeId the provider's id of the charge
+     * @param amount   amount to refund
+     * @return the provider's id of the refund
+     */
+    String refund(String chargeId, double amount);
+}
@@ -0,0 +1,23 @@
+package com.example.payment.repository;
+
+import com.example.payment.entity.PaymentAggregatesCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PaymentAggregatesCheckpointRepository extends JpaRepository<PaymentAggregatesCheckpoint, Long> {
+
+    /**
+     * Reads the watermark and locks it until the end of the transaction, so
+     * that two instances never fold the same payments into the summary.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from PaymentAggregatesCheckpoint c where c.id = :id")
+    Optional<PaymentAggregatesCheckpoint> findForUpdate(@Param("id") Long id);
+}
@@ -1,9 +1,109 @@
 package com.example.payment.repository;
 
 import com.example.payment.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Returns all payments recorded for an order.
+     */
+    List<Payment> findByOrderId(Long orderId);
+
+    /**
+     * Returns the payment recording a provider charge.
+     */
+    Optional<Payment> findByExternalId(String externalId);
+
+    /**
+     * Returns payments that may be archived, in id order after
+     * {@code afterId}: created before {@code cutoff} and already folded
+     * into the aggregates checkpoint, both their debit (id up to
+     * {@code lastFoldedId}) and their refund, if any (refunded up to
+     * {@code refundsFoldedUpTo}).
+     */
+    @Query("select p from Payment p "
+            + "where p.id > :afterId and p.id <= :lastFoldedId and p.createdAt < :cutoff "
+            + "and (p.refunded = false or p.refundedAt <= :refundsFoldedUpTo) "
+            + "order by p.id")
+    List<Payment> findArchivable(@Param("afterId") long afterId,
+                                 @Param("lastFoldedId") long lastFoldedId,
+                                 @Param("cutoff") Instant cutoff,
+                                 @Param("refundsFoldedUpTo") Instant refundsFoldedUpTo,
+                                 Pageable pageable);
+
+    /**
+     * Deletes the given payments unless their refund state changed since
+     * they were read, and returns the number of rows deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Payment p where p.id in :ids and p.refunded = :refunded")
+    int deleteByIdInAndRefunded(@Param("ids") Collection<Long> ids, @Param("refunded") boolean refunded);
+
+    /**
+     * Returns the highest id of the payments after {@code afterId} that were
+     * created up to {@code settled}, or {@code null} if there is none.
+     */
+    @Query("select max(p.id) from Payment p where p.id > :afterId and p.createdAt <= :settled")
+    Long findLastIdCreatedUpTo(@Param("afterId") long afterId, @Param("settled") Instant settled);
+
+    /**
+     * Computes per‑product debit totals of the payments with an id in
+     * {@code (afterId, upToId]}.  Each row holds productId, payment count
+     * and revenue.
+     */
+    @Query("select p.productId, count(p), sum(p.amount) from Payment p "
+            + "where p.id > :afterId and p.id <= :upToId group by p.productId")
+    List<Object[]> summarizeDebits(@Param("afterId") long afterId, @Param("upToId") long upToId);
+
+    /**
+     * Computes per‑product refund totals of the payments refunded in
+     * {@code (after, upTo]}.  Each row holds productId, refund count and
+     * refunded amount.
+     */
+    @Query("select p.productId, count(p), sum(p.amount) from Payment p "
+            + "where p.refunded = true and p.refundedAt > :after and p.refundedAt <= :upTo group by p.productId")
+    List<Object[]> summarizeRefunds(@Param("after") Instant after, @Param("upTo") Instant upTo);
+
+    /**
+     * Keyset pagination over payments ordered by {@code (orderId, id)}.
+     * Returns payments positioned after {@code (afterOrderId, afterId)} with
+     * an order id of at most {@code toOrderId}.  Unlike offset pagination the
+     * cost of a page does not grow with its position.
+     */
+    @Query("select p from Payment p "
+            + "where (p.orderId > :afterOrderId or (p.orderId = :afterOrderId and p.id > :afterId)) "
+            + "and p.orderId <= :toOrderId "
+            + "order by p.orderId, p.id")
+    List<Payment> findPageOrderedByOrderId(@Param("afterOrderId") long afterOrderId,
+                                           @Param("afterId") long afterId,
+                                           @Param("toOrderId") long toOrderId,
+                                           Pageable pageable);
+
+    /**
+     * Returns ids of a product's payments that have not been refunded and
+     * were created from {@code since} on, in id order after
+     * {@code afterId}.  Used to page through a product recall.
+     */
+    @Query("select p.id from Payment p "
+            + "where p.productId = :productId and p.refunded = false and p.id > :afterId "
+            + "and p.createdAt >= :since "
+            + "order by p.id")
+    List<Long> findRefundableIdsByProductId(@Param("productId") Long productId,
+                                            @Param("afterId") Long afterId,
+                                            @Param("since") Instant since,
+                                            Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.example.payment.repository;
+
+import com.example.payment.entity.ProductPaymentSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductPaymentSummaryRepository extends JpaRepository<ProductPaymentSummary, Long> {
+}
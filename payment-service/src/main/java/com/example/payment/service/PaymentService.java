@@ -1,23 +1,46 @@
 package com.example.payment.service;
 
+import com.example.common.jfr.AuditWriteEvent;
+import com.example.common.jfr.FlightEvents;
+import com.example.common.jfr.ServiceCallEvent;
+import com.example.common.tracing.Tracing;
+import com.example.payment.aggregate.PaymentAggregates;
 import com.example.payment.entity.Payment;
+import com.example.payment.provider.PaymentProvider;
 import com.example.payment.repository.PaymentRepository;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.List;
+import java.util.Optional;
 
 /**
- * Business service encapsulating payment processing.  In a real system this
- * would call an external payment processor such as Stripe or PayPal.  Here
- * we simulate the call by generating a UUID to represent the external
- * transaction ID and then persist the payment via JPA.
+ * Business service encapsulating payment processing.  Money is moved by the
+ * external {@link PaymentProvider}; the provider's charge and refund ids are
+ * recorded with the payment, which is persisted via JPA.  Provider calls
+ * are idempotent, so an Activity retry after a failed save does not charge
+ * or refund twice, and the charge id is unique among payments, so a retry
+ * after a successful save does not record the charge twice.
+ * <p>
+ * Debits, refunds and audit log writes are timed with Flight Recorder
+ * events (see {@link com.example.common.jfr.SagaEvent}).
+ * <p>
+ * Payments older than {@code payment.refundWindow} can no longer be
+ * refunded.  The window is the cut-off shared with
+ * {@link com.example.payment.archive.PaymentArchiver}, which only archives
+ * payments outside it, so a refund never needs an archived payment.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,70 +49,179 @@ public class PaymentService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
     private final PaymentRepository paymentRepository;
+    private final PaymentAggregates paymentAggregates;
+    private final PaymentProvider paymentProvider;
+    private final Tracer tracer;
+
+    @Value("${payment.refundWindow:P30D}")
+    private Duration refundWindow;
 
     /**
-     * Debits the customer's payment method for the given amount and records
-     * the transaction.  A random UUID is used to simulate the external
-     * payment ID.  This method is idempotent because a duplicate payment
-     * would result in a separate row with a new external ID.  To avoid
-     * duplicate charges in production you would perform idempotency checks.
+     * Debits the customer's payment method for the given amount through
+     * the payment provider and records the transaction.  The charge is keyed
+     * by {@code chargeKey}, so the provider charges only once for retries
+     * that pass the same key, and a charge that is already recorded is
+     * returned instead of being recorded again.
      *
+     * @param chargeKey idempotency key of the charge, unique per saga run
      * @param orderId   the identifier of the order being charged
      * @param productId the product being purchased
      * @param amount    the total charge amount
      * @return the payment ID that can be used for refunds
      */
-    public Long debit(Long orderId, Long productId, Double amount) {
-        String externalId = UUID.randomUUID().toString();
-        logger.info("Charging order {} for amount {} (externalId={})", orderId, amount, externalId);
+    public Long debit(String chargeKey, Long orderId, Long productId, Double amount) {
+        return FlightEvents.record(new ServiceCallEvent("PaymentService.debit", orderId),
+                () -> chargeAndRecord(chargeKey, orderId, productId, amount));
+    }
+
+    private Long chargeAndRecord(String chargeKey, Long orderId, Long productId, Double amount) {
+        String externalId = Tracing.inSpan(tracer, "PaymentProvider.charge", SpanKind.CLIENT,
+                () -> paymentProvider.charge(chargeKey, amount));
+        logger.info("Charged order {} for amount {} (externalId={})", orderId, amount, externalId);
+
+        // A retry after a save that succeeded but was not acknowledged
+        Optional<Payment> recorded = findByExternalId(externalId);
+        if (recorded.isPresent()) {
+            logger.info("Charge {} of order {} is already recorded as payment {}",
+                    externalId, orderId, recorded.get().getId());
+            return recorded.get().getId();
+        }
         
         // Write to a file for debugging purposes
-        writeToLogFile("PAYMENT_DEBIT", "Order: " + orderId + ", Amount: " + amount + ", ExternalId: " + externalId);
+        writeToLogFile(orderId, "PAYMENT_DEBIT", "Order: " + orderId + ", Amount: " + amount + ", ExternalId: " + externalId);
         
         Payment payment = Payment.builder()
                 .orderId(orderId)
                 .productId(productId)
                 .amount(amount)
                 .externalId(externalId)
+                .createdAt(Instant.now())
                 .build();
-        Payment savedPayment = paymentRepository.save(payment);
+        Payment savedPayment;
+        try {
+            savedPayment = Tracing.inSpan(tracer, "PaymentRepository.save", SpanKind.CLIENT,
+                    () -> paymentRepository.save(payment));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent attempt recorded the same charge first
+            return findByExternalId(externalId).orElseThrow(() -> e).getId();
+        }
+        paymentAggregates.recordDebit(productId, amount);
         return savedPayment.getId();
     }
+
+    private Optional<Payment> findByExternalId(String externalId) {
+        return Tracing.inSpan(tracer, "PaymentRepository.findByExternalId", SpanKind.CLIENT,
+                () -> paymentRepository.findByExternalId(externalId));
+    }
     
     /**
-     * Refunds a payment previously made. In a real system, this would call an external
-     * payment processor to issue a refund. Here we simulate the refund by logging it.
+     * Refunds a payment previously made through the payment provider.
+     * Refunding a payment again is harmless.
      *
      * @param paymentId the ID of the payment to refund
+     * @throws IllegalArgumentException if the payment does not exist
+     * @throws IllegalStateException    if the payment is outside the refund
+     *                                  window
      */
     public void refund(Long paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
+        ServiceCallEvent event = new ServiceCallEvent("PaymentService.refund", null);
+        FlightEvents.run(event, () -> refundAndRecord(paymentId, event));
+    }
+
+    private void refundAndRecord(Long paymentId, ServiceCallEvent event) {
+        Payment payment = Tracing.inSpan(tracer, "PaymentRepository.findById", SpanKind.CLIENT,
+                () -> paymentRepository.findById(paymentId))
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+        event.setOrderId(payment.getOrderId());
+        if (!payment.isRefunded() && !isRefundable(payment)) {
+            throw new IllegalStateException("Payment " + paymentId + " is outside the refund window");
+        }
         
-        String refundId = UUID.randomUUID().toString();
-        logger.info("Refunding payment {} for amount {} (refundId={})", 
+        String refundId = Tracing.inSpan(tracer, "PaymentProvider.refund", SpanKind.CLIENT,
+                () -> paymentProvider.refund(payment.getExternalId(), payment.getAmount()));
+        logger.info("Refunded payment {} for amount {} (refundId={})", 
                 paymentId, payment.getAmount(), refundId);
         
         // Write to a file for debugging purposes
-        writeToLogFile("PAYMENT_REFUND", "Payment: " + paymentId + 
+        writeToLogFile(payment.getOrderId(), "PAYMENT_REFUND", "Payment: " + paymentId + 
                 ", Amount: " + payment.getAmount() + 
                 ", RefundId: " + refundId + 
                 ", OrderId: " + payment.getOrderId());
         
         // In a real system, you might update the payment status or create a refund record
+        boolean alreadyRefunded = payment.isRefunded();
         payment.setRefunded(true);
         payment.setRefundId(refundId);
-        paymentRepository.save(payment);
+        if (!alreadyRefunded) {
+            payment.setRefundedAt(Instant.now());
+        }
+        Tracing.inSpan(tracer, "PaymentRepository.save", SpanKind.CLIENT, () -> paymentRepository.save(payment));
+        // A retried refund must not be counted twice in the aggregates
+        if (!alreadyRefunded) {
+            paymentAggregates.recordRefund(payment.getProductId(), payment.getAmount());
+        }
     }
     
     /**
-     * Writes a log entry to a file for debugging purposes
+     * Refunds several payments, loading them with one read.  Each refund is
+     * saved as soon as the provider has made it, so a failure part way
+     * through leaves every refund made so far recorded and a retry does not
+     * ask the provider again.  Payments that are already refunded, outside
+     * the refund window or do not exist are skipped, which makes the call
+     * safe to repeat.
+     *
+     * @param paymentIds the payments to refund
+     * @return the number of payments refunded by this call
      */
-    private void writeToLogFile(String action, String details) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("/tmp/saga_payment_log.txt", true))) {
-            writer.println(LocalDateTime.now() + " - " + action + " - " + details);
-        } catch (IOException e) {
-            logger.error("Failed to write to log file", e);
+    public int refundAll(List<Long> paymentIds) {
+        List<Payment> payments = Tracing.inSpan(tracer, "PaymentRepository.findAllById", SpanKind.CLIENT,
+                () -> paymentRepository.findAllById(paymentIds)).stream()
+                .filter(p -> !p.isRefunded() && isRefundable(p))
+                .toList();
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        for (Payment payment : payments) {
+            String refundId = Tracing.inSpan(tracer, "PaymentProvider.refund", SpanKind.CLIENT,
+                    () -> paymentProvider.refund(payment.getExternalId(), payment.getAmount()));
+            payment.setRefunded(true);
+            payment.setRefundId(refundId);
+            payment.setRefundedAt(Instant.now());
+            Tracing.inSpan(tracer, "PaymentRepository.save", SpanKind.CLIENT, () -> paymentRepository.save(payment));
+            paymentAggregates.recordRefund(payment.getProductId(), payment.getAmount());
         }
+        writeToLogFile(null, "PAYMENT_BULK_REFUND", "Payments: " + payments.size()
+                + ", FirstId: " + payments.get(0).getId()
+                + ", LastId: " + payments.get(payments.size() - 1).getId());
+        return payments.size();
+    }
+
+    /**
+     * Returns the creation time from which on payments can be refunded.
+     */
+    public Instant refundableSince() {
+        return Instant.now().minus(refundWindow);
+    }
+
+    private boolean isRefundable(Payment payment) {
+        return payment.getCreatedAt() == null || !payment.getCreatedAt().isBefore(refundableSince());
+    }
+
+    /**
+     * Writes a log entry to a file for debugging purposes
+     */
+    private void writeToLogFile(Long orderId, String action, String details) {
+        AuditWriteEvent event = new AuditWriteEvent(action, orderId);
+        event.begin();
+        Tracing.inSpan(tracer, "AuditLog.write", () -> {
+            try (PrintWriter writer = new PrintWriter(new FileWriter("/tmp/saga_payment_log.txt", true))) {
+                writer.println(LocalDateTime.now() + " - " + action + " - " + details);
+                event.succeeded();
+            } catch (IOException e) {
+                event.failed(e);
+                logger.error("Failed to write to log file", e);
+            }
+        });
+        event.commit();
     }
 }
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.example.payment.service;
+
+import com.example.common.dto.BulkRefundProgress;
+import com.example.common.dto.BulkRefundRequest;
+import com.example.common.dto.OrderPriority;
+import com.example.common.workflows.BulkRefundWorkflow;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Starts, inspects and cancels product recalls.  A recall is a
+ * {@link BulkRefundWorkflow} with the workflow id {@code recall-<productId>}
+ * running on the bulk lane of the payment task queue, so at most one recall
+ * per product runs at a time.  Starting a recall again after it finished or
+ * was cancelled refunds whatever has not been refunded yet.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecallService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecallService.class);
+
+    private final WorkflowClient workflowClient;
+
+    @Value("${temporal.payment.taskQueue:PAYMENT_ACTIVITY_TASK_QUEUE}")
+    private String paymentTaskQueue;
+
+    @Value("${payment.recalls.pageSize:5000}")
+    private int pageSize;
+
+    @Value("${payment.recalls.batchSize:500}")
+    private int batchSize;
+
+    @Value("${payment.recalls.concurrency:8}")
+    private int defaultConcurrency;
+
+    @Value("${payment.recalls.pagesPerRun:20}")
+    private int pagesPerRun;
+
+    /**
+     * Starts refunding every payment of a product.
+     *
+     * @param productId   the recalled product
+     * @param concurrency refund Activities in flight, or {@code null} for
+     *                    the configured default
+     * @return the workflow id of the recall
+     * @throws io.temporal.client.WorkflowExecutionAlreadyStarted if a recall
+     *         of the product is already running
+     */
+    public String startRecall(Long productId, Integer concurrency) {
+        String workflowId = workflowId(productId);
+        WorkflowOptions options = WorkflowOptions.newBuilder()
+                .setWorkflowId(workflowId)
+                .setTaskQueue(OrderPriority.BULK.taskQueue(paymentTaskQueue))
+                .build();
+        BulkRefundWorkflow workflow = workflowClient.newWorkflowStub(BulkRefundWorkflow.class, options);
+        BulkRefundRequest request = new BulkRefundRequest(productId, pageSize, batchSize,
+                concurrency != null ? Math.max(1, concurrency) : defaultConcurrency, pagesPerRun, null);
+        WorkflowClient.start(workflow::refundProduct, request);
+        logger.info("Started recall {} with concurrency {}", workflowId, request.getConcurrency());
+        return workflowId;
+    }
+
+    /**
+     * Returns the progress of the latest recall of a product.
+     *
+     * @throws io.temporal.client.WorkflowNotFoundException if the product
+     *         was never recalled
+     */
+    public BulkRefundProgress progress(Long productId) {
+        return workflowClient.newWorkflowStub(BulkRefundWorkflow.class, workflowId(productId)).getProgress();
+    }
+
+    /**
+     * Requests cancellation of the running recall of a product.
+     */
+    public void cancel(Long productId) {
+        workflowClient.newUntypedWorkflowStub(workflowId(productId)).cancel();
+        logger.info("Requested cancellation of recall {}", workflowId(productId));
+    }
+
+    private static String workflowId(Long productId) {
+        return "recall-" + productId;
+    }
+}
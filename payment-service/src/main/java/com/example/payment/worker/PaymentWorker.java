@@ -1,22 +1,43 @@
 package com.example.payment.worker;
 
 import com.example.payment.activity.PaymentActivityImpl;
+import com.example.payment.activity.RefundBatchActivityImpl;
+import com.example.payment.workflow.BulkRefundWorkflowImpl;
+import com.example.common.dto.OrderPriority;
+import com.example.common.tuning.ActivitySlotTuning;
+import com.example.common.failures.PermanentFailureException;
+import io.temporal.activity.ActivityCancellationType;
+import io.temporal.activity.ActivityOptions;
 import io.temporal.client.WorkflowClient;
+import io.temporal.common.RetryOptions;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkflowImplementationOptions;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
 
+import java.time.Duration;
+
 /**
  * Creates a Temporal worker for the payment service.  The worker polls
  * the payment task queue for activities and executes the
  * {@link PaymentActivityImpl}.  This component starts automatically when
- * the Spring application context is initialised.
+ * the Spring application context is initialised.  Each
+ * {@link OrderPriority} lane is polled by its own worker with
+ * {@code temporal.lanes.<lane>.activityConcurrency} activity slots, or up
+ * to that many when {@link ActivitySlotTuning} sizes them by resource usage.
+ * <p>
+ * The bulk lane also hosts the {@link BulkRefundWorkflowImpl} used for
+ * product recalls together with its {@link RefundBatchActivityImpl}, so
+ * recall refunds share the bulk lane's slots and never compete with
+ * express checkouts.
  */
 @Component
 @RequiredArgsConstructor
@@ -25,7 +46,11 @@ public class PaymentWorker {
     private static final Logger logger = LoggerFactory.getLogger(PaymentWorker.class);
 
     private final WorkflowClient workflowClient;
+    private final WorkerFactoryOptions workerFactoryOptions;
+    private final Environment environment;
+    private final ActivitySlotTuning activitySlotTuning;
     private final PaymentActivityImpl paymentActivity;
+    private final RefundBatchActivityImpl refundBatchActivity;
 
     /**
      * The name of the task queue that the payment worker listens on.  This
@@ -35,12 +60,51 @@ public class PaymentWorker {
     @Value("${temporal.payment.taskQueue:PAYMENT_ACTIVITY_TASK_QUEUE}")
     private String paymentTaskQueue;
 
+    /** Time budget of one refund batch attempt. */
+    @Value("${payment.recalls.batchTimeout:PT5M}")
+    private Duration batchTimeout;
+
+    /** Refund batches that miss a heartbeat for this long are retried. */
+    @Value("${payment.recalls.heartbeatTimeout:PT30S}")
+    private Duration heartbeatTimeout;
+
     @PostConstruct
     public void start() {
-        WorkerFactory factory = WorkerFactory.newInstance(workflowClient);
-        Worker worker = factory.newWorker(paymentTaskQueue);
-        worker.registerActivitiesImplementations(paymentActivity);
+        WorkerFactory factory = WorkerFactory.newInstance(workflowClient, workerFactoryOptions);
+        // One worker per priority lane, each with its own activity slots, so
+        // bulk orders cannot starve express orders of capacity.
+        for (OrderPriority lane : OrderPriority.values()) {
+            String taskQueue = lane.taskQueue(paymentTaskQueue);
+            int concurrency = environment.getProperty(
+                    "temporal.lanes." + lane.key() + ".activityConcurrency", Integer.class, 200);
+            Worker worker = factory.newWorker(taskQueue, activitySlotTuning.workerOptions(taskQueue, concurrency));
+            worker.registerActivitiesImplementations(paymentActivity);
+            if (lane == OrderPriority.BULK) {
+                worker.registerWorkflowImplementationTypes(bulkRefundOptions(), BulkRefundWorkflowImpl.class);
+                worker.registerActivitiesImplementations(refundBatchActivity);
+            }
+            logger.info("Payment worker polling task queue {} with {} activity slots ({})",
+                    taskQueue, concurrency, activitySlotTuning.getMode());
+        }
         factory.start();
-        logger.info("Payment worker started and polling task queue: {}", paymentTaskQueue);
+        logger.info("Payment worker started");
+    }
+
+    /**
+     * Options of the bulk refund workflow's Activities.  Cancellation waits
+     * until a running batch has acknowledged it through its heartbeat, so no
+     * refund is still being written once the workflow reports cancelled.
+     */
+    private WorkflowImplementationOptions bulkRefundOptions() {
+        return WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(batchTimeout)
+                        .setHeartbeatTimeout(heartbeatTimeout)
+                        .setCancellationType(ActivityCancellationType.WAIT_CANCELLATION_COMPLETED)
+                        .setRetryOptions(RetryOptions.newBuilder()
+                                .setDoNotRetry(PermanentFailureException.class.getName())
+                                .build())
+                        .build())
+                .build();
     }
-}
\ No newline at end of file
+}
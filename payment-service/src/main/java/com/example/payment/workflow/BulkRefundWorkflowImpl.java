@@ -0,0 +1,103 @@
+package com.example.payment.workflow;
+
+import com.example.common.activities.RefundBatchActivity;
+import com.example.common.dto.BulkRefundProgress;
+import com.example.common.dto.BulkRefundRequest;
+import com.example.common.workflows.BulkRefundWorkflow;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.CancellationScope;
+import io.temporal.workflow.Promise;
+import io.temporal.workflow.Workflow;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Implementation of the {@link BulkRefundWorkflow}.  Each page of payment
+ * ids is split into batches that are refunded by {@link RefundBatchActivity}
+ * with at most {@code concurrency} Activities in flight; a new batch starts
+ * as soon as one finishes.  The cursor only advances once a whole page is
+ * done, so a retried, cancelled or continued run never skips a payment.
+ * After {@code pagesPerRun} pages, or earlier if the server suggests it,
+ * the workflow continues as new with its progress.
+ * <p>
+ * Activity options, including the heartbeat timeout that delivers
+ * cancellation to running batches, are supplied by
+ * {@link com.example.payment.worker.PaymentWorker}.
+ */
+public class BulkRefundWorkflowImpl implements BulkRefundWorkflow {
+
+    private final RefundBatchActivity refundBatchActivity = Workflow.newActivityStub(RefundBatchActivity.class);
+    private final Logger logger = Workflow.getLogger(BulkRefundWorkflowImpl.class);
+    private BulkRefundProgress progress = new BulkRefundProgress();
+
+    @Override
+    public void refundProduct(BulkRefundRequest request) {
+        if (request.getProgress() != null) {
+            progress = request.getProgress();
+        }
+        progress.setRuns(progress.getRuns() + 1);
+        logger.info("Bulk refund of product {} run {} resuming after payment {}",
+                request.getProductId(), progress.getRuns(), progress.getLastPaymentId());
+        try {
+            for (int page = 0; page < request.getPagesPerRun(); page++) {
+                List<Long> paymentIds = refundBatchActivity.listRefundablePaymentIds(
+                        request.getProductId(), progress.getLastPaymentId(), request.getPageSize());
+                if (paymentIds.isEmpty()) {
+                    progress.setDone(true);
+                    logger.info("Bulk refund of product {} done: {} payments refunded",
+                            request.getProductId(), progress.getRefunded());
+                    return;
+                }
+                refundPage(paymentIds, request);
+                progress.setLastPaymentId(paymentIds.get(paymentIds.size() - 1));
+                progress.setScanned(progress.getScanned() + paymentIds.size());
+                if (Workflow.getInfo().isContinueAsNewSuggested()) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            if (CancellationScope.current().isCancelRequested()) {
+                progress.setCancelled(true);
+                logger.info("Bulk refund of product {} cancelled after {} refunds",
+                        request.getProductId(), progress.getRefunded());
+            }
+            throw e;
+        }
+        Workflow.continueAsNew(new BulkRefundRequest(request.getProductId(), request.getPageSize(),
+                request.getBatchSize(), request.getConcurrency(), request.getPagesPerRun(), progress));
+    }
+
+    @Override
+    public BulkRefundProgress getProgress() {
+        return progress;
+    }
+
+    private void refundPage(List<Long> paymentIds, BulkRefundRequest request) {
+        List<Promise<Integer>> running = new ArrayList<>();
+        for (int from = 0; from < paymentIds.size(); from += request.getBatchSize()) {
+            if (running.size() >= request.getConcurrency()) {
+                Promise.anyOf(running).get();
+                collectCompleted(running);
+            }
+            List<Long> batch = new ArrayList<>(
+                    paymentIds.subList(from, Math.min(paymentIds.size(), from + request.getBatchSize())));
+            running.add(Async.function(refundBatchActivity::refundBatch, batch));
+        }
+        Promise.allOf(running).get();
+        collectCompleted(running);
+    }
+
+    private void collectCompleted(List<Promise<Integer>> running) {
+        Iterator<Promise<Integer>> it = running.iterator();
+        while (it.hasNext()) {
+            Promise<Integer> batch = it.next();
+            if (batch.isCompleted()) {
+                progress.setRefunded(progress.getRefunded() + batch.get());
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.payment.activity;
+
+import com.example.common.activities.RefundBatchActivity;
+import com.example.payment.aggregate.PaymentAggregates;
+import com.example.payment.entity.Payment;
+import com.example.payment.provider.PaymentProvider;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService;
+import io.opentelemetry.api.OpenTelemetry;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.failure.ActivityFailure;
+import io.temporal.failure.CanceledFailure;
+import io.temporal.testing.TestActivityEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefundBatchActivityImplTest {
+
+    private final Map<Long, Payment> payments = new ConcurrentHashMap<>();
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentProvider paymentProvider = mock(PaymentProvider.class);
+    private final PaymentAggregates paymentAggregates = mock(PaymentAggregates.class);
+    private final List<Integer> heartbeats = new ArrayList<>();
+    private TestActivityEnvironment testEnv;
+    private RefundBatchActivity activity;
+
+    @BeforeEach
+    void setUp() {
+        when(paymentRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Payment> found = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (payments.containsKey(id)) {
+                    found.add(copy(payments.get(id)));
+                }
+            }
+            return found;
+        });
+        when(paymentRepository.save(any())).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payments.put(payment.getId(), copy(payment));
+            return payment;
+        });
+        when(paymentProvider.refund(anyString(), anyDouble())).thenAnswer(i -> "re_" + i.getArgument(0));
+
+        PaymentService paymentService = new PaymentService(paymentRepository, paymentAggregates, paymentProvider,
+                OpenTelemetry.noop().getTracer("test"));
+        ReflectionTestUtils.setField(paymentService, "refundWindow", Duration.ofDays(30));
+        RefundBatchActivityImpl impl = new RefundBatchActivityImpl(paymentRepository, paymentService);
+        ReflectionTestUtils.setField(impl, "chunkSize", 2);
+
+        testEnv = TestActivityEnvironment.newInstance();
+        testEnv.registerActivitiesImplementations(impl);
+        testEnv.setActivityHeartbeatListener(Integer.class, heartbeats::add);
+        activity = testEnv.newActivityStub(RefundBatchActivity.class, ActivityOptions.newBuilder()
+                .setStartToCloseTimeout(Duration.ofSeconds(10))
+                .setRetryOptions(RetryOptions.newBuilder().setMaximumAttempts(1).build())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEnv.close();
+    }
+
+    @Test
+    void refundsInChunksAndHeartbeatsProgress() {
+        LongStream.rangeClosed(1, 5).forEach(id -> payments.put(id, payment(id, false)));
+
+        assertThat(activity.refundBatch(List.of(1L, 2L, 3L, 4L, 5L))).isEqualTo(5);
+
+        // Later heartbeats are throttled by the SDK
+        assertThat(heartbeats).startsWith(0);
+        verify(paymentRepository, times(3)).findAllById(any());
+        assertThat(payments.values()).allSatisfy(p -> {
+            assertThat(p.isRefunded()).isTrue();
+            assertThat(p.getRefundId()).isEqualTo("re_ch_" + p.getId());
+        });
+        verify(paymentAggregates, times(5)).recordRefund(7L, 10.0);
+    }
+
+    @Test
+    void refundedAndMissingPaymentsAreSkipped() {
+        payments.put(1L, payment(1L, true));
+        payments.put(2L, payment(2L, false));
+
+        assertThat(activity.refundBatch(List.of(1L, 2L, 3L))).isEqualTo(1);
+
+        verify(paymentProvider, never()).refund(eq("ch_1"), anyDouble());
+        verify(paymentProvider).refund("ch_2", 10.0);
+    }
+
+    @Test
+    void refundsMadeBeforeAFailureStayRecorded() {
+        LongStream.rangeClosed(1, 2).forEach(id -> payments.put(id, payment(id, false)));
+        when(paymentProvider.refund(eq("ch_2"), anyDouble())).thenThrow(new IllegalStateException("provider down"));
+
+        assertThatThrownBy(() -> activity.refundBatch(List.of(1L, 2L))).isInstanceOf(ActivityFailure.class);
+
+        assertThat(payments.get(1L).isRefunded()).isTrue();
+        assertThat(payments.get(2L).isRefunded()).isFalse();
+
+        // The retry only asks the provider for what is still missing
+        when(paymentProvider.refund(eq("ch_2"), anyDouble())).thenReturn("re_ch_2");
+        assertThat(activity.refundBatch(List.of(1L, 2L))).isEqualTo(1);
+        verify(paymentProvider, times(1)).refund("ch_1", 10.0);
+    }
+
+    @Test
+    void cancelledBatchRefundsNothingMore() {
+        LongStream.rangeClosed(1, 4).forEach(id -> payments.put(id, payment(id, false)));
+        testEnv.requestCancelActivity();
+
+        assertThatThrownBy(() -> activity.refundBatch(List.of(1L, 2L, 3L, 4L)))
+                .isInstanceOf(CanceledFailure.class);
+
+        verify(paymentProvider, never()).refund(anyString(), anyDouble());
+    }
+
+    @Test
+    void listsRefundableIdsFromTheRefundWindow() {
+        when(paymentRepository.findRefundableIdsByProductId(eq(7L), eq(3L), any(), any())).thenReturn(List.of(4L, 5L));
+
+        assertThat(activity.listRefundablePaymentIds(7L, 3L, 2)).containsExactly(4L, 5L);
+    }
+
+    private static Payment payment(Long id, boolean refunded) {
+        return Payment.builder()
+                .id(id)
+                .orderId(id)
+                .productId(7L)
+                .amount(10.0)
+                .externalId("ch_" + id)
+                .refunded(refunded)
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private static Payment copy(Payment payment) {
+        return Payment.builder()
+                .id(payment.getId())
+                .orderId(payment.getOrderId())
+                .productId(payment.getProductId())
+                .amount(payment.getAmount())
+                .externalId(payment.getExternalId())
+                .refunded(payment.isRefunded())
+                .refundId(payment.getRefundId())
+                .refundedAt(payment.getRefundedAt())
+                .createdAt(payment.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.payment.aggregate;
+
+import com.example.payment.dto.ProductPaymentAggregate;
+import com.example.payment.entity.Payment;
+import com.example.payment.repository.PaymentAggregatesCheckpointRepository;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.ProductPaymentSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentAggregatesTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private ProductPaymentSummaryRepository summaryRepository;
+    @Autowired
+    private PaymentAggregatesCheckpointRepository checkpointRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+        summaryRepository.deleteAll();
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void restoreReplaysPaymentsPastTheWatermark() {
+        PaymentAggregates before = newAggregates();
+        debit(before, 7L, 10.0);
+        Payment refunded = debit(before, 7L, 20.0);
+        debit(before, 8L, 5.0);
+        before.checkpoint();
+
+        // Changes after the checkpoint, then a crash without another one
+        refund(before, refunded);
+        debit(before, 7L, 30.0);
+        debit(before, 9L, 1.0);
+
+        PaymentAggregates after = newAggregates();
+
+        assertThat(after.snapshot()).isEqualTo(before.snapshot()).containsExactly(
+                new ProductPaymentAggregate(7L, 3, 60.0, 1, 20.0),
+                new ProductPaymentAggregate(8L, 1, 5.0, 0, 0.0),
+                new ProductPaymentAggregate(9L, 1, 1.0, 0, 0.0));
+    }
+
+    @Test
+    void repeatedCheckpointsFoldEachPaymentOnce() {
+        PaymentAggregates aggregates = newAggregates();
+        Payment payment = debit(aggregates, 7L, 10.0);
+        aggregates.checkpoint();
+        aggregates.checkpoint();
+        refund(aggregates, payment);
+        aggregates.checkpoint();
+        aggregates.checkpoint();
+
+        assertThat(summaryRepository.findById(7L)).hasValueSatisfying(s -> {
+            assertThat(s.getPaymentCount()).isEqualTo(1);
+            assertThat(s.getRevenue()).isEqualTo(10.0);
+            assertThat(s.getRefundCount()).isEqualTo(1);
+            assertThat(s.getRefundedAmount()).isEqualTo(10.0);
+        });
+        assertThat(newAggregates().snapshot()).containsExactly(new ProductPaymentAggregate(7L, 1, 10.0, 1, 10.0));
+    }
+
+    @Test
+    void checkpointSkipsPaymentsThatHaveNotSettled() {
+        PaymentAggregates aggregates = newAggregates();
+        ReflectionTestUtils.setField(aggregates, "settleDelay", Duration.ofMinutes(1));
+        debit(aggregates, 7L, 10.0);
+        aggregates.checkpoint();
+
+        assertThat(summaryRepository.findById(7L)).isEmpty();
+        assertThat(newAggregates().snapshot()).containsExactly(new ProductPaymentAggregate(7L, 1, 10.0, 0, 0.0));
+    }
+
+    @Test
+    void reloadAfterCheckpointPicksUpOtherInstancesPayments() {
+        PaymentAggregates first = newAggregates();
+        PaymentAggregates second = newAggregates();
+        Payment payment = debit(first, 7L, 10.0);
+        debit(second, 7L, 5.0);
+        first.checkpointAndReload();
+        refund(second, payment);
+
+        second.checkpointAndReload();
+        first.checkpointAndReload();
+
+        ProductPaymentAggregate expected = new ProductPaymentAggregate(7L, 2, 15.0, 1, 10.0);
+        assertThat(first.snapshot()).containsExactly(expected);
+        assertThat(second.snapshot()).containsExactly(expected);
+        assertThat(newAggregates().snapshot()).containsExactly(expected);
+    }
+
+    @Test
+    void debitRolledBackIsNotCounted() {
+        PaymentAggregates aggregates = newAggregates();
+        transactionTemplate.executeWithoutResult(status -> {
+            debit(aggregates, 7L, 10.0);
+            status.setRollbackOnly();
+        });
+
+        assertThat(aggregates.snapshot()).isEmpty();
+    }
+
+    private PaymentAggregates newAggregates() {
+        PaymentAggregates aggregates = new PaymentAggregates(summaryRepository, checkpointRepository,
+                paymentRepository, transactionTemplate);
+        ReflectionTestUtils.setField(aggregates, "settleDelay", Duration.ZERO);
+        aggregates.restore();
+        return aggregates;
+    }
+
+    private Payment debit(PaymentAggregates aggregates, Long productId, double amount) {
+        Payment payment = paymentRepository.save(Payment.builder()
+                .orderId(1L)
+                .productId(productId)
+                .amount(amount)
+                .createdAt(Instant.now())
+                .build());
+        aggregates.recordDebit(productId, amount);
+        return payment;
+    }
+
+    private void refund(PaymentAggregates aggregates, Payment payment) {
+        payment.setRefunded(true);
+        payment.setRefundedAt(Instant.now());
+        paymentRepository.save(payment);
+        aggregates.recordRefund(payment.getProductId(), payment.getAmount());
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.payment.archive;
+
+import com.example.common.archive.SegmentArchive;
+import com.example.payment.entity.Payment;
+import com.example.payment.entity.PaymentAggregatesCheckpoint;
+import com.example.payment.repository.PaymentAggregatesCheckpointRepository;
+import com.example.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentArchiverTest {
+
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(60));
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private PaymentAggregatesCheckpointRepository checkpointRepository;
+
+    @TempDir
+    private Path directory;
+
+    private PaymentArchiver archiver;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        archiver = new PaymentArchiver(paymentRepository, checkpointRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "directory", directory.toString());
+        ReflectionTestUtils.setField(archiver, "maxAge", Duration.ofDays(7));
+        ReflectionTestUtils.setField(archiver, "refundWindow", Duration.ofDays(30));
+        ReflectionTestUtils.setField(archiver, "batchSize", 2);
+        archiver.open();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void archivesOnlyPaymentsOutsideTheRefundWindowAndCheckpointed() {
+        Payment old = save(1L, OLD, false);
+        Payment oldRefunded = save(2L, OLD, true);
+        // Older than maxAge but still refundable
+        Payment refundable = save(3L, Instant.now().minus(Duration.ofDays(10)), false);
+        Payment notFolded = save(4L, OLD, false);
+        checkpoint(notFolded.getId() - 1, Instant.now());
+
+        archiver.archiveOldPayments();
+
+        assertThat(paymentRepository.findAll()).extracting(Payment::getId)
+                .containsExactlyInAnyOrder(refundable.getId(), notFolded.getId());
+        assertThat(archiver.findByOrderId(1L)).extracting(Payment::getId).containsExactly(old.getId());
+        assertThat(archiver.findByOrderId(2L)).extracting(Payment::getId).containsExactly(oldRefunded.getId());
+    }
+
+    @Test
+    void archivesNothingWithoutACheckpoint() {
+        save(1L, OLD, false);
+
+        archiver.archiveOldPayments();
+
+        assertThat(paymentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteKeepsAPaymentRefundedSinceItWasRead() {
+        Payment payment = save(1L, OLD, false);
+        checkpoint(payment.getId(), Instant.now());
+        // The payment is refunded after it was read for archiving
+        payment.setRefunded(true);
+        payment.setRefundedAt(Instant.now());
+        paymentRepository.save(payment);
+
+        assertThat(paymentRepository.deleteByIdInAndRefunded(List.of(payment.getId()), false)).isZero();
+        assertThat(paymentRepository.existsById(payment.getId())).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lookupPrefersTheRefundedArchivedCopy() throws Exception {
+        SegmentArchive<Payment> archive = (SegmentArchive<Payment>) ReflectionTestUtils.getField(archiver, "archive");
+        archive.append(List.of(archived(5L, false), archived(6L, false)));
+        archive.append(List.of(archived(5L, true)));
+
+        assertThat(archiver.findByOrderId(1L)).extracting(Payment::getId, Payment::isRefunded)
+                .containsExactly(tuple(5L, true), tuple(6L, false));
+    }
+
+    private Payment save(Long orderId, Instant createdAt, boolean refunded) {
+        return paymentRepository.save(Payment.builder()
+                .orderId(orderId)
+                .productId(1L)
+                .amount(10.0)
+                .createdAt(createdAt)
+                .refunded(refunded)
+                .refundedAt(refunded ? createdAt : null)
+                .build());
+    }
+
+    private static Payment archived(Long id, boolean refunded) {
+        return Payment.builder().id(id).orderId(1L).productId(1L).amount(10.0).createdAt(OLD)
+                .refunded(refunded).refundedAt(refunded ? OLD : null).build();
+    }
+
+    private void checkpoint(long lastPaymentId, Instant refundedUpTo) {
+        checkpointRepository.save(new PaymentAggregatesCheckpoint(PaymentAggregatesCheckpoint.ID,
+                lastPaymentId, refundedUpTo, Instant.now()));
+    }
+}
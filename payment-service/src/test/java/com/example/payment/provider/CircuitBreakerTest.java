@@ -0,0 +1,91 @@
+package com.example.payment.provider;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThresholdOverMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 4, 10, 60_000);
+
+        fail(breaker, 3);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        succeed(breaker, 1);
+        fail(breaker, 1);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void failuresOutsideTheWindowAreForgotten() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 4, 4, 60_000);
+
+        fail(breaker, 1);
+        succeed(breaker, 4);
+        fail(breaker, 1);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenBreakerLetsOneProbeThroughAndClosesOnSuccess() throws Exception {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(60);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void failedProbeOpensTheBreakerAgain() throws Exception {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(60);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void releasedProbeLetsTheNextProbeThrough() throws Exception {
+        CircuitBreaker breaker = openBreaker();
+        Thread.sleep(60);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.releasePermission();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 0.5, 2, 10, 50);
+        fail(breaker, 2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onFailure();
+        }
+    }
+
+    private static void succeed(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(breaker.tryAcquirePermission()).isTrue();
+            breaker.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.payment.provider;
+
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.failures.TransientFailureException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HttpPaymentProviderTest {
+
+    private LocalPaymentProviderStub stub;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void start() throws Exception {
+        stub = new LocalPaymentProviderStub(0, 0, 0.0);
+        stub.start();
+        breaker = new CircuitBreaker("test", 0.5, 2, 10, 60_000);
+    }
+
+    @AfterEach
+    void stop() {
+        stub.stop();
+    }
+
+    @Test
+    void retriedChargeReturnsTheSameId() {
+        HttpPaymentProvider provider = provider(stub.baseUrl(), Duration.ofSeconds(2));
+
+        String charge = provider.charge("order-1", 10.0);
+
+        assertThat(charge).isNotBlank().isEqualTo(provider.charge("order-1", 10.0));
+        assertThat(provider.refund(charge, 10.0)).isNotBlank().isNotEqualTo(charge);
+    }
+
+    @Test
+    void unavailableProviderIsTransientAndOpensTheBreaker() {
+        HttpPaymentProvider provider = provider(stub.baseUrl(), Duration.ofSeconds(2));
+        stub.setFailureRate(1.0);
+
+        assertThatThrownBy(() -> provider.charge("order-1", 10.0))
+                .isInstanceOf(TransientFailureException.class).hasMessageContaining("503");
+        assertThatThrownBy(() -> provider.charge("order-1", 10.0))
+                .isInstanceOf(TransientFailureException.class).hasMessageContaining("503");
+        assertThat(provider.getCircuitBreakerState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        stub.setFailureRate(0.0);
+        assertThatThrownBy(() -> provider.charge("order-1", 10.0))
+                .isInstanceOf(TransientFailureException.class).hasMessageContaining("circuit breaker is open");
+    }
+
+    @Test
+    void timeoutIsTransient() {
+        HttpPaymentProvider provider = provider(stub.baseUrl(), Duration.ofMillis(100));
+        stub.setLatencyMillis(1000);
+
+        assertThatThrownBy(() -> provider.charge("order-1", 10.0))
+                .isInstanceOf(TransientFailureException.class).hasMessageContaining("timed out");
+    }
+
+    @Test
+    void rejectedRequestIsPermanentAndDoesNotCountAgainstTheBreaker() {
+        // The stub serves no paths below /unknown and answers 404
+        HttpPaymentProvider provider = provider(stub.baseUrl().resolve("unknown/"), Duration.ofSeconds(2));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> provider.charge("order-1", 10.0))
+                    .isInstanceOf(PermanentFailureException.class).hasMessageContaining("404");
+        }
+        assertThat(provider.getCircuitBreakerState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void unreachableProviderIsTransient() {
+        stub.stop();
+        HttpPaymentProvider provider = provider(stub.baseUrl(), Duration.ofSeconds(2));
+
+        assertThatThrownBy(() -> provider.charge("order-1", 10.0))
+                .isInstanceOf(TransientFailureException.class).hasMessageContaining("unreachable");
+    }
+
+    private HttpPaymentProvider provider(URI baseUrl, Duration timeout) {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        return new HttpPaymentProvider(httpClient, new ObjectMapper(), baseUrl, timeout, Duration.ofMillis(50),
+                4, Duration.ofMillis(50), breaker);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.payment.provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalPaymentProviderStubTest {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private LocalPaymentProviderStub stub;
+
+    @BeforeEach
+    void start() throws Exception {
+        stub = new LocalPaymentProviderStub(0, 0, 0.0);
+        stub.start();
+    }
+
+    @AfterEach
+    void stop() {
+        stub.stop();
+    }
+
+    @Test
+    void repeatedIdempotencyKeyReturnsTheSameId() throws Exception {
+        HttpResponse<String> first = post("charges", "charge-order-1");
+        HttpResponse<String> again = post("charges", "charge-order-1");
+        HttpResponse<String> other = post("charges", "charge-order-2");
+
+        assertThat(first.statusCode()).isEqualTo(201);
+        assertThat(again.body()).isEqualTo(first.body());
+        assertThat(other.body()).isNotEqualTo(first.body());
+    }
+
+    @Test
+    void idempotencyKeysExpire() throws Exception {
+        stub.stop();
+        stub = new LocalPaymentProviderStub(0, 0, 0.0, Duration.ofMillis(50));
+        stub.start();
+
+        HttpResponse<String> first = post("charges", "charge-order-1");
+        assertThat(post("charges", "charge-order-1").body()).isEqualTo(first.body());
+        Thread.sleep(100);
+
+        assertThat(post("charges", "charge-order-1").body()).isNotEqualTo(first.body());
+    }
+
+    @Test
+    void answersWithUnavailableAtTheFailureRate() throws Exception {
+        stub.setFailureRate(1.0);
+
+        assertThat(post("refunds", "refund-1").statusCode()).isEqualTo(503);
+    }
+
+    @Test
+    void rejectsOtherMethods() throws Exception {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(stub.baseUrl().resolve("charges")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(405);
+    }
+
+    private HttpResponse<String> post(String path, String idempotencyKey) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(stub.baseUrl().resolve(path))
+                        .header("Idempotency-Key", idempotencyKey)
+                        .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
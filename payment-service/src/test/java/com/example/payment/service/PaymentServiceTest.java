@@ -0,0 +1,112 @@
+package com.example.payment.service;
+
+import com.example.payment.aggregate.PaymentAggregates;
+import com.example.payment.entity.Payment;
+import com.example.payment.provider.PaymentProvider;
+import com.example.payment.repository.PaymentRepository;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentServiceTest {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private final PaymentProvider paymentProvider = mock(PaymentProvider.class);
+    private final PaymentAggregates paymentAggregates = mock(PaymentAggregates.class);
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        // The provider answers a repeated key with the same charge
+        when(paymentProvider.charge(anyString(), anyDouble())).thenAnswer(i -> "ch_" + i.getArgument(0));
+        paymentService = newPaymentService(paymentRepository);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        paymentRepository.deleteAll();
+    }
+
+    @Test
+    void retriedDebitRecordsTheChargeOnce() {
+        Long first = paymentService.debit("order-1-run-a", 1L, 7L, 10.0);
+        Long retried = paymentService.debit("order-1-run-a", 1L, 7L, 10.0);
+
+        assertThat(retried).isEqualTo(first);
+        assertThat(paymentRepository.findByOrderId(1L)).hasSize(1);
+        verify(paymentAggregates, times(1)).recordDebit(7L, 10.0);
+    }
+
+    @Test
+    void newRunOfTheSameOrderIsChargedAfresh() {
+        Long first = paymentService.debit("order-1-run-a", 1L, 7L, 10.0);
+        Long redriven = paymentService.debit("order-1-run-b", 1L, 7L, 10.0);
+
+        assertThat(redriven).isNotEqualTo(first);
+        assertThat(paymentRepository.findByOrderId(1L)).extracting(Payment::getExternalId)
+                .containsExactlyInAnyOrder("ch_order-1-run-a", "ch_order-1-run-b");
+    }
+
+    @Test
+    void externalIdIsUnique() {
+        paymentRepository.save(payment("ch_1"));
+
+        assertThatThrownBy(() -> paymentRepository.save(payment("ch_1")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void concurrentlyRecordedChargeIsReturned() {
+        PaymentRepository racing = mock(PaymentRepository.class);
+        Payment winner = payment("ch_order-1-run-a");
+        winner.setId(42L);
+        when(racing.findByExternalId("ch_order-1-run-a")).thenReturn(Optional.empty(), Optional.of(winner));
+        when(racing.save(any())).thenThrow(new DataIntegrityViolationException("uk_payments_external_id"));
+
+        assertThat(newPaymentService(racing).debit("order-1-run-a", 1L, 7L, 10.0)).isEqualTo(42L);
+        verify(paymentAggregates, never()).recordDebit(any(), anyDouble());
+    }
+
+    private PaymentService newPaymentService(PaymentRepository repository) {
+        PaymentService service = new PaymentService(repository, paymentAggregates, paymentProvider,
+                OpenTelemetry.noop().getTracer("test"));
+        ReflectionTestUtils.setField(service, "refundWindow", Duration.ofDays(30));
+        return service;
+    }
+
+    private static Payment payment(String externalId) {
+        return Payment.builder()
+                .orderId(1L)
+                .productId(7L)
+                .amount(10.0)
+                .externalId(externalId)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.payment.workflow;
+
+import com.example.common.activities.RefundBatchActivity;
+import com.example.common.dto.BulkRefundProgress;
+import com.example.common.dto.BulkRefundRequest;
+import com.example.common.workflows.BulkRefundWorkflow;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.common.RetryOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkflowImplementationOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class BulkRefundWorkflowImplTest {
+
+    private static final String TASK_QUEUE = "bulk-refund-test";
+    private static final long PAYMENTS = 23;
+
+    private final Set<Long> refunded = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final RefundBatchActivity activity = mock(RefundBatchActivity.class, withSettings().withoutAnnotations());
+    private TestWorkflowEnvironment testEnv;
+
+    @BeforeEach
+    void setUp() {
+        // Refundable payments are those with ids 1..PAYMENTS that are not refunded yet
+        when(activity.listRefundablePaymentIds(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return LongStream.rangeClosed(after + 1, PAYMENTS)
+                    .filter(id -> !refunded.contains(id))
+                    .limit(limit)
+                    .boxed()
+                    .toList();
+        });
+        when(activity.refundBatch(any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+                List<Long> ids = invocation.getArgument(0);
+                return (int) ids.stream().filter(refunded::add).count();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        testEnv = TestWorkflowEnvironment.newInstance();
+        Worker worker = testEnv.newWorker(TASK_QUEUE);
+        worker.registerWorkflowImplementationTypes(WorkflowImplementationOptions.newBuilder()
+                .setDefaultActivityOptions(ActivityOptions.newBuilder()
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .setRetryOptions(RetryOptions.newBuilder()
+                                .setInitialInterval(Duration.ofMillis(10))
+                                .setMaximumAttempts(3)
+                                .build())
+                        .build())
+                .build(), BulkRefundWorkflowImpl.class);
+        worker.registerActivitiesImplementations(activity);
+        testEnv.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEnv.close();
+    }
+
+    @Test
+    void refundsEveryPaymentOnceAcrossRunsWithBoundedConcurrency() {
+        BulkRefundProgress progress = refundProduct(new BulkRefundRequest(7L, 5, 2, 2, 2, null));
+
+        assertThat(refunded).hasSize((int) PAYMENTS);
+        assertThat(progress.isDone()).isTrue();
+        assertThat(progress.getRefunded()).isEqualTo(PAYMENTS);
+        assertThat(progress.getScanned()).isEqualTo(PAYMENTS);
+        assertThat(progress.getLastPaymentId()).isEqualTo(PAYMENTS);
+        // 10 payments per run, and the last run finds nothing left
+        assertThat(progress.getRuns()).isEqualTo(3);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void failedBatchIsRetriedWithoutSkippingPayments() {
+        AtomicBoolean failed = new AtomicBoolean();
+        doAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.contains(4L) && failed.compareAndSet(false, true)) {
+                // Fails after refunding part of the batch
+                refunded.add(ids.get(0));
+                throw new IllegalStateException("provider down");
+            }
+            return (int) ids.stream().filter(refunded::add).count();
+        }).when(activity).refundBatch(any());
+
+        BulkRefundProgress progress = refundProduct(new BulkRefundRequest(7L, 5, 2, 2, 100, null));
+
+        assertThat(failed).isTrue();
+        assertThat(refunded).hasSize((int) PAYMENTS);
+        assertThat(progress.isDone()).isTrue();
+        // The refund made by the failed attempt is not counted by its retry
+        assertThat(progress.getRefunded()).isEqualTo(PAYMENTS - 1);
+    }
+
+    private BulkRefundProgress refundProduct(BulkRefundRequest request) {
+        WorkflowClient client = testEnv.getWorkflowClient();
+        BulkRefundWorkflow workflow = client.newWorkflowStub(BulkRefundWorkflow.class,
+                WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).setWorkflowId("recall-7").build());
+        WorkflowClient.start(workflow::refundProduct, request);
+        // Follows the continue-as-new chain to the last run
+        WorkflowStub.fromTyped(workflow).getResult(Void.class);
+        return client.newWorkflowStub(BulkRefundWorkflow.class, "recall-7").getProgress();
+    }
+}
@@ -2,13 +2,16 @@ package com.example.shipping;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the shipping service.  This service runs a Temporal worker
  * that handles shipping activities and exposes a REST API for inspection of
- * recorded shipments.
+ * recorded shipments.  Scheduling is enabled for background jobs such as
+ * archiving old shipments.
  */
 @SpringBootApplication
+@EnableScheduling
 public class ShippingServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ShippingServiceApplication.class, args);
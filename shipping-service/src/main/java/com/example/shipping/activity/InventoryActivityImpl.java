@@ -0,0 +1,55 @@
+package com.example.shipping.activity;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.dto.OrderDTO;
+import com.example.common.failures.PermanentFailureException;
+import com.example.shipping.inventory.InventoryService;
+import io.temporal.activity.Activity;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementation of the {@link InventoryActivity}.  Stock is held by the
+ * warehouse side, so the Activity runs in the shipping service and
+ * delegates to {@link InventoryService}.  Reservations are keyed by the
+ * calling workflow's id; a re‑driven order runs under a new workflow id and
+ * reserves afresh.  Only the instance holding the inventory lease polls
+ * for it (see {@link com.example.shipping.worker.InventoryWorker}); one
+ * picked up just before the lease was lost throws
+ * {@link com.example.shipping.inventory.NotInventoryOwnerException} and is
+ * retried on the new owner.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryActivityImpl implements InventoryActivity {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryActivityImpl.class);
+
+    private final InventoryService inventoryService;
+
+    @Override
+    public void reserveStock(OrderDTO order) {
+        if (order.getQuantity() == null || order.getQuantity() <= 0) {
+            throw new PermanentFailureException("Invalid quantity " + order.getQuantity()
+                    + " for order " + order.getOrderId());
+        }
+        String reservationId = Activity.getExecutionContext().getInfo().getWorkflowId();
+        if (!inventoryService.reserve(reservationId, order.getOrderId(), order.getProductId(), order.getQuantity())) {
+            logger.warn("[SAGA Inventory] Could not reserve {} of product {} for order {}",
+                    order.getQuantity(), order.getProductId(), order.getOrderId());
+            throw new PermanentFailureException("Insufficient stock of product " + order.getProductId()
+                    + " for order " + order.getOrderId());
+        }
+        logger.info("[SAGA Inventory] Reserved {} of product {} for order {}",
+                order.getQuantity(), order.getProductId(), order.getOrderId());
+    }
+
+    @Override
+    public void releaseStock(OrderDTO order) {
+        String reservationId = Activity.getExecutionContext().getInfo().getWorkflowId();
+        inventoryService.release(reservationId, order.getOrderId(), order.getProductId());
+        logger.info("[SAGA Compensation] Released stock reserved for order {}", order.getOrderId());
+    }
+}
@@ -2,7 +2,11 @@ package com.example.shipping.activity;
 
 import com.example.common.activities.ShippingActivity;
 import com.example.common.dto.OrderDTO;
+import com.example.common.failures.PermanentFailureException;
+import com.example.common.jfr.AuditWriteEvent;
+import com.example.common.tracing.Tracing;
 import com.example.shipping.service.ShippingService;
+import io.opentelemetry.api.trace.Tracer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,25 +28,28 @@ public class ShippingActivityImpl implements ShippingActivity {
 
     private static final Logger logger = LoggerFactory.getLogger(ShippingActivityImpl.class);
     private final ShippingService shippingService;
+    private final Tracer tracer;
 
     @Override
     public void shipOrder(OrderDTO order) {
         logger.info("[SAGA Shipping] Starting shipping process for order {} (productId: {})", 
                 order.getOrderId(), order.getProductId());
         
-        writeToLogFile("SHIPPING_START", "Order: " + order.getOrderId() + ", ProductId: " + order.getProductId());
+        writeToLogFile(order.getOrderId(), "SHIPPING_START", "Order: " + order.getOrderId() + ", ProductId: " + order.getProductId());
         
-        // Simulate a failure for testing the Saga pattern's compensation mechanism
-        // Comment out this block to test the normal flow
+        // Simulate a permanent shipping rejection for testing the Saga pattern's
+        // compensation mechanism.  It is non-retryable, so the workflow refunds
+        // the payment right away.  Rate-based failures are configured through
+        // fault injection (faults.* properties) instead.
         if (order.getProductId() == 999) {
             logger.error("[SAGA Shipping] Simulating a shipping failure for product ID 999 in order {}", 
                     order.getOrderId());
             
-            writeToLogFile("SHIPPING_FAILURE", "Order: " + order.getOrderId() + 
+            writeToLogFile(order.getOrderId(), "SHIPPING_FAILURE", "Order: " + order.getOrderId() + 
                     ", ProductId: " + order.getProductId() + 
                     ", Reason: Simulated failure for testing Saga compensation");
             
-            throw new RuntimeException("Simulated shipping failure for testing Saga compensation");
+            throw new PermanentFailureException("Simulated shipping failure for testing Saga compensation");
         }
         
         try {
@@ -50,13 +57,13 @@ public class ShippingActivityImpl implements ShippingActivity {
             logger.info("[SAGA Shipping] Successfully shipped order {} (productId: {})", 
                     order.getOrderId(), order.getProductId());
             
-            writeToLogFile("SHIPPING_SUCCESS", "Order: " + order.getOrderId() + 
+            writeToLogFile(order.getOrderId(), "SHIPPING_SUCCESS", "Order: " + order.getOrderId() + 
                     ", ProductId: " + order.getProductId());
         } catch (Exception e) {
             logger.error("[SAGA Shipping] Failed to ship order {} (productId: {}). Error: {}", 
                     order.getOrderId(), order.getProductId(), e.getMessage());
             
-            writeToLogFile("SHIPPING_ERROR", "Order: " + order.getOrderId() + 
+            writeToLogFile(order.getOrderId(), "SHIPPING_ERROR", "Order: " + order.getOrderId() + 
                     ", ProductId: " + order.getProductId() + 
                     ", Error: " + e.getMessage());
             
@@ -67,11 +74,18 @@ public class ShippingActivityImpl implements ShippingActivity {
     /**
      * Writes a log entry to a file for debugging purposes
      */
-    private void writeToLogFile(String action, String details) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("/tmp/saga_shipping_log.txt", true))) {
-            writer.println(LocalDateTime.now() + " - " + action + " - " + details);
-        } catch (IOException e) {
-            logger.error("Failed to write to log file", e);
-        }
+    private void writeToLogFile(Long orderId, String action, String details) {
+        AuditWriteEvent event = new AuditWriteEvent(action, orderId);
+        event.begin();
+        Tracing.inSpan(tracer, "AuditLog.write", () -> {
+            try (PrintWriter writer = new PrintWriter(new FileWriter("/tmp/saga_shipping_log.txt", true))) {
+                writer.println(LocalDateTime.now() + " - " + action + " - " + details);
+                event.succeeded();
+            } catch (IOException e) {
+                event.failed(e);
+                logger.error("Failed to write to log file", e);
+            }
+        });
+        event.commit();
     }
 }
\ No newline at end of file
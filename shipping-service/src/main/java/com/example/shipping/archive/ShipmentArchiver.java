@@ -0,0 +1,115 @@
+package com.example.shipping.archive;
+
+import com.example.common.archive.SegmentArchive;
+import com.example.shipping.entity.Shipment;
+import com.example.shipping.repository.ShipmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves shipments older than {@code shipping.archive.maxAge} from the
+ * {@code shipments} table into a {@link SegmentArchive}, keeping the hot
+ * table and its indexes small.  Shipments are archived in id order in
+ * batches; each batch is deleted from the table only after its segments are
+ * durable.  If the process dies in between, the rows are archived again on
+ * the next run and lookups drop the duplicates.
+ * <p>
+ * Archived shipments can still be looked up by order id, but no longer
+ * appear in the keyset‑paginated listing used for reconciliation, so the
+ * maximum age must exceed {@code order.reconciliation.lookback}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShipmentArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShipmentArchiver.class);
+
+    private final ShipmentRepository shipmentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shipping.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${shipping.archive.directory:/tmp/shipment-archive}")
+    private String directory;
+
+    @Value("${shipping.archive.maxAge:P30D}")
+    private Duration maxAge;
+
+    @Value("${shipping.archive.batchSize:5000}")
+    private int batchSize;
+
+    private SegmentArchive<Shipment> archive;
+
+    @PostConstruct
+    public void open() throws IOException {
+        archive = new SegmentArchive<>(Path.of(directory), objectMapper, Shipment.class,
+                Shipment::getId, Shipment::getOrderId, Shipment::getCreatedAt);
+    }
+
+    /**
+     * Archives all shipments older than the maximum age.
+     */
+    @Scheduled(fixedDelayString = "${shipping.archive.intervalMs:3600000}")
+    public void archiveOldShipments() {
+        if (!enabled) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(maxAge);
+        long archived = 0;
+        List<Shipment> batch;
+        do {
+            batch = shipmentRepository.findByCreatedAtBeforeOrderByIdAsc(cutoff, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            try {
+                archive.append(batch);
+            } catch (IOException e) {
+                logger.error("Archiving shipments failed, keeping them in the table: {}", e.getMessage(), e);
+                return;
+            }
+            shipmentRepository.deleteAllInBatch(batch);
+            archived += batch.size();
+        } while (batch.size() == batchSize);
+        if (archived > 0) {
+            logger.info("Archived {} shipments created before {}", archived, cutoff);
+        }
+    }
+
+    /**
+     * Returns the shipments of an order from the table and the archive.
+     */
+    public List<Shipment> findByOrderId(Long orderId) {
+        List<Shipment> shipments = new ArrayList<>(shipmentRepository.findByOrderId(orderId));
+        Set<Long> ids = new HashSet<>();
+        shipments.forEach(s -> ids.add(s.getId()));
+        try {
+            for (Shipment archived : archive.findByOrderId(orderId)) {
+                if (ids.add(archived.getId())) {
+                    shipments.add(archived);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return shipments;
+    }
+}
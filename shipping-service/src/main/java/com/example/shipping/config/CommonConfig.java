@@ -0,0 +1,18 @@
+package com.example.shipping.config;
+
+import com.example.common.faults.FaultInjectionConfig;
+import com.example.common.tracing.TracingConfig;
+import com.example.common.tuning.WorkerTuningConfig;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Configuration shared with the other services, from the common module:
+ * tracing, fault injection and Activity slot tuning.  Imported here rather
+ * than on the application class so that test slices, which skip scanned
+ * configuration, do not pull it in.
+ */
+@Configuration
+@Import({FaultInjectionConfig.class, TracingConfig.class, WorkerTuningConfig.class})
+public class CommonConfig {
+}
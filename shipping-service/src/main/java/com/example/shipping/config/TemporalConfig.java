@@ -1,12 +1,24 @@
 package com.example.shipping.config;
 
+import com.example.common.faults.FaultInjectionWorkerInterceptor;
+import com.example.common.faults.FaultRegistry;
+import com.example.common.tracing.Tracing;
+import io.opentelemetry.api.OpenTelemetry;
 import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.common.interceptors.WorkerInterceptor;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
+import io.temporal.worker.WorkerFactoryOptions;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Temporal configuration for the shipping service.  Defines a
  * {@link WorkflowClient} bean that connects to the Temporal server at the
@@ -18,12 +30,43 @@ public class TemporalConfig {
     @Value("${temporal.server.address:127.0.0.1:7233}")
     private String temporalServerAddress;
 
+    /**
+     * Connection to the Temporal server.  A parent context may provide its
+     * own, as the all‑in‑one launcher does for its embedded server.
+     */
     @Bean
-    public WorkflowClient workflowClient() {
+    @ConditionalOnMissingBean
+    public WorkflowServiceStubs workflowServiceStubs() {
         WorkflowServiceStubsOptions options = WorkflowServiceStubsOptions.newBuilder()
                 .setTarget(temporalServerAddress)
                 .build();
-        WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(options);
-        return WorkflowClient.newInstance(service);
+        return WorkflowServiceStubs.newServiceStubs(options);
+    }
+
+    @Bean
+    public WorkflowClient workflowClient(WorkflowServiceStubs service, OpenTelemetry openTelemetry) {
+        WorkflowClientOptions clientOptions = WorkflowClientOptions.newBuilder()
+                .setInterceptors(Tracing.clientInterceptor(openTelemetry))
+                .build();
+        return WorkflowClient.newInstance(service, clientOptions);
+    }
+
+    /**
+     * Options for the worker factories created by the workers of this
+     * service.  The tracing interceptor continues the trace propagated in
+     * Temporal headers.  Later interceptors wrap earlier ones, so fault
+     * injection is listed first to run inside the tracing interceptor and
+     * injected latency and errors show up on the Activity spans.  The
+     * registry only exists when {@code faults.enabled} is set.
+     */
+    @Bean
+    public WorkerFactoryOptions workerFactoryOptions(OpenTelemetry openTelemetry,
+                                                     ObjectProvider<FaultRegistry> faultRegistry) {
+        List<WorkerInterceptor> interceptors = new ArrayList<>();
+        faultRegistry.ifAvailable(registry -> interceptors.add(new FaultInjectionWorkerInterceptor(registry)));
+        interceptors.add(Tracing.workerInterceptor(openTelemetry));
+        return WorkerFactoryOptions.newBuilder()
+                .setWorkerInterceptors(interceptors.toArray(WorkerInterceptor[]::new))
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.shipping.controller;
+
+import com.example.shipping.inventory.InventoryService;
+import com.example.shipping.inventory.NotInventoryOwnerException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Endpoints to inspect and replenish stock, for example to prepare a flash
+ * sale benchmark.  Levels are served from memory and may be up to one flush
+ * interval ahead of the {@code inventory} table.  Only the instance holding
+ * the inventory lease answers; the others respond with 503.
+ */
+@RestController
+@RequestMapping("/inventory")
+@RequiredArgsConstructor
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    @GetMapping("/{productId}")
+    public ResponseEntity<Map<String, Long>> available(@PathVariable Long productId) {
+        return ResponseEntity.ok(Map.of("productId", productId, "available", inventoryService.available(productId)));
+    }
+
+    /**
+     * Adds {@code quantity} units to the product's stock.
+     */
+    @PostMapping("/{productId}/restock")
+    public ResponseEntity<Map<String, Long>> restock(@PathVariable Long productId, @RequestParam long quantity) {
+        if (quantity <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("productId", productId, "available", inventoryService.restock(productId, quantity)));
+    }
+
+    @ExceptionHandler(NotInventoryOwnerException.class)
+    public ResponseEntity<Void> notOwner() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.shipping.controller;
 
+import com.example.shipping.archive.ShipmentArchiver;
 import com.example.shipping.entity.Shipment;
 import com.example.shipping.repository.ShipmentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -19,10 +23,37 @@ import java.util.List;
 @RequestMapping("/shipments")
 @RequiredArgsConstructor
 public class ShipmentController {
+    private static final int MAX_PAGE_SIZE = 5000;
+
     private final ShipmentRepository shipmentRepository;
+    private final ShipmentArchiver shipmentArchiver;
 
     @GetMapping
     public ResponseEntity<List<Shipment>> listShipments() {
         return ResponseEntity.ok(shipmentRepository.findAll());
     }
+
+    /**
+     * Returns the shipments recorded for an order, including archived ones.
+     */
+    @GetMapping("/order/{orderId}")
+    public ResponseEntity<List<Shipment>> listShipmentsForOrder(@PathVariable Long orderId) {
+        return ResponseEntity.ok(shipmentArchiver.findByOrderId(orderId));
+    }
+
+    /**
+     * Returns one page of shipments ordered by order id and shipment id.
+     * Pass the {@code orderId} and {@code id} of the last shipment of the
+     * previous page as {@code afterOrderId}/{@code afterId} to fetch the
+     * next one.
+     */
+    @GetMapping("/by-order")
+    public ResponseEntity<List<Shipment>> listShipmentsByOrder(
+            @RequestParam(defaultValue = "0") long afterOrderId,
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "" + Long.MAX_VALUE) long toOrderId,
+            @RequestParam(defaultValue = "1000") int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        return ResponseEntity.ok(shipmentRepository.findPageOrderedByOrderId(afterOrderId, afterId, toOrderId, page));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.shipping.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Stored stock level of a product.  The live level is kept in memory by
+ * {@link com.example.shipping.inventory.InventoryService}; this row is the
+ * copy it flushes periodically and recovers from on startup.
+ */
+@Entity
+@Table(name = "inventory")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryItem {
+    @Id
+    private Long productId;
+    private Long available;
+    private Instant updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.example.shipping.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Lease on the stock ledger.  Only the shipping instance named in the single
+ * row of this table may reserve and release stock; it renews the lease with
+ * every flush, and another instance takes over once it has expired.
+ */
+@Entity
+@Table(name = "inventory_lease")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryLease {
+
+    /** Id of the only row. */
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+
+    private String owner;
+
+    private Instant expiresAt;
+
+    /**
+     * Returns a lease that has never been held.
+     */
+    public static InventoryLease initial() {
+        return new InventoryLease(ID, null, Instant.EPOCH);
+    }
+}
@@ -4,19 +4,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.time.Instant;
+
 /**
  * Entity representing a shipment record.  Each shipment corresponds to an
  * order that has been dispatched.  In a real application this might
  * include shipping carrier information and tracking numbers.
  */
 @Entity
-@Table(name = "shipments")
+@Table(name = "shipments", indexes = @Index(name = "idx_shipments_order_id", columnList = "orderId, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,4 +32,5 @@ public class Shipment {
     private Long productId;
     private Integer quantity;
     private String trackingNumber;
+    private Instant createdAt;
 }
\ No newline at end of file
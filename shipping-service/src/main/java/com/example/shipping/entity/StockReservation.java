@@ -0,0 +1,32 @@
+package com.example.shipping.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Stock reserved by one order workflow execution, identified by its
+ * workflow id.  A released reservation is kept so that retried or late
+ * Activity calls for the same execution stay idempotent.
+ */
+@Entity
+@Table(name = "stock_reservations")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+    @Id
+    private String id;
+    private Long orderId;
+    private Long productId;
+    private Long quantity;
+    private boolean released;
+    private Instant updatedAt;
+}
@@ -0,0 +1,317 @@
+package com.example.shipping.inventory;
+
+import com.example.shipping.entity.InventoryItem;
+import com.example.shipping.entity.InventoryLease;
+import com.example.shipping.entity.StockReservation;
+import com.example.shipping.repository.InventoryItemRepository;
+import com.example.shipping.repository.InventoryLeaseRepository;
+import com.example.shipping.repository.StockReservationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reserves and releases stock for order workflows.  Stock levels live in a
+ * {@link StockLedger}, so reservations of a hot product never wait on a row
+ * lock; reservations are tracked per workflow execution to make retries
+ * idempotent.  Every {@code shipping.inventory.flushIntervalMs} and on
+ * shutdown, the change of each stock level since the previous flush is
+ * added to the {@code inventory} table and changed reservations are
+ * written, in one transaction.
+ * <p>
+ * The ledger only holds while no other instance changes the same stock, so
+ * one shipping instance owns it at a time, through the
+ * {@link InventoryLease}.  The owner renews the lease in every flush
+ * transaction, and only while {@link #isOwner()} does its inventory worker
+ * poll for Activities.  On any other instance, and on an owner whose
+ * renewal failed, every call throws {@link NotInventoryOwnerException}.
+ * An instance taking over an expired
+ * lease loads the stored levels first.  The owner stops serving halfway
+ * through its lease, so a moderate clock skew cannot produce two owners.
+ * <p>
+ * A crash loses the changes of at most one flush interval, and loses them
+ * together: reservations made in that window are forgotten and their stock
+ * is back in the stored level.  The product can therefore be oversold by
+ * up to one interval of reservations, whose sagas go on as if reserved.
+ * Releasing such a reservation later finds nothing and returns nothing.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
+
+    private final InventoryItemRepository inventoryItemRepository;
+    private final StockReservationRepository reservationRepository;
+    private final InventoryLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Counters per product; more stripes spread contention further. */
+    @Value("${shipping.inventory.stripes:16}")
+    private int stripes;
+
+    /** Stock of a product without a stored level. */
+    @Value("${shipping.inventory.defaultStock:10000}")
+    private long defaultStock;
+
+    /** How long the lease lasts without renewal. */
+    @Value("${shipping.inventory.leaseDuration:PT10S}")
+    private Duration leaseDuration;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile StockLedger ledger;
+
+    /** Until when this instance may serve calls, or {@code null} if it is not the owner. */
+    private volatile Instant ownedUntil;
+
+    /** Reservation changes not yet written to the database, by reservation id. */
+    private final ConcurrentHashMap<String, Reservation> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        if (leaseRepository.findById(InventoryLease.ID).isEmpty()) {
+            try {
+                leaseRepository.save(InventoryLease.initial());
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created it first
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Reserves stock for a workflow execution.  Repeating the call for the
+     * same reservation id does not reserve again.
+     *
+     * @param reservationId the workflow id of the order workflow
+     * @return {@code false} if there is not enough stock, or the reservation
+     *         was already released
+     * @throws NotInventoryOwnerException if this instance does not hold the lease
+     */
+    public boolean reserve(String reservationId, Long orderId, Long productId, long quantity) {
+        StockLedger ledger = ledger();
+        Reservation existing = lookup(reservationId);
+        if (existing != null) {
+            return !existing.released();
+        }
+        if (!ledger.tryReserve(productId, quantity)) {
+            logger.info("Insufficient stock for order {}: requested {} of product {}, {} available",
+                    orderId, quantity, productId, ledger.available(productId));
+            return false;
+        }
+        Reservation reservation = new Reservation(reservationId, orderId, productId, quantity, false);
+        Reservation concurrent = pending.putIfAbsent(reservationId, reservation);
+        if (concurrent != null) {
+            // Another attempt for the same execution got there first
+            ledger.add(productId, quantity);
+            return !concurrent.released();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the stock held by a reservation.  Releasing an unknown
+     * reservation records it as released, so a reservation attempt arriving
+     * afterwards is refused.  Since only the owner serves calls, a
+     * reservation that is neither pending nor stored was never made or was
+     * lost in a crash, and its stock is already back.
+     */
+    public void release(String reservationId, Long orderId, Long productId) {
+        StockLedger ledger = ledger();
+        for (;;) {
+            Reservation current = pending.get(reservationId);
+            if (current != null) {
+                if (current.released()) {
+                    return;
+                }
+                if (pending.replace(reservationId, current, current.asReleased())) {
+                    ledger.add(current.productId(), current.quantity());
+                    return;
+                }
+                continue;
+            }
+            Reservation stored = reservationRepository.findById(reservationId).map(Reservation::of).orElse(null);
+            if (stored != null && stored.released()) {
+                return;
+            }
+            Reservation released = stored != null
+                    ? stored.asReleased()
+                    : new Reservation(reservationId, orderId, productId, 0, true);
+            if (pending.putIfAbsent(reservationId, released) == null) {
+                if (stored != null) {
+                    ledger.add(stored.productId(), stored.quantity());
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds stock to a product.
+     *
+     * @return the product's available stock afterwards
+     */
+    public long restock(Long productId, long quantity) {
+        StockLedger ledger = ledger();
+        ledger.add(productId, quantity);
+        return ledger.available(productId);
+    }
+
+    /**
+     * Returns a product's available stock.
+     */
+    public long available(Long productId) {
+        return ledger().available(productId);
+    }
+
+    /**
+     * Renews the lease and adds the drained stock changes and changed
+     * reservations to the database; on an instance without the lease, tries
+     * to take it over.  Reservations are snapshotted before the deltas are
+     * drained, so the stock taken by a reservation made during the flush is
+     * stored no later than the reservation itself.
+     */
+    @Scheduled(fixedDelayString = "${shipping.inventory.flushIntervalMs:1000}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (ledger == null) {
+            takeOver();
+            return;
+        }
+        List<Reservation> reservations = List.copyOf(pending.values());
+        Map<Long, Long> deltas = ledger.drainDeltas();
+        Instant now = Instant.now();
+        List<StockReservation> rows = reservations.stream().map(r -> r.toEntity(now)).toList();
+        boolean renewed;
+        try {
+            renewed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!renewLease(now)) {
+                    return false;
+                }
+                deltas.forEach((productId, delta) -> {
+                    if (inventoryItemRepository.addAvailable(productId, delta, now) == 0) {
+                        inventoryItemRepository.save(
+                                new InventoryItem(productId, ledger.initialStock() + delta, now));
+                    }
+                });
+                reservationRepository.saveAll(rows);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            ledger.restoreDeltas(deltas);
+            logger.warn("Failed to flush {} stock levels and {} reservations, retrying on the next run",
+                    deltas.size(), rows.size(), e);
+            return;
+        }
+        if (!renewed) {
+            logger.error("Inventory lease lost to another instance, dropping {} unflushed stock changes "
+                    + "and {} reservations", deltas.size(), rows.size());
+            ownedUntil = null;
+            ledger = null;
+            pending.clear();
+            return;
+        }
+        ownedUntil = now.plus(leaseDuration.dividedBy(2));
+        // Entries changed since the snapshot stay pending for the next flush
+        reservations.forEach(r -> pending.remove(r.id(), r));
+        logger.debug("Flushed {} stock changes and {} reservations", deltas.size(), rows.size());
+    }
+
+    /**
+     * Takes the lease if it has expired, then loads the stored levels.
+     */
+    private void takeOver() {
+        Instant now = Instant.now();
+        Boolean acquired = transactionTemplate.execute(status -> renewLease(now));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        StockLedger loaded = new StockLedger(stripes, defaultStock);
+        List<InventoryItem> items = inventoryItemRepository.findAll();
+        items.forEach(item -> loaded.load(item.getProductId(), item.getAvailable()));
+        pending.clear();
+        ledger = loaded;
+        ownedUntil = now.plus(leaseDuration.dividedBy(2));
+        logger.info("Took over the inventory lease as {}, loaded stock levels of {} products",
+                instanceId, items.size());
+    }
+
+    /**
+     * Extends the lease if this instance holds it or it has expired.  Must
+     * run in a transaction.
+     */
+    private boolean renewLease(Instant now) {
+        InventoryLease lease = leaseRepository.findForUpdate(InventoryLease.ID)
+                .orElseGet(InventoryLease::initial);
+        if (!instanceId.equals(lease.getOwner()) && lease.getExpiresAt().isAfter(now)) {
+            return false;
+        }
+        lease.setOwner(instanceId);
+        lease.setExpiresAt(now.plus(leaseDuration));
+        leaseRepository.save(lease);
+        return true;
+    }
+
+    /**
+     * Returns whether this instance holds the lease and may serve calls.
+     */
+    public boolean isOwner() {
+        Instant until = ownedUntil;
+        return ledger != null && until != null && !Instant.now().isAfter(until);
+    }
+
+    /**
+     * Returns the ledger if this instance may serve calls.
+     */
+    private StockLedger ledger() {
+        StockLedger current = ledger;
+        Instant until = ownedUntil;
+        if (current == null || until == null || Instant.now().isAfter(until)) {
+            throw new NotInventoryOwnerException("Shipping instance " + instanceId
+                    + " does not hold the inventory lease");
+        }
+        return current;
+    }
+
+    private Reservation lookup(String reservationId) {
+        Reservation current = pending.get(reservationId);
+        if (current != null) {
+            return current;
+        }
+        return reservationRepository.findById(reservationId).map(Reservation::of).orElse(null);
+    }
+
+    /**
+     * Immutable in‑memory copy of a {@link StockReservation}.
+     */
+    record Reservation(String id, long orderId, long productId, long quantity, boolean released) {
+
+        static Reservation of(StockReservation row) {
+            return new Reservation(row.getId(), row.getOrderId(), row.getProductId(), row.getQuantity(),
+                    row.isReleased());
+        }
+
+        Reservation asReleased() {
+            return new Reservation(id, orderId, productId, quantity, true);
+        }
+
+        StockReservation toEntity(Instant now) {
+            return new StockReservation(id, orderId, productId, quantity, released, now);
+        }
+    }
+}
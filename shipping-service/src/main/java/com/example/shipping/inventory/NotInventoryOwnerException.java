@@ -0,0 +1,15 @@
+package com.example.shipping.inventory;
+
+/**
+ * Thrown when stock is reserved, released or read on a shipping instance
+ * that does not hold the inventory lease.  Inventory Activities are only
+ * polled by the owner, so this happens when an Activity was picked up just
+ * before the lease was lost; the retry waits in the task queue for the new
+ * owner.
+ */
+public class NotInventoryOwnerException extends RuntimeException {
+
+    public NotInventoryOwnerException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.shipping.inventory;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In‑memory stock levels, one set of striped counters per product.  A
+ * product's available stock is split across {@code stripes} counters, each
+ * on its own cache line, and a reservation takes units from a randomly
+ * chosen stripe with a compare‑and‑set, moving on to the next stripe only
+ * when that one runs dry.  Concurrent reservations of the same product
+ * therefore rarely touch the same counter, and no reservation ever blocks.
+ * <p>
+ * No counter drops below zero, so the ledger never hands out more than it
+ * holds.  A reservation that collects only part of its quantity hands the
+ * units back and fails; while it holds them, a concurrent reservation of
+ * the last few units may fail as well.
+ * <p>
+ * Next to each stripe's level, on the same cache line, the ledger counts the
+ * stripe's change since the last {@link #drainDeltas}.  The owner flushes
+ * these deltas rather than absolute levels, so a flush adds exactly the
+ * changes it drained, however they interleave with concurrent
+ * reservations.  Products whose level changed are tracked so the owner can
+ * flush just those.
+ */
+public class StockLedger {
+
+    /** Longs per 64‑byte cache line, so stripes do not share a line. */
+    private static final int PAD = 8;
+    /** Offset of a stripe's unflushed change from its level. */
+    private static final int DELTA = 1;
+
+    private final int stripes;
+    private final long initialStock;
+    private final ConcurrentHashMap<Long, AtomicLongArray> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param stripes      counters per product
+     * @param initialStock stock of a product seen for the first time
+     */
+    public StockLedger(int stripes, long initialStock) {
+        this.stripes = Math.max(1, stripes);
+        this.initialStock = initialStock;
+    }
+
+    /**
+     * Returns the stock of a product seen for the first time.
+     */
+    public long initialStock() {
+        return initialStock;
+    }
+
+    /**
+     * Sets a product's stock from its stored level, without marking it
+     * dirty.  Used during recovery.
+     */
+    public void load(long productId, long available) {
+        counters.put(productId, spread(available));
+    }
+
+    /**
+     * Takes {@code quantity} units of the product if that many are available.
+     *
+     * @return whether the units were taken
+     */
+    public boolean tryReserve(long productId, long quantity) {
+        AtomicLongArray cells = cellsOf(productId);
+        int home = ThreadLocalRandom.current().nextInt(stripes);
+        long taken = 0;
+        for (int i = 0; i < stripes && taken < quantity; i++) {
+            int slot = ((home + i) % stripes) * PAD;
+            for (;;) {
+                long current = cells.get(slot);
+                if (current <= 0) {
+                    break;
+                }
+                long take = Math.min(current, quantity - taken);
+                if (cells.compareAndSet(slot, current, current - take)) {
+                    cells.getAndAdd(slot + DELTA, -take);
+                    taken += take;
+                    break;
+                }
+            }
+        }
+        if (taken < quantity) {
+            if (taken > 0) {
+                give(cells, home * PAD, taken);
+            }
+            return false;
+        }
+        markDirty(productId);
+        return true;
+    }
+
+    /**
+     * Adds units to the product's stock, for released reservations and
+     * restocking.
+     */
+    public void add(long productId, long quantity) {
+        give(cellsOf(productId), ThreadLocalRandom.current().nextInt(stripes) * PAD, quantity);
+        markDirty(productId);
+    }
+
+    /**
+     * Returns the product's available stock.  The stripes are read one by
+     * one, so under concurrent updates the sum is a close approximation.
+     */
+    public long available(long productId) {
+        AtomicLongArray cells = cellsOf(productId);
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns and resets the change of every product changed since the last
+     * call.  A change made while the deltas are drained is either returned
+     * or left for the next call, never lost or counted twice.
+     *
+     * @return the net change per product, without products whose changes
+     *         cancelled out
+     */
+    public Map<Long, Long> drainDeltas() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            long productId = it.next();
+            // Removed before draining, so a later change marks it again
+            it.remove();
+            AtomicLongArray cells = counters.get(productId);
+            long delta = 0;
+            for (int i = 0; i < stripes; i++) {
+                delta += cells.getAndSet(i * PAD + DELTA, 0);
+            }
+            if (delta != 0) {
+                deltas.put(productId, delta);
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Puts drained deltas back, after a failed flush.
+     */
+    public void restoreDeltas(Map<Long, Long> deltas) {
+        deltas.forEach((productId, delta) -> {
+            cellsOf(productId).getAndAdd(DELTA, delta);
+            markDirty(productId);
+        });
+    }
+
+    private void markDirty(long productId) {
+        // Reading first keeps hot products from contending on the set
+        if (!dirty.contains(productId)) {
+            dirty.add(productId);
+        }
+    }
+
+    private AtomicLongArray cellsOf(long productId) {
+        AtomicLongArray cells = counters.get(productId);
+        if (cells != null) {
+            return cells;
+        }
+        return counters.computeIfAbsent(productId, id -> spread(initialStock));
+    }
+
+    private static void give(AtomicLongArray cells, int slot, long quantity) {
+        cells.getAndAdd(slot, quantity);
+        cells.getAndAdd(slot + DELTA, quantity);
+    }
+
+    private AtomicLongArray spread(long available) {
+        AtomicLongArray cells = new AtomicLongArray(stripes * PAD);
+        long share = available / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.set(i * PAD, share);
+        }
+        cells.getAndAdd(0, available - share * stripes);
+        return cells;
+    }
+}
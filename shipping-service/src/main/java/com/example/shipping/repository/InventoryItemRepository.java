@@ -0,0 +1,24 @@
+package com.example.shipping.repository;
+
+import com.example.shipping.entity.InventoryItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface InventoryItemRepository extends JpaRepository<InventoryItem, Long> {
+
+    /**
+     * Adds {@code delta} to a product's stored level.
+     *
+     * @return 0 if the product has no stored level yet
+     */
+    @Modifying
+    @Query("update InventoryItem i set i.available = i.available + :delta, i.updatedAt = :now"
+            + " where i.productId = :productId")
+    int addAvailable(@Param("productId") Long productId, @Param("delta") long delta, @Param("now") Instant now);
+}
@@ -0,0 +1,23 @@
+package com.example.shipping.repository;
+
+import com.example.shipping.entity.InventoryLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface InventoryLeaseRepository extends JpaRepository<InventoryLease, Long> {
+
+    /**
+     * Reads the lease and locks it until the end of the transaction, so that
+     * a renewal and a takeover never both succeed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from InventoryLease l where l.id = :id")
+    Optional<InventoryLease> findForUpdate(@Param("id") Long id);
+}
@@ -1,9 +1,40 @@
 package com.example.shipping.repository;
 
 import com.example.shipping.entity.Shipment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
 public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
+
+    /**
+     * Returns all shipments recorded for an order.
+     */
+    List<Shipment> findByOrderId(Long orderId);
+
+    /**
+     * Returns the oldest shipments created before {@code cutoff} in id
+     * order, for archival.
+     */
+    List<Shipment> findByCreatedAtBeforeOrderByIdAsc(Instant cutoff, Pageable pageable);
+
+    /**
+     * Keyset pagination over shipments ordered by {@code (orderId, id)}.
+     * Returns shipments positioned after {@code (afterOrderId, afterId)} with
+     * an order id of at most {@code toOrderId}.
+     */
+    @Query("select s from Shipment s "
+            + "where (s.orderId > :afterOrderId or (s.orderId = :afterOrderId and s.id > :afterId)) "
+            + "and s.orderId <= :toOrderId "
+            + "order by s.orderId, s.id")
+    List<Shipment> findPageOrderedByOrderId(@Param("afterOrderId") long afterOrderId,
+                                            @Param("afterId") long afterId,
+                                            @Param("toOrderId") long toOrderId,
+                                            Pageable pageable);
 }
\ No newline at end of file
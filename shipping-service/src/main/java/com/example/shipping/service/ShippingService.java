@@ -1,24 +1,32 @@
 package com.example.shipping.service;
 
+import com.example.common.jfr.FlightEvents;
+import com.example.common.jfr.ServiceCallEvent;
+import com.example.common.tracing.Tracing;
 import com.example.shipping.entity.Shipment;
 import com.example.shipping.repository.ShipmentRepository;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.UUID;
 
 /**
  * Business service that handles shipping operations.  A real system would
  * integrate with a fulfilment provider or logistics API.  Here we simply
- * generate a tracking number and persist the shipment.
+ * generate a tracking number and persist the shipment.  Each shipment is
+ * timed with a Flight Recorder {@link ServiceCallEvent}.
  */
 @Service
 @RequiredArgsConstructor
 public class ShippingService {
     private static final Logger logger = LoggerFactory.getLogger(ShippingService.class);
     private final ShipmentRepository shipmentRepository;
+    private final Tracer tracer;
 
     /**
      * Ships the given order by recording a shipment.  Generates a random
@@ -30,6 +38,11 @@ public class ShippingService {
      * @return the persisted shipment entity
      */
     public Shipment ship(Long orderId, Long productId, Integer quantity) {
+        return FlightEvents.record(new ServiceCallEvent("ShippingService.ship", orderId),
+                () -> createShipment(orderId, productId, quantity));
+    }
+
+    private Shipment createShipment(Long orderId, Long productId, Integer quantity) {
         String trackingNumber = UUID.randomUUID().toString().substring(0, 8);
         logger.info("Shipping order {} with tracking number {}", orderId, trackingNumber);
         Shipment shipment = Shipment.builder()
@@ -37,7 +50,8 @@ public class ShippingService {
                 .productId(productId)
                 .quantity(quantity)
                 .trackingNumber(trackingNumber)
+                .createdAt(Instant.now())
                 .build();
-        return shipmentRepository.save(shipment);
+        return Tracing.inSpan(tracer, "ShipmentRepository.save", SpanKind.CLIENT, () -> shipmentRepository.save(shipment));
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.example.shipping.worker;
+
+import com.example.common.dto.OrderPriority;
+import com.example.common.tuning.ActivitySlotTuning;
+import com.example.shipping.activity.InventoryActivityImpl;
+import com.example.shipping.inventory.InventoryService;
+import io.temporal.client.WorkflowClient;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker that executes inventory Activities on the inventory task queue.
+ * Stock is kept in memory by the instance holding the inventory lease, so
+ * only that instance polls: the worker starts polling when
+ * {@link InventoryService#isOwner()} becomes true and suspends when it
+ * becomes false.  While no instance owns the lease, for example during a
+ * takeover, reservations wait in the task queue instead of failing and
+ * using up their retries on instances that cannot serve them.  Each
+ * {@link OrderPriority} lane is polled with the same
+ * {@code temporal.lanes.<lane>.activityConcurrency} as the shipping worker.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryWorker {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryWorker.class);
+    private final WorkflowClient workflowClient;
+    private final WorkerFactoryOptions workerFactoryOptions;
+    private final Environment environment;
+    private final ActivitySlotTuning activitySlotTuning;
+    private final InventoryActivityImpl inventoryActivity;
+    private final InventoryService inventoryService;
+
+    @Value("${temporal.inventory.taskQueue:INVENTORY_ACTIVITY_TASK_QUEUE}")
+    private String inventoryTaskQueue;
+
+    private final List<Worker> workers = new ArrayList<>();
+    private WorkerFactory factory;
+    private boolean polling;
+
+    @PostConstruct
+    public void init() {
+        factory = WorkerFactory.newInstance(workflowClient, workerFactoryOptions);
+        for (OrderPriority lane : OrderPriority.values()) {
+            String taskQueue = lane.taskQueue(inventoryTaskQueue);
+            int concurrency = environment.getProperty(
+                    "temporal.lanes." + lane.key() + ".activityConcurrency", Integer.class, 200);
+            Worker worker = factory.newWorker(taskQueue, activitySlotTuning.workerOptions(taskQueue, concurrency));
+            worker.registerActivitiesImplementations(inventoryActivity);
+            workers.add(worker);
+        }
+        followLease();
+    }
+
+    /**
+     * Polls while this instance holds the inventory lease.  The factory is
+     * only started once the lease is first held, since polling cannot be
+     * suspended before then.
+     */
+    @Scheduled(fixedDelayString = "${temporal.inventory.ownerCheckIntervalMs:200}")
+    public synchronized void followLease() {
+        boolean owner = inventoryService.isOwner();
+        if (owner == polling || factory.isShutdown()) {
+            return;
+        }
+        if (owner && !factory.isStarted()) {
+            factory.start();
+        } else if (owner) {
+            workers.forEach(Worker::resumePolling);
+        } else {
+            workers.forEach(Worker::suspendPolling);
+        }
+        polling = owner;
+        logger.info("Inventory worker {} polling task queue {}", owner ? "started" : "stopped", inventoryTaskQueue);
+    }
+
+    /**
+     * Stops taking inventory Activities before the final flush of the
+     * {@link InventoryService}, which is destroyed after this worker.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (factory.isStarted()) {
+            factory.shutdown();
+            factory.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
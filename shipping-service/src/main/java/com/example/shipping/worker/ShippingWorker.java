@@ -1,13 +1,17 @@
 package com.example.shipping.worker;
 
 import com.example.shipping.activity.ShippingActivityImpl;
+import com.example.common.dto.OrderPriority;
+import com.example.common.tuning.ActivitySlotTuning;
 import io.temporal.client.WorkflowClient;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PostConstruct;
@@ -15,14 +19,21 @@ import jakarta.annotation.PostConstruct;
 /**
  * Worker that executes shipping Activities.  It polls the task queue
  * configured for shipping Activities and registers the
- * {@link ShippingActivityImpl} implementation.  The worker starts
- * automatically when the application context is created.
+ * {@link ShippingActivityImpl} implementation; inventory Activities have
+ * their own {@link InventoryWorker}.  The worker starts
+ * automatically when the application context is created.  Each
+ * {@link OrderPriority} lane is polled by its own worker with
+ * {@code temporal.lanes.<lane>.activityConcurrency} activity slots, or up
+ * to that many when {@link ActivitySlotTuning} sizes them by resource usage.
  */
 @Component
 @RequiredArgsConstructor
 public class ShippingWorker {
     private static final Logger logger = LoggerFactory.getLogger(ShippingWorker.class);
     private final WorkflowClient workflowClient;
+    private final WorkerFactoryOptions workerFactoryOptions;
+    private final Environment environment;
+    private final ActivitySlotTuning activitySlotTuning;
     private final ShippingActivityImpl shippingActivity;
 
     @Value("${temporal.shipping.taskQueue:SHIPPING_ACTIVITY_TASK_QUEUE}")
@@ -30,10 +41,19 @@ public class ShippingWorker {
 
     @PostConstruct
     public void start() {
-        WorkerFactory factory = WorkerFactory.newInstance(workflowClient);
-        Worker worker = factory.newWorker(shippingTaskQueue);
-        worker.registerActivitiesImplementations(shippingActivity);
+        WorkerFactory factory = WorkerFactory.newInstance(workflowClient, workerFactoryOptions);
+        // One worker per priority lane, each with its own activity slots, so
+        // bulk orders cannot starve express orders of capacity.
+        for (OrderPriority lane : OrderPriority.values()) {
+            String taskQueue = lane.taskQueue(shippingTaskQueue);
+            int concurrency = environment.getProperty(
+                    "temporal.lanes." + lane.key() + ".activityConcurrency", Integer.class, 200);
+            Worker worker = factory.newWorker(taskQueue, activitySlotTuning.workerOptions(taskQueue, concurrency));
+            worker.registerActivitiesImplementations(shippingActivity);
+            logger.info("Shipping worker polling task queue {} with {} activity slots ({})",
+                    taskQueue, concurrency, activitySlotTuning.getMode());
+        }
         factory.start();
-        logger.info("Shipping worker started and polling task queue: {}", shippingTaskQueue);
+        logger.info("Shipping worker started");
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.example.shipping.inventory;
+
+import com.example.shipping.entity.InventoryItem;
+import com.example.shipping.repository.InventoryItemRepository;
+import com.example.shipping.repository.InventoryLeaseRepository;
+import com.example.shipping.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryServiceTest {
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+    @Autowired
+    private StockReservationRepository reservationRepository;
+    @Autowired
+    private InventoryLeaseRepository leaseRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        inventoryItemRepository.deleteAll();
+        reservationRepository.deleteAll();
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    void storedLevelFollowsConcurrentReservesReleasesAndFlushes() throws Exception {
+        InventoryService inventory = newInventory(Duration.ofSeconds(10));
+        AtomicInteger ids = new AtomicInteger();
+        AtomicLong held = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        Future<?> flushing = flusher.submit(() -> {
+            while (running.get()) {
+                inventory.flush();
+            }
+        });
+
+        StockLedgerTest.runConcurrently(8, () -> {
+            for (int i = 0; i < 100; i++) {
+                int id = ids.incrementAndGet();
+                if (inventory.reserve("order-" + id, (long) id, 7L, 2)) {
+                    if (id % 3 == 0) {
+                        inventory.release("order-" + id, (long) id, 7L);
+                    } else {
+                        held.addAndGet(2);
+                    }
+                }
+            }
+        });
+        running.set(false);
+        flushing.get();
+        flusher.shutdown();
+        inventory.flush();
+
+        assertThat(inventory.available(7L)).isEqualTo(10_000 - held.get());
+        assertThat(inventoryItemRepository.findById(7L)).hasValueSatisfying(
+                item -> assertThat(item.getAvailable()).isEqualTo(10_000 - held.get()));
+        assertThat(reservationRepository.count()).isEqualTo(ids.get());
+    }
+
+    @Test
+    void flushAddsChangesToTheStoredLevel() {
+        inventoryItemRepository.save(new InventoryItem(7L, 50L, Instant.now()));
+        InventoryService inventory = newInventory(Duration.ofSeconds(10));
+        inventory.reserve("order-1", 1L, 7L, 5);
+
+        // Stock booked in directly while the reservation was unflushed
+        transactionTemplate.executeWithoutResult(status ->
+                inventoryItemRepository.addAvailable(7L, 100, Instant.now()));
+        inventory.flush();
+
+        assertThat(inventoryItemRepository.findById(7L)).hasValueSatisfying(
+                item -> assertThat(item.getAvailable()).isEqualTo(145));
+    }
+
+    @Test
+    void releaseOfUnknownReservationRefusesItLater() {
+        InventoryService inventory = newInventory(Duration.ofSeconds(10));
+
+        inventory.release("order-1", 1L, 7L);
+
+        assertThat(inventory.reserve("order-1", 1L, 7L, 5)).isFalse();
+        assertThat(inventory.available(7L)).isEqualTo(10_000);
+    }
+
+    @Test
+    void onlyTheLeaseHolderServesUntilTheLeaseExpires() throws Exception {
+        InventoryService first = newInventory(Duration.ofMillis(400));
+        first.reserve("order-1", 1L, 7L, 5);
+        first.flush();
+        InventoryService second = newInventory(Duration.ofMillis(400));
+
+        assertThat(first.isOwner()).isTrue();
+        assertThat(second.isOwner()).isFalse();
+        assertThatThrownBy(() -> second.reserve("order-2", 2L, 7L, 5))
+                .isInstanceOf(NotInventoryOwnerException.class);
+
+        Thread.sleep(500);
+        second.flush();
+        first.flush();
+
+        assertThat(second.isOwner()).isTrue();
+        assertThat(first.isOwner()).isFalse();
+        assertThat(second.available(7L)).isEqualTo(9_995);
+        assertThat(second.reserve("order-1", 1L, 7L, 5)).isTrue();
+        assertThatThrownBy(() -> first.reserve("order-3", 3L, 7L, 5))
+                .isInstanceOf(NotInventoryOwnerException.class);
+    }
+
+    private InventoryService newInventory(Duration leaseDuration) {
+        InventoryService inventory = new InventoryService(inventoryItemRepository, reservationRepository,
+                leaseRepository, transactionTemplate);
+        ReflectionTestUtils.setField(inventory, "stripes", 4);
+        ReflectionTestUtils.setField(inventory, "defaultStock", 10_000L);
+        ReflectionTestUtils.setField(inventory, "leaseDuration", leaseDuration);
+        inventory.start();
+        return inventory;
+    }
+}
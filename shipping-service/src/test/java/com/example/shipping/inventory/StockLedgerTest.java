@@ -0,0 +1,102 @@
+package com.example.shipping.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockLedgerTest {
+
+    @Test
+    void failedReservationHandsBackWhatItTook() {
+        StockLedger ledger = new StockLedger(4, 10);
+
+        assertThat(ledger.tryReserve(1L, 11)).isFalse();
+        assertThat(ledger.available(1L)).isEqualTo(10);
+        assertThat(ledger.drainDeltas()).isEmpty();
+
+        assertThat(ledger.tryReserve(1L, 10)).isTrue();
+        assertThat(ledger.available(1L)).isZero();
+        assertThat(ledger.tryReserve(1L, 1)).isFalse();
+        assertThat(ledger.drainDeltas()).containsExactly(Map.entry(1L, -10L));
+    }
+
+    @Test
+    void concurrentReservationsNeverTakeMoreThanTheStock() throws Exception {
+        StockLedger ledger = new StockLedger(8, 1000);
+        AtomicLong reserved = new AtomicLong();
+
+        runConcurrently(16, () -> {
+            for (int i = 0; i < 200; i++) {
+                if (ledger.tryReserve(1L, 3)) {
+                    reserved.addAndGet(3);
+                }
+            }
+        });
+
+        assertThat(reserved.get()).isLessThanOrEqualTo(1000);
+        assertThat(ledger.available(1L)).isEqualTo(1000 - reserved.get()).isNotNegative();
+    }
+
+    @Test
+    void deltasDrainedDuringChangesAddUpToTheChange() throws Exception {
+        StockLedger ledger = new StockLedger(8, 1000);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong flushed = new AtomicLong();
+        ExecutorService flusher = Executors.newSingleThreadExecutor();
+        Future<?> flushing = flusher.submit(() -> {
+            while (running.get()) {
+                ledger.drainDeltas().values().forEach(flushed::addAndGet);
+            }
+        });
+
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 5000; i++) {
+                if (ledger.tryReserve(1L, 2) && i % 2 == 0) {
+                    ledger.add(1L, 2);
+                }
+            }
+        });
+        running.set(false);
+        flushing.get();
+        flusher.shutdown();
+        ledger.drainDeltas().values().forEach(flushed::addAndGet);
+
+        assertThat(1000 + flushed.get()).isEqualTo(ledger.available(1L));
+    }
+
+    @Test
+    void restoredDeltasAreDrainedAgain() {
+        StockLedger ledger = new StockLedger(4, 10);
+        ledger.tryReserve(1L, 4);
+        Map<Long, Long> deltas = ledger.drainDeltas();
+
+        ledger.restoreDeltas(deltas);
+        ledger.add(1L, 1);
+
+        assertThat(ledger.drainDeltas()).containsExactly(Map.entry(1L, -3L));
+    }
+
+    static void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.shipping.worker;
+
+import com.example.common.activities.InventoryActivity;
+import com.example.common.dto.OrderDTO;
+import com.example.common.dto.OrderPriority;
+import com.example.common.tuning.ActivitySlotTuning;
+import com.example.shipping.activity.InventoryActivityImpl;
+import com.example.shipping.inventory.InventoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryWorkerTest {
+
+    private static final String INVENTORY_TASK_QUEUE = "inventory-test";
+    private static final String WORKFLOW_TASK_QUEUE = "inventory-workflow-test";
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final AtomicBoolean owner = new AtomicBoolean();
+    private TestWorkflowEnvironment testEnv;
+    private InventoryWorker inventoryWorker;
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryService.isOwner()).thenAnswer(i -> owner.get());
+        when(inventoryService.reserve(anyString(), anyLong(), anyLong(), anyLong())).thenReturn(true);
+        testEnv = TestWorkflowEnvironment.newInstance(TestEnvironmentOptions.newBuilder()
+                .setUseTimeskipping(false)
+                .build());
+        Worker worker = testEnv.newWorker(WORKFLOW_TASK_QUEUE);
+        worker.registerWorkflowImplementationTypes(ReservingWorkflowImpl.class);
+        testEnv.start();
+        ActivitySlotTuning tuning = new ActivitySlotTuning(ActivitySlotTuning.Mode.FIXED, 0.8, 0.8, 0.9, 5,
+                Duration.ofMillis(50), () -> 0, new SimpleMeterRegistry());
+        inventoryWorker = new InventoryWorker(testEnv.getWorkflowClient(), WorkerFactoryOptions.getDefaultInstance(),
+                new MockEnvironment(), tuning, new InventoryActivityImpl(inventoryService), inventoryService);
+        ReflectionTestUtils.setField(inventoryWorker, "inventoryTaskQueue", INVENTORY_TASK_QUEUE);
+        inventoryWorker.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryWorker.stop();
+        testEnv.close();
+    }
+
+    @Test
+    void reservationWaitsInTheQueueUntilTheLeaseIsHeld() throws Exception {
+        WorkflowClient.start(reservingWorkflow("order-1")::reserve, order(1L));
+
+        Thread.sleep(1_000);
+        verify(inventoryService, never()).reserve(anyString(), anyLong(), anyLong(), anyLong());
+
+        owner.set(true);
+        inventoryWorker.followLease();
+
+        verify(inventoryService, timeout(5_000)).reserve(eq("order-1"), eq(1L), eq(7L), eq(2L));
+    }
+
+    @Test
+    void pollingStopsWhenTheLeaseIsLostAndResumesWhenRegained() throws Exception {
+        owner.set(true);
+        inventoryWorker.followLease();
+        WorkflowClient.start(reservingWorkflow("order-1")::reserve, order(1L));
+        verify(inventoryService, timeout(5_000)).reserve(eq("order-1"), anyLong(), anyLong(), anyLong());
+
+        owner.set(false);
+        inventoryWorker.followLease();
+        // Polls already waiting on the server still take one task each, so
+        // the default five pollers are drained first
+        for (long orderId = 2; orderId <= 6; orderId++) {
+            WorkflowClient.start(reservingWorkflow("drain-" + orderId)::reserve, order(orderId));
+        }
+        Thread.sleep(1_000);
+        WorkflowClient.start(reservingWorkflow("order-9")::reserve, order(9L));
+
+        Thread.sleep(1_000);
+        verify(inventoryService, never()).reserve(eq("order-9"), anyLong(), anyLong(), anyLong());
+
+        owner.set(true);
+        inventoryWorker.followLease();
+
+        verify(inventoryService, timeout(5_000)).reserve(eq("order-9"), eq(9L), eq(7L), eq(2L));
+    }
+
+    private ReservingWorkflow reservingWorkflow(String workflowId) {
+        return testEnv.getWorkflowClient().newWorkflowStub(ReservingWorkflow.class, WorkflowOptions.newBuilder()
+                .setWorkflowId(workflowId)
+                .setTaskQueue(WORKFLOW_TASK_QUEUE)
+                .build());
+    }
+
+    private static OrderDTO order(Long orderId) {
+        return new OrderDTO(orderId, 7L, 10.0, 2, OrderPriority.EXPRESS);
+    }
+
+    @WorkflowInterface
+    public interface ReservingWorkflow {
+
+        @WorkflowMethod
+        void reserve(OrderDTO order);
+    }
+
+    /** Reserves stock on the inventory task queue, as the order workflow does. */
+    public static class ReservingWorkflowImpl implements ReservingWorkflow {
+
+        private final InventoryActivity inventory = Workflow.newActivityStub(InventoryActivity.class,
+                ActivityOptions.newBuilder()
+                        .setTaskQueue(INVENTORY_TASK_QUEUE)
+                        .setStartToCloseTimeout(Duration.ofSeconds(10))
+                        .build());
+
+        @Override
+        public void reserve(OrderDTO order) {
+            inventory.reserveStock(order);
+        }
+    }
+}